@@ -0,0 +1,39 @@
+#!/usr/bin/env bash
+#
+# Потолок параллелизма чтения каталога: MVC + JPA против /api/reactive (R2DBC).
+# Один и тот же набор чтений гоняется на растущем числе пользователей; там, где
+# rps перестаёт расти, а p99 уходит вверх, - потолок варианта.
+#
+#   ./scripts/catalog-concurrency-benchmark.sh [длительность] [уровни параллелизма...]
+#
+# Приложение должно быть запущено с app.reactive.enabled=true на данных из generateDataset:
+#   ./gradlew bootRun --args="--app.reactive.enabled=true"
+set -euo pipefail
+
+DURATION="${1:-PT30S}"
+shift || true
+LEVELS=("${@:-16 64 256 1024}")
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+OUT="$ROOT/build/perf/catalog-concurrency"
+mkdir -p "$OUT"
+
+BLOCKING_MIX="product-by-id=60,products-by-category=20,categories=20,products-batch=0,customer-orders=0,sales-report=0"
+REACTIVE_MIX="reactive-product-by-id=60,reactive-products-by-category=20,reactive-categories=20,product-by-id=0,products-by-category=0,categories=0,products-batch=0,customer-orders=0,sales-report=0"
+
+cd "$ROOT"
+SUMMARY="$OUT/summary.csv"
+echo "variant,concurrency,rps,p99_ms,errors" > "$SUMMARY"
+
+for level in ${LEVELS[*]}; do
+    for variant in blocking reactive; do
+        mix="$BLOCKING_MIX"
+        [ "$variant" = reactive ] && mix="$REACTIVE_MIX"
+        bash ./gradlew -q loadTest --args="--duration=$DURATION --warmup=PT10S --concurrency=$level \
+            --mix=$mix --label=$variant-$level --out=$OUT"
+        total=$(grep '^TOTAL,' "$OUT/load-$variant-$level.csv")
+        IFS=, read -r _ _ errors rps _ p99 _ _ <<< "$total"
+        echo "$variant,$level,$rps,$p99,$errors" >> "$SUMMARY"
+    done
+done
+
+column -s, -t < "$SUMMARY"
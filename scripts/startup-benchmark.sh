@@ -0,0 +1,63 @@
+#!/usr/bin/env bash
+#
+# Время до первого успешного запроса: обычный bootJar против AOT + AppCDS + fast-startup.
+#
+#   ./scripts/startup-benchmark.sh [итераций] [url]
+#
+# Нужна запущенная Postgres из application.properties. Скрипт сам собирает обе версии:
+#   baseline  - обычный jar, без AOT, без CDS-архива, Liquibase на каждом старте
+#   optimized - cdsArchive -PstartupOptimized: AOT + AppCDS + профиль fast-startup
+set -euo pipefail
+
+ITERATIONS="${1:-5}"
+URL="${2:-http://localhost:8080/api/categories}"
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+RESULTS="$ROOT/build/startup-benchmark"
+mkdir -p "$RESULTS"
+
+now_ms() {
+    date +%s%3N
+}
+
+# $1 - имя варианта, остальное - команда запуска
+measure() {
+    local name="$1"
+    shift
+    local total=0
+    for i in $(seq 1 "$ITERATIONS"); do
+        local start
+        start=$(now_ms)
+        "$@" >"$RESULTS/$name-$i.log" 2>&1 &
+        local pid=$!
+        until curl -fs -o /dev/null "$URL"; do
+            if ! kill -0 "$pid" 2>/dev/null; then
+                echo "$name: application exited, see $RESULTS/$name-$i.log" >&2
+                exit 1
+            fi
+            sleep 0.05
+        done
+        local elapsed=$(( $(now_ms) - start ))
+        total=$(( total + elapsed ))
+        echo "$name run $i: ${elapsed} ms"
+        kill "$pid"
+        wait "$pid" 2>/dev/null || true
+    done
+    echo "$name average: $(( total / ITERATIONS )) ms" | tee -a "$RESULTS/summary.txt"
+}
+
+cd "$ROOT"
+
+rm -rf "$RESULTS/baseline" "$RESULTS/optimized" "$RESULTS/summary.txt"
+
+bash ./gradlew -q cdsArchive
+JAR=$(ls build/cds/application/*.jar)
+cp -r build/cds "$RESULTS/baseline"
+measure baseline java -jar "$RESULTS/baseline/application/$(basename "$JAR")"
+
+bash ./gradlew -q cdsArchive -PstartupOptimized
+cp -r build/cds "$RESULTS/optimized"
+(
+    cd "$RESULTS/optimized"
+    measure optimized java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true \
+        -jar "application/$(basename "$JAR")" --spring.profiles.active=fast-startup
+)
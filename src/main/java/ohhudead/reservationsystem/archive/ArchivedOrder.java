@@ -0,0 +1,42 @@
+package ohhudead.reservationsystem.archive;
+
+import ohhudead.reservationsystem.entity.OrderStatus;
+import ohhudead.reservationsystem.entity.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+// Заказ целиком (с позициями и оплатой) в том виде, в каком он уходит в сегмент архива
+public record ArchivedOrder(
+        long orderId,
+        long customerId,
+        OffsetDateTime orderDate,
+        OrderStatus status,
+        String shippingCity,
+        String shippingCountry,
+        BigDecimal totalAmount,
+        int itemsCount,
+        OffsetDateTime updatedAt,
+        // в файл не пишется: по ней удаление проверяет, что заказ не менялся после выгрузки
+        long version,
+        List<Item> items,
+        Payment payment
+) {
+
+    public record Item(
+            long itemId,
+            long productId,
+            int quantity,
+            BigDecimal unitPrice
+    ) {
+    }
+
+    public record Payment(
+            long paymentId,
+            PaymentMethod method,
+            BigDecimal amount,
+            OffsetDateTime paidAt
+    ) {
+    }
+}
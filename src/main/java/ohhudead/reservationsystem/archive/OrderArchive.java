@@ -0,0 +1,115 @@
+package ohhudead.reservationsystem.archive;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import ohhudead.reservationsystem.config.ArchiveProperties;
+import ohhudead.reservationsystem.dto.OrderSummaryResponse;
+import ohhudead.reservationsystem.repository.OrderHistoryCursor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * Набор сегментов архива в каталоге app.archive.directory. Сегменты неизменяемы;
+ * новые появляются через {@link #append} или подхватываются {@link #rescan}.
+ * Каталог локальный: инстансы видят архив друг друга, только если он на общем томе.
+ */
+@Component
+@Slf4j
+public class OrderArchive {
+
+    public static final Comparator<OrderSummaryResponse> HISTORY_ORDER = Comparator
+            .comparing(OrderSummaryResponse::orderDate, OffsetDateTime.timelineComparator())
+            .thenComparing(OrderSummaryResponse::id)
+            .reversed();
+
+    private final Path directory;
+    private final OrderArchiveWriter writer;
+
+    // новые сегменты в конце
+    private final List<OrderArchiveSegment> segments = new CopyOnWriteArrayList<>();
+    private long nextSegment;
+
+    public OrderArchive(ArchiveProperties properties) {
+        this.directory = Path.of(properties.getDirectory());
+        this.writer = new OrderArchiveWriter(properties.getBlockRows());
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        Files.createDirectories(directory);
+        rescan();
+        if (!segments.isEmpty()) {
+            log.info("Order archive opened, segments={}, rows={}", segments.size(),
+                    segments.stream().mapToLong(OrderArchiveSegment::rows).sum());
+        }
+    }
+
+    // Записывает заказы новым сегментом; после возврата они видны в истории
+    public synchronized Path append(List<ArchivedOrder> orders) {
+        Path target = directory.resolve("orders-%012d%s".formatted(nextSegment++, SegmentFormat.SUFFIX));
+        try {
+            writer.write(target, orders);
+            segments.add(OrderArchiveSegment.open(target));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write order archive segment " + target, e);
+        }
+        return target;
+    }
+
+    // Подхватывает сегменты, записанные другим инстансом в общий каталог
+    public synchronized void rescan() throws IOException {
+        Set<Path> known = new HashSet<>();
+        segments.forEach(segment -> known.add(segment.path()));
+        for (Path path : list()) {
+            nextSegment = Math.max(nextSegment, segmentNumber(path) + 1);
+            if (!known.contains(path)) {
+                segments.add(OrderArchiveSegment.open(path));
+            }
+        }
+    }
+
+    /**
+     * До limit архивных строк покупателя после курсора в порядке истории.
+     * Заказ может оказаться в нескольких сегментах (сбой между записью сегмента и удалением
+     * строк, повторная выгрузка) - остаётся копия из самого нового сегмента.
+     */
+    public List<OrderSummaryResponse> findOrderSummaries(long customerId, OrderHistoryCursor after, int limit) {
+        Map<Long, OrderSummaryResponse> byId = new LinkedHashMap<>();
+        List<OrderArchiveSegment> snapshot = List.copyOf(segments);
+        for (int i = snapshot.size() - 1; i >= 0; i--) {
+            for (OrderSummaryResponse row : snapshot.get(i).findOrderSummaries(customerId, after, limit)) {
+                byId.putIfAbsent(row.id(), row);
+            }
+        }
+        List<OrderSummaryResponse> rows = new ArrayList<>(byId.values());
+        rows.sort(HISTORY_ORDER);
+        return rows.size() > limit ? rows.subList(0, limit) : rows;
+    }
+
+    private List<Path> list() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(SegmentFormat.SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring("orders-".length(), name.length() - SegmentFormat.SUFFIX.length()));
+    }
+}
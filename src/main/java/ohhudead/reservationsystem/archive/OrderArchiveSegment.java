@@ -0,0 +1,173 @@
+package ohhudead.reservationsystem.archive;
+
+import ohhudead.reservationsystem.dto.OrderSummaryResponse;
+import ohhudead.reservationsystem.entity.OrderStatus;
+import ohhudead.reservationsystem.repository.OrderHistoryCursor;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Сегмент архива, отображённый в память только для чтения. Читается абсолютными get'ами,
+ * поэтому один экземпляр безопасно используют параллельные запросы.
+ * Ключевые колонки не сжаты: поиск диапазона покупателя и позиции курсора не трогает блоки.
+ */
+public final class OrderArchiveSegment {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int rows;
+    private final int blockRows;
+    private final long minCustomerId;
+    private final long maxCustomerId;
+
+    private OrderArchiveSegment(Path path, MappedByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+        if (buffer.getInt(0) != SegmentFormat.MAGIC || buffer.getInt(4) != SegmentFormat.VERSION) {
+            throw new IllegalStateException("Not an order archive segment: " + path);
+        }
+        this.rows = buffer.getInt(8);
+        this.blockRows = buffer.getInt(12);
+        if (buffer.getInt(16) != (rows + blockRows - 1) / blockRows) {
+            throw new IllegalStateException("Order archive segment block directory mismatch: " + path);
+        }
+        this.minCustomerId = buffer.getLong(24);
+        this.maxCustomerId = buffer.getLong(32);
+    }
+
+    public static OrderArchiveSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // отображение живёт и после закрытия канала
+            return new OrderArchiveSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    // До limit строк покупателя строго после курсора, в порядке (order_date desc, order_id desc)
+    public List<OrderSummaryResponse> findOrderSummaries(long customerId, OrderHistoryCursor after, int limit) {
+        if (customerId < minCustomerId || customerId > maxCustomerId) {
+            return List.of();
+        }
+        int from = lowerBound(customerId);
+        int to = lowerBound(customerId + 1);
+        if (after != null) {
+            from = firstAfter(from, to, SegmentFormat.toMicros(after.orderDate()), after.orderId());
+        }
+        to = Math.min(to, from + limit);
+        if (from >= to) {
+            return List.of();
+        }
+
+        List<OrderSummaryResponse> result = new ArrayList<>(to - from);
+        int row = from;
+        while (row < to) {
+            int block = row / blockRows;
+            int blockStart = block * blockRows;
+            int blockEnd = Math.min(to, blockStart + blockRows);
+            readSummaries(block, row - blockStart, blockEnd - blockStart, result, row);
+            row = blockEnd;
+        }
+        return result;
+    }
+
+    // первая строка с customerId >= заданного
+    private int lowerBound(long customerId) {
+        int lo = 0;
+        int hi = rows;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (customerId(mid) < customerId) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // первая строка диапазона, у которой (order_date, order_id) < курсора
+    private int firstAfter(int from, int to, long dateMicros, long orderId) {
+        int lo = from;
+        int hi = to;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            long date = orderDate(mid);
+            boolean before = date < dateMicros || (date == dateMicros && orderId(mid) < orderId);
+            if (before) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    private void readSummaries(int block, int from, int to, List<OrderSummaryResponse> result, int firstRow) {
+        long start = blockOffset(block);
+        long end = blockOffset(block + 1);
+        byte[] compressed = new byte[Math.toIntExact(end - start)];
+        buffer.get(Math.toIntExact(start), compressed);
+
+        int size = Math.min(blockRows, rows - block * blockRows);
+        try (DataInputStream in = new DataInputStream(
+                new InflaterInputStream(new ByteArrayInputStream(compressed)))) {
+            byte[] statuses = new byte[size];
+            in.readFully(statuses);
+            long[] totals = new long[size];
+            for (int i = 0; i < size; i++) {
+                totals[i] = in.readLong();
+            }
+            int[] itemsCounts = new int[size];
+            for (int i = 0; i < size; i++) {
+                itemsCounts[i] = in.readInt();
+            }
+            // остальные колонки блока не распаковываем
+            for (int i = from; i < to; i++) {
+                int row = firstRow + (i - from);
+                result.add(new OrderSummaryResponse(
+                        orderId(row),
+                        SegmentFormat.fromMicros(orderDate(row)),
+                        STATUSES[statuses[i]],
+                        SegmentFormat.fromCents(totals[i]),
+                        itemsCounts[i]));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupted order archive segment " + path, e);
+        }
+    }
+
+    private long customerId(int row) {
+        return buffer.getLong(SegmentFormat.HEADER_BYTES + Long.BYTES * row);
+    }
+
+    private long orderDate(int row) {
+        return buffer.getLong(SegmentFormat.HEADER_BYTES + Long.BYTES * (rows + row));
+    }
+
+    private long orderId(int row) {
+        return buffer.getLong(SegmentFormat.HEADER_BYTES + Long.BYTES * (2 * rows + row));
+    }
+
+    private long blockOffset(int block) {
+        return buffer.getLong(SegmentFormat.HEADER_BYTES + Long.BYTES * (3 * rows + block));
+    }
+}
@@ -0,0 +1,156 @@
+package ohhudead.reservationsystem.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+// Пишет сегмент (формат - в SegmentFormat) во временный файл, fsync, затем атомарно переименовывает
+public final class OrderArchiveWriter {
+
+    static final Comparator<ArchivedOrder> SEGMENT_ORDER = Comparator
+            .comparingLong(ArchivedOrder::customerId)
+            .thenComparing(Comparator.comparingLong((ArchivedOrder o) -> SegmentFormat.toMicros(o.orderDate())).reversed())
+            .thenComparing(Comparator.comparingLong(ArchivedOrder::orderId).reversed());
+
+    private final int blockRows;
+
+    public OrderArchiveWriter(int blockRows) {
+        this.blockRows = blockRows;
+    }
+
+    public void write(Path target, List<ArchivedOrder> orders) throws IOException {
+        if (orders.isEmpty()) {
+            throw new IllegalArgumentException("Archive segment must not be empty");
+        }
+        List<ArchivedOrder> rows = new ArrayList<>(orders);
+        rows.sort(SEGMENT_ORDER);
+
+        List<byte[]> blocks = new ArrayList<>();
+        for (int from = 0; from < rows.size(); from += blockRows) {
+            blocks.add(encodeBlock(rows.subList(from, Math.min(rows.size(), from + blockRows))));
+        }
+
+        int keysBytes = 3 * Long.BYTES * rows.size();
+        int directoryBytes = Long.BYTES * (blocks.size() + 1);
+        ByteBuffer head = ByteBuffer.allocate(SegmentFormat.HEADER_BYTES + keysBytes + directoryBytes);
+        head.putInt(SegmentFormat.MAGIC)
+                .putInt(SegmentFormat.VERSION)
+                .putInt(rows.size())
+                .putInt(blockRows)
+                .putInt(blocks.size())
+                .putInt(0)
+                .putLong(rows.get(0).customerId())
+                .putLong(rows.get(rows.size() - 1).customerId());
+        for (ArchivedOrder row : rows) {
+            head.putLong(row.customerId());
+        }
+        for (ArchivedOrder row : rows) {
+            head.putLong(SegmentFormat.toMicros(row.orderDate()));
+        }
+        for (ArchivedOrder row : rows) {
+            head.putLong(row.orderId());
+        }
+        long offset = head.capacity();
+        for (byte[] block : blocks) {
+            head.putLong(offset);
+            offset += block.length;
+        }
+        head.putLong(offset);
+        head.flip();
+
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, head);
+            for (byte[] block : blocks) {
+                writeFully(channel, ByteBuffer.wrap(block));
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static byte[] encodeBlock(List<ArchivedOrder> rows) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater, 8192))) {
+            // колонки OrderSummaryResponse - первыми
+            for (ArchivedOrder row : rows) {
+                out.writeByte(row.status().ordinal());
+            }
+            for (ArchivedOrder row : rows) {
+                out.writeLong(SegmentFormat.toCents(row.totalAmount()));
+            }
+            for (ArchivedOrder row : rows) {
+                out.writeInt(row.itemsCount());
+            }
+
+            for (ArchivedOrder row : rows) {
+                out.writeLong(SegmentFormat.toMicros(row.updatedAt()));
+            }
+            for (ArchivedOrder row : rows) {
+                out.writeUTF(row.shippingCity());
+            }
+            for (ArchivedOrder row : rows) {
+                out.writeUTF(row.shippingCountry());
+            }
+
+            for (ArchivedOrder row : rows) {
+                out.writeInt(row.items().size());
+            }
+            List<ArchivedOrder.Item> items = rows.stream().flatMap(row -> row.items().stream()).toList();
+            for (ArchivedOrder.Item item : items) {
+                out.writeLong(item.itemId());
+            }
+            for (ArchivedOrder.Item item : items) {
+                out.writeLong(item.productId());
+            }
+            for (ArchivedOrder.Item item : items) {
+                out.writeInt(item.quantity());
+            }
+            for (ArchivedOrder.Item item : items) {
+                out.writeLong(SegmentFormat.toCents(item.unitPrice()));
+            }
+
+            for (ArchivedOrder row : rows) {
+                out.writeBoolean(row.payment() != null);
+            }
+            List<ArchivedOrder.Payment> payments = rows.stream()
+                    .map(ArchivedOrder::payment)
+                    .filter(p -> p != null)
+                    .toList();
+            for (ArchivedOrder.Payment payment : payments) {
+                out.writeLong(payment.paymentId());
+            }
+            for (ArchivedOrder.Payment payment : payments) {
+                out.writeByte(payment.method().ordinal());
+            }
+            for (ArchivedOrder.Payment payment : payments) {
+                out.writeLong(SegmentFormat.toCents(payment.amount()));
+            }
+            for (ArchivedOrder.Payment payment : payments) {
+                out.writeLong(SegmentFormat.toMicros(payment.paidAt()));
+            }
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
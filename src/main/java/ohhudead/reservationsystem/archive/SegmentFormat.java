@@ -0,0 +1,51 @@
+package ohhudead.reservationsystem.archive;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Формат сегмента архива заказов (файл orders-&lt;номер&gt;.oarc, big-endian):
+ * <pre>
+ *   заголовок  magic int, version int, rows int, blockRows int, blockCount int, pad int,
+ *              minCustomerId long, maxCustomerId long
+ *   ключи      customerId long[rows], orderDate long[rows], orderId long[rows]
+ *   каталог    смещения блоков long[blockCount + 1], последнее - конец файла
+ *   блоки      по blockRows заказов, каждый - отдельный deflate-поток
+ * </pre>
+ * Строки отсортированы по (customer_id, order_date desc, order_id desc): история одного
+ * покупателя - непрерывный диапазон в порядке выдачи API, ключи ищутся бинарным поиском
+ * прямо по отображённому в память файлу без распаковки.
+ * Внутри блока данные лежат по колонкам; колонки для OrderSummaryResponse идут первыми,
+ * поэтому история распаковывает только начало блока.
+ * Время хранится в микросекундах от эпохи (точность timestamptz), деньги - unscaled long при scale 2.
+ */
+final class SegmentFormat {
+
+    static final int MAGIC = 0x4F415243; // "OARC"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 40;
+    static final String SUFFIX = ".oarc";
+
+    private SegmentFormat() {
+    }
+
+    static long toMicros(OffsetDateTime time) {
+        Instant instant = time.toInstant();
+        return ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+    }
+
+    static OffsetDateTime fromMicros(long micros) {
+        return OffsetDateTime.ofInstant(Instant.EPOCH.plus(micros, ChronoUnit.MICROS), ZoneOffset.UTC);
+    }
+
+    static long toCents(BigDecimal amount) {
+        return amount.setScale(2).unscaledValue().longValueExact();
+    }
+
+    static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
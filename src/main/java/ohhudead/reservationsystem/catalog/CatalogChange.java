@@ -0,0 +1,14 @@
+package ohhudead.reservationsystem.catalog;
+
+import ohhudead.reservationsystem.event.CatalogChangedEvent;
+
+import java.time.OffsetDateTime;
+
+// Запись журнала catalog_changes: строка каталога вставлена, изменена или удалена
+public record CatalogChange(
+        long changeId,
+        CatalogChangedEvent.EntityType entityType,
+        long entityId,
+        OffsetDateTime changedAt
+) {
+}
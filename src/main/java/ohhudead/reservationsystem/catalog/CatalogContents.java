@@ -0,0 +1,14 @@
+package ohhudead.reservationsystem.catalog;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+// Весь каталог на момент asOf (время БД); изменения журнала catalog_changes
+// до changePosition включительно в нём уже учтены
+public record CatalogContents(
+        OffsetDateTime asOf,
+        long changePosition,
+        List<CategoryRow> categories,
+        List<ProductRow> products
+) {
+}
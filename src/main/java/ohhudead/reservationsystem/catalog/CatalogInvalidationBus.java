@@ -0,0 +1,181 @@
+package ohhudead.reservationsystem.catalog;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import ohhudead.reservationsystem.config.CatalogInvalidationProperties;
+import ohhudead.reservationsystem.event.CatalogChangedEvent;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Рассылает изменения каталога другим инстансам через NOTIFY в PostgreSQL.
+ * <p>
+ * pg_notify выполняется в транзакции изменения: PostgreSQL доставляет уведомление только
+ * после коммита и отбрасывает при откате. Каждый инстанс слушает канал на отдельном
+ * соединении (не из пула), копит id за batch-window и перечитывает их в CatalogReadModel
+ * одним запросом на тип. Свои уведомления пропускаются - их уже применил onCatalogChanged.
+ * <p>
+ * Пока соединение оборвано, уведомления теряются, поэтому после переподключения
+ * read model догоняет БД целиком (catchUp от watermark, включая удаления).
+ * Формат сообщения: {@code origin;P|C;id,id,...}.
+ */
+@Component
+@Slf4j
+public class CatalogInvalidationBus {
+
+    // NOTIFY ограничивает сообщение 8000 байтами: 300 id по 20 символов помещаются с запасом
+    private static final int IDS_PER_MESSAGE = 300;
+    private static final int IDLE_POLL_MILLIS = 1000;
+
+    private final CatalogReadModel catalogReadModel;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final CatalogInvalidationProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final String origin = UUID.randomUUID().toString();
+    private volatile boolean stopping;
+    private Thread listener;
+
+    public CatalogInvalidationBus(CatalogReadModel catalogReadModel,
+                                  JdbcTemplate jdbcTemplate,
+                                  DataSourceProperties dataSourceProperties,
+                                  CatalogInvalidationProperties properties,
+                                  MeterRegistry meterRegistry) {
+        if (!properties.getChannel().matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid app.catalog.invalidation.channel: " + properties.getChannel());
+        }
+        this.catalogReadModel = catalogReadModel;
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        listener = new Thread(this::listen, "catalog-invalidation");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        stopping = true;
+        if (listener != null) {
+            listener.join(IDLE_POLL_MILLIS * 2L);
+        }
+    }
+
+    // Синхронно, внутри транзакции изменения: уведомление уйдёт вместе с её коммитом
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (!properties.isEnabled() || event.ids().isEmpty()) {
+            return;
+        }
+        String prefix = origin + ";" + (event.entityType() == CatalogChangedEvent.EntityType.PRODUCT ? "P" : "C") + ";";
+        List<Long> ids = List.copyOf(event.ids());
+        for (int from = 0; from < ids.size(); from += IDS_PER_MESSAGE) {
+            StringBuilder payload = new StringBuilder(prefix);
+            for (int i = from; i < Math.min(from + IDS_PER_MESSAGE, ids.size()); i++) {
+                if (i > from) {
+                    payload.append(',');
+                }
+                payload.append(ids.get(i));
+            }
+            jdbcTemplate.query("select pg_notify(?, ?)", (ResultSetExtractor<Void>) rs -> null,
+                    properties.getChannel(), payload.toString());
+        }
+    }
+
+    private void listen() {
+        boolean reconnect = false;
+        while (!stopping) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("listen " + properties.getChannel());
+                }
+                // LISTEN уже активен: всё, что закоммитят дальше, придёт уведомлением,
+                // пропущенное за время обрыва забирает catchUp
+                if (reconnect) {
+                    catalogReadModel.catchUp();
+                    meterRegistry.counter("catalog.invalidation.resyncs").increment();
+                    log.info("Catalog invalidation listener reconnected, read model resynced");
+                }
+                reconnect = true;
+                receive(connection.unwrap(PGConnection.class));
+            } catch (SQLException | RuntimeException e) {
+                if (stopping) {
+                    return;
+                }
+                log.warn("Catalog invalidation listener disconnected, retrying in {}: {}",
+                        properties.getReconnectDelay(), e.getMessage());
+                try {
+                    Thread.sleep(properties.getReconnectDelay().toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receive(PGConnection connection) throws SQLException {
+        Set<Long> products = new HashSet<>();
+        Set<Long> categories = new HashSet<>();
+        long windowMillis = properties.getBatchWindow().toMillis();
+        long batchStartedAt = 0;
+
+        while (!stopping) {
+            boolean pending = !products.isEmpty() || !categories.isEmpty();
+            long timeout = pending
+                    ? Math.max(1, batchStartedAt + windowMillis - System.currentTimeMillis())
+                    : IDLE_POLL_MILLIS;
+            PGNotification[] notifications = connection.getNotifications((int) timeout);
+            if (notifications != null) {
+                for (PGNotification notification : notifications) {
+                    String[] parts = notification.getParameter().split(";", 3);
+                    if (parts.length != 3 || parts[0].equals(origin) || parts[2].isEmpty()) {
+                        continue;
+                    }
+                    if (!pending) {
+                        batchStartedAt = System.currentTimeMillis();
+                        pending = true;
+                    }
+                    Set<Long> target = "P".equals(parts[1]) ? products : categories;
+                    for (String id : parts[2].split(",")) {
+                        target.add(Long.parseLong(id));
+                    }
+                    meterRegistry.counter("catalog.invalidation.received").increment();
+                }
+            }
+            if (pending && System.currentTimeMillis() - batchStartedAt >= windowMillis) {
+                // сначала категории: имя категории в ответе товара берётся из read model
+                catalogReadModel.reload(CatalogChangedEvent.categories(categories));
+                catalogReadModel.reload(CatalogChangedEvent.products(products));
+                products.clear();
+                categories.clear();
+            }
+        }
+    }
+}
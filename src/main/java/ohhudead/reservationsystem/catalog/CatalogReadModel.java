@@ -0,0 +1,346 @@
+package ohhudead.reservationsystem.catalog;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import ohhudead.reservationsystem.config.CatalogSnapshotProperties;
+import ohhudead.reservationsystem.dto.CategoryResponse;
+import ohhudead.reservationsystem.dto.ProductResponse;
+import ohhudead.reservationsystem.event.CatalogChangedEvent;
+import ohhudead.reservationsystem.repository.CatalogSnapshotRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read model каталога для ProductService/CategoryService: снапшот с диска, отображённый
+ * в память, плюс всё, что изменилось после него (overlay в памяти).
+ * <ul>
+ *   <li>COLD - снапшота нет и полная загрузка ещё не прошла, чтения идут в БД;</li>
+ *   <li>SNAPSHOT - чтения обслуживает снапшот прошлого запуска, дельта ещё не применена;</li>
+ *   <li>WARM - дельта применена, дальше модель догоняет БД каждые app.catalog.snapshot.refresh-delay.</li>
+ * </ul>
+ * Дельта - хвост журнала catalog_changes после changePosition: каждая запись журнала
+ * дочитывается из БД по PK один раз. Записи моложе delta-overlap читаются повторно, пока
+ * позиция не пройдёт их, - так не теряются транзакции, закоммиченные не в порядке change_id.
+ * Свои изменения инстанс видит сразу после коммита (CatalogChangedEvent), чужие - через
+ * CatalogInvalidationBus, а если он выключен или отстал - с задержкой до refresh-delay. Остатки в ответах могут отставать так же; списание проверяет БД.
+ * Базовый снапшот во время работы не меняется: новые файлы, которые пишет
+ * CatalogSnapshotScheduler, нужны следующему запуску.
+ */
+@Component
+@Slf4j
+public class CatalogReadModel {
+
+    public enum State {
+        COLD,
+        SNAPSHOT,
+        WARM
+    }
+
+    private final CatalogSnapshotRepository catalogSnapshotRepository;
+    private final CatalogSnapshotProperties properties;
+
+    private final Map<Long, ProductRow> products = new ConcurrentHashMap<>();
+    private final Map<Long, CategoryRow> categories = new ConcurrentHashMap<>();
+    private final Set<Long> deletedProducts = ConcurrentHashMap.newKeySet();
+    private final Set<Long> deletedCategories = ConcurrentHashMap.newKeySet();
+
+    private volatile CatalogSnapshot base;
+    private volatile State state = State.COLD;
+    // время БД, до которого изменения уже применены
+    private volatile OffsetDateTime watermark;
+    // журнал до этой записи включительно применён; null - нужна полная загрузка
+    private volatile Long changePosition;
+    // записи журнала после changePosition, которые уже применены
+    private Set<Long> recentChanges = Set.of();
+    private final long startedAt = System.nanoTime();
+
+    public CatalogReadModel(CatalogSnapshotRepository catalogSnapshotRepository,
+                            CatalogSnapshotProperties properties) {
+        this.catalogSnapshotRepository = catalogSnapshotRepository;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    void openSnapshot() {
+        Path path = Path.of(properties.getPath());
+        if (!properties.isEnabled() || !Files.exists(path)) {
+            return;
+        }
+        try {
+            CatalogSnapshot snapshot = CatalogSnapshot.open(path);
+            // журнал после позиции снапшота уже мог быть вычищен
+            if (snapshot.asOf().minus(properties.getDeltaOverlap())
+                    .isBefore(OffsetDateTime.now().minus(properties.getChangeRetention()))) {
+                log.info("Catalog snapshot too old, ignoring, asOf={}", snapshot.asOf());
+                return;
+            }
+            base = snapshot;
+            watermark = snapshot.asOf();
+            changePosition = snapshot.changePosition();
+            state = State.SNAPSHOT;
+            log.info("Catalog snapshot mapped, asOf={}, products={}, categories={}",
+                    snapshot.asOf(), snapshot.productCount(), snapshot.categoryCount());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Catalog snapshot {} not usable, starting cold: {}", path, e.getMessage());
+        }
+    }
+
+    public State state() {
+        return state;
+    }
+
+    public boolean isServing() {
+        return properties.isEnabled() && state != State.COLD;
+    }
+
+    public OffsetDateTime watermark() {
+        return watermark;
+    }
+
+    public OffsetDateTime snapshotAsOf() {
+        CatalogSnapshot snapshot = base;
+        return snapshot == null ? null : snapshot.asOf();
+    }
+
+    // товаров и категорий в overlay - изменённых после снапшота (без снапшота - всех)
+    public int overlaySize() {
+        return products.size() + categories.size();
+    }
+
+    // Применяет изменения с прошлого раза; первый вызов без снапшота - полная загрузка
+    public synchronized void catchUp() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (changePosition == null) {
+            loadAll();
+        } else {
+            applyChanges();
+        }
+
+        if (state != State.WARM) {
+            state = State.WARM;
+            log.info("Catalog read model warm, snapshotAsOf={}, overlay={}, tookMs={}",
+                    snapshotAsOf(), overlaySize(), (System.nanoTime() - startedAt) / 1_000_000);
+        }
+    }
+
+    private void loadAll() {
+        CatalogContents catalog = catalogSnapshotRepository.findCatalog(properties.getDeltaOverlap());
+        Set<Long> missingProducts = new HashSet<>(products.keySet());
+        Set<Long> missingCategories = new HashSet<>(categories.keySet());
+        CatalogSnapshot snapshot = base;
+        if (snapshot != null) {
+            snapshot.products().forEach(row -> missingProducts.add(row.id()));
+            snapshot.categories().forEach(row -> missingCategories.add(row.id()));
+        }
+
+        for (CategoryRow row : catalog.categories()) {
+            missingCategories.remove(row.id());
+            putCategory(row);
+        }
+        for (ProductRow row : catalog.products()) {
+            missingProducts.remove(row.id());
+            putProduct(row);
+        }
+        // повторная загрузка после простоя: удалённое за это время в журнале уже не найти
+        missingCategories.forEach(this::removeCategory);
+        missingProducts.forEach(this::removeProduct);
+
+        changePosition = catalog.changePosition();
+        recentChanges = Set.of();
+        watermark = catalog.asOf();
+    }
+
+    private void applyChanges() {
+        CatalogSnapshotRepository.ChangeTail tail = catalogSnapshotRepository.findChanges(changePosition);
+        if (watermark.isBefore(tail.asOf().minus(properties.getChangeRetention()))) {
+            log.warn("Catalog read model behind change log retention, reloading, watermark={}", watermark);
+            loadAll();
+            return;
+        }
+
+        // позиция проходит только записи старше overlap, остальные запоминаются как применённые
+        OffsetDateTime settledBefore = tail.asOf().minus(properties.getDeltaOverlap());
+        long position = changePosition;
+        boolean settled = true;
+        Set<Long> pending = new HashSet<>();
+        Set<Long> productIds = new HashSet<>();
+        Set<Long> categoryIds = new HashSet<>();
+        for (CatalogChange change : tail.changes()) {
+            settled = settled && !change.changedAt().isAfter(settledBefore);
+            if (settled) {
+                position = change.changeId();
+            } else {
+                pending.add(change.changeId());
+            }
+            if (recentChanges.contains(change.changeId())) {
+                continue;
+            }
+            if (change.entityType() == CatalogChangedEvent.EntityType.PRODUCT) {
+                productIds.add(change.entityId());
+            } else {
+                categoryIds.add(change.entityId());
+            }
+        }
+
+        reload(CatalogChangedEvent.categories(categoryIds));
+        reload(CatalogChangedEvent.products(productIds));
+        changePosition = position;
+        recentChanges = pending;
+        watermark = tail.asOf();
+    }
+
+    // Изменения этого инстанса видны сразу после коммита, не дожидаясь дельты
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        reload(event);
+    }
+
+    // Перечитывает из БД строки события; отсутствующие в БД считаются удалёнными
+    public void reload(CatalogChangedEvent event) {
+        if (!properties.isEnabled() || event.ids().isEmpty()) {
+            return;
+        }
+        Set<Long> missing = new HashSet<>(event.ids());
+        if (event.entityType() == CatalogChangedEvent.EntityType.PRODUCT) {
+            for (ProductRow row : catalogSnapshotRepository.findProducts(event.ids())) {
+                missing.remove(row.id());
+                putProduct(row);
+            }
+            missing.forEach(this::removeProduct);
+        } else {
+            for (CategoryRow row : catalogSnapshotRepository.findCategories(event.ids())) {
+                missing.remove(row.id());
+                putCategory(row);
+            }
+            missing.forEach(this::removeCategory);
+        }
+    }
+
+    public Optional<ProductResponse> findProduct(long id) {
+        return productRow(id).map(this::toResponse);
+    }
+
+    // в порядке id; categoryId == null - все товары
+    public List<ProductResponse> findProducts(Long categoryId) {
+        CatalogSnapshot snapshot = base;
+        List<ProductRow> rows = new ArrayList<>();
+        if (snapshot != null) {
+            List<ProductRow> baseRows = categoryId == null
+                    ? snapshot.products()
+                    : snapshot.productsInCategory(categoryId);
+            for (ProductRow row : baseRows) {
+                if (!products.containsKey(row.id()) && !deletedProducts.contains(row.id())) {
+                    rows.add(row);
+                }
+            }
+        }
+        for (ProductRow row : products.values()) {
+            if (categoryId == null || row.categoryId() == categoryId) {
+                rows.add(row);
+            }
+        }
+        rows.sort(Comparator.comparingLong(ProductRow::id));
+        return rows.stream().map(this::toResponse).toList();
+    }
+
+    public Optional<CategoryResponse> findCategory(long id) {
+        return categoryRow(id).map(CatalogReadModel::toResponse);
+    }
+
+    // в порядке id
+    public List<CategoryResponse> findCategories() {
+        CatalogSnapshot snapshot = base;
+        List<CategoryRow> rows = new ArrayList<>();
+        if (snapshot != null) {
+            for (CategoryRow row : snapshot.categories()) {
+                if (!categories.containsKey(row.id()) && !deletedCategories.contains(row.id())) {
+                    rows.add(row);
+                }
+            }
+        }
+        rows.addAll(categories.values());
+        rows.sort(Comparator.comparingLong(CategoryRow::id));
+        return rows.stream().map(CatalogReadModel::toResponse).toList();
+    }
+
+    private Optional<ProductRow> productRow(long id) {
+        if (deletedProducts.contains(id)) {
+            return Optional.empty();
+        }
+        ProductRow row = products.get(id);
+        if (row != null) {
+            return Optional.of(row);
+        }
+        CatalogSnapshot snapshot = base;
+        return snapshot == null ? Optional.empty() : snapshot.findProduct(id);
+    }
+
+    private Optional<CategoryRow> categoryRow(long id) {
+        if (deletedCategories.contains(id)) {
+            return Optional.empty();
+        }
+        CategoryRow row = categories.get(id);
+        if (row != null) {
+            return Optional.of(row);
+        }
+        CatalogSnapshot snapshot = base;
+        return snapshot == null ? Optional.empty() : snapshot.findCategory(id);
+    }
+
+    // дельта и события приходят в любом порядке: побеждает более поздний updated_at
+    private void putProduct(ProductRow row) {
+        if (!deletedProducts.contains(row.id())) {
+            products.merge(row.id(), row, (current, incoming) ->
+                    incoming.updatedAt().isBefore(current.updatedAt()) ? current : incoming);
+        }
+    }
+
+    private void putCategory(CategoryRow row) {
+        if (!deletedCategories.contains(row.id())) {
+            categories.merge(row.id(), row, (current, incoming) ->
+                    incoming.updatedAt().isBefore(current.updatedAt()) ? current : incoming);
+        }
+    }
+
+    // id не переиспользуются, поэтому удаление окончательное
+    private void removeProduct(Long id) {
+        deletedProducts.add(id);
+        products.remove(id);
+    }
+
+    private void removeCategory(Long id) {
+        deletedCategories.add(id);
+        categories.remove(id);
+    }
+
+    private ProductResponse toResponse(ProductRow row) {
+        return ProductResponse.builder()
+                .id(row.id())
+                .name(row.name())
+                .price(row.price())
+                .inStock(row.inStock())
+                .categoryId(row.categoryId())
+                .categoryName(categoryRow(row.categoryId()).map(CategoryRow::name).orElse(null))
+                .createdAt(row.createdAt())
+                .build();
+    }
+
+    private static CategoryResponse toResponse(CategoryRow row) {
+        return new CategoryResponse(row.id(), row.name(), row.description());
+    }
+}
@@ -0,0 +1,33 @@
+package ohhudead.reservationsystem.catalog;
+
+import lombok.RequiredArgsConstructor;
+import ohhudead.reservationsystem.config.CatalogSnapshotProperties;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+// Входит в группу readiness: пока read model холодная, инстанс не принимает трафик
+@Component
+@RequiredArgsConstructor
+public class CatalogReadModelHealthIndicator implements HealthIndicator {
+
+    private final CatalogReadModel catalogReadModel;
+    private final CatalogSnapshotProperties properties;
+
+    @Override
+    public Health health() {
+        if (!properties.isEnabled()) {
+            return Health.up().withDetail("state", "DISABLED").build();
+        }
+        CatalogReadModel.State state = catalogReadModel.state();
+        Health.Builder builder = state == CatalogReadModel.State.COLD ? Health.outOfService() : Health.up();
+        builder.withDetail("state", state);
+        if (catalogReadModel.snapshotAsOf() != null) {
+            builder.withDetail("snapshotAsOf", catalogReadModel.snapshotAsOf());
+        }
+        if (catalogReadModel.watermark() != null) {
+            builder.withDetail("caughtUpTo", catalogReadModel.watermark());
+        }
+        return builder.withDetail("overlay", catalogReadModel.overlaySize()).build();
+    }
+}
@@ -0,0 +1,200 @@
+package ohhudead.reservationsystem.catalog;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Снапшот read model каталога, отображённый в память только для чтения (big-endian):
+ * <pre>
+ *   заголовок   magic int, version int, categories int, products int, asOf long, changePosition long
+ *   категории   по 32 байта, по id: id long, name off/len int, description off/len int (len -1 = null),
+ *               диапазон строк товаров категории from/to int
+ *   товары      по 48 байт, по (category_id, id): id long, categoryId long, price (копейки) long,
+ *               createdAt (мкс) long, inStock int, name off/len int, pad int
+ *   индекс id   по 16 байт, по id: id long, строка товара int, pad int
+ *   строки      UTF-8, смещения - от начала этой области
+ * </pre>
+ * Записи фиксированной ширины: поиск по id и выборка категории - бинарный поиск
+ * по отображённому файлу без десериализации всего каталога.
+ */
+public final class CatalogSnapshot {
+
+    static final int MAGIC = 0x43534E50; // "CSNP"
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 32;
+    static final int CATEGORY_BYTES = 32;
+    static final int PRODUCT_BYTES = 48;
+    static final int INDEX_BYTES = 16;
+
+    private final MappedByteBuffer buffer;
+    private final int categories;
+    private final int products;
+    private final OffsetDateTime asOf;
+    private final long changePosition;
+    private final int productsOffset;
+    private final int indexOffset;
+    private final int stringsOffset;
+
+    private CatalogSnapshot(Path path, MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Not a catalog snapshot: " + path);
+        }
+        this.categories = buffer.getInt(8);
+        this.products = buffer.getInt(12);
+        this.asOf = fromMicros(buffer.getLong(16));
+        this.changePosition = buffer.getLong(24);
+        this.productsOffset = HEADER_BYTES + CATEGORY_BYTES * categories;
+        this.indexOffset = productsOffset + PRODUCT_BYTES * products;
+        this.stringsOffset = indexOffset + INDEX_BYTES * products;
+        if (stringsOffset > buffer.capacity()) {
+            throw new IllegalStateException("Truncated catalog snapshot: " + path);
+        }
+    }
+
+    public static CatalogSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new CatalogSnapshot(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // время БД, на которое снят снапшот: с него read model догоняет дельтой
+    public OffsetDateTime asOf() {
+        return asOf;
+    }
+
+    // последняя запись catalog_changes, уже учтённая в снапшоте: журнал читается после неё
+    public long changePosition() {
+        return changePosition;
+    }
+
+    public int productCount() {
+        return products;
+    }
+
+    public int categoryCount() {
+        return categories;
+    }
+
+    public Optional<ProductRow> findProduct(long id) {
+        int lo = 0;
+        int hi = products - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long midId = buffer.getLong(indexOffset + INDEX_BYTES * mid);
+            if (midId < id) {
+                lo = mid + 1;
+            } else if (midId > id) {
+                hi = mid - 1;
+            } else {
+                return Optional.of(product(buffer.getInt(indexOffset + INDEX_BYTES * mid + Long.BYTES)));
+            }
+        }
+        return Optional.empty();
+    }
+
+    public Optional<CategoryRow> findCategory(long id) {
+        int row = categoryRow(id);
+        return row < 0 ? Optional.empty() : Optional.of(category(row));
+    }
+
+    // в порядке id
+    public List<ProductRow> products() {
+        List<ProductRow> result = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            result.add(product(buffer.getInt(indexOffset + INDEX_BYTES * i + Long.BYTES)));
+        }
+        return result;
+    }
+
+    // товары категории лежат подряд, в порядке id
+    public List<ProductRow> productsInCategory(long categoryId) {
+        int row = categoryRow(categoryId);
+        if (row < 0) {
+            return List.of();
+        }
+        int base = HEADER_BYTES + CATEGORY_BYTES * row;
+        int from = buffer.getInt(base + 24);
+        int to = buffer.getInt(base + 28);
+        List<ProductRow> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            result.add(product(i));
+        }
+        return result;
+    }
+
+    public List<CategoryRow> categories() {
+        List<CategoryRow> result = new ArrayList<>(categories);
+        for (int i = 0; i < categories; i++) {
+            result.add(category(i));
+        }
+        return result;
+    }
+
+    private int categoryRow(long id) {
+        int lo = 0;
+        int hi = categories - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long midId = buffer.getLong(HEADER_BYTES + CATEGORY_BYTES * mid);
+            if (midId < id) {
+                lo = mid + 1;
+            } else if (midId > id) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private CategoryRow category(int row) {
+        int base = HEADER_BYTES + CATEGORY_BYTES * row;
+        return new CategoryRow(
+                buffer.getLong(base),
+                string(buffer.getInt(base + 8), buffer.getInt(base + 12)),
+                string(buffer.getInt(base + 16), buffer.getInt(base + 20)),
+                null);
+    }
+
+    private ProductRow product(int row) {
+        int base = productsOffset + PRODUCT_BYTES * row;
+        return new ProductRow(
+                buffer.getLong(base),
+                buffer.getLong(base + 8),
+                string(buffer.getInt(base + 36), buffer.getInt(base + 40)),
+                BigDecimal.valueOf(buffer.getLong(base + 16), 2),
+                buffer.getInt(base + 32),
+                fromMicros(buffer.getLong(base + 24)),
+                null);
+    }
+
+    private String string(int offset, int length) {
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(stringsOffset + offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static long toMicros(OffsetDateTime time) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, time.toInstant());
+    }
+
+    static OffsetDateTime fromMicros(long micros) {
+        return OffsetDateTime.ofInstant(Instant.EPOCH.plus(micros, ChronoUnit.MICROS), ZoneOffset.UTC);
+    }
+}
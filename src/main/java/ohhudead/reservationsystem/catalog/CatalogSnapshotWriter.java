@@ -0,0 +1,102 @@
+package ohhudead.reservationsystem.catalog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// Пишет снапшот (формат - в CatalogSnapshot) во временный файл, fsync, затем атомарно заменяет старый
+public final class CatalogSnapshotWriter {
+
+    private CatalogSnapshotWriter() {
+    }
+
+    public static void write(Path target, CatalogContents catalog) throws IOException {
+        List<CategoryRow> categories = catalog.categories().stream()
+                .sorted(Comparator.comparingLong(CategoryRow::id))
+                .toList();
+        List<ProductRow> products = catalog.products().stream()
+                .sorted(Comparator.comparingLong(ProductRow::categoryId).thenComparingLong(ProductRow::id))
+                .toList();
+
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        ByteBuffer records = ByteBuffer.allocate(CatalogSnapshot.HEADER_BYTES
+                + CatalogSnapshot.CATEGORY_BYTES * categories.size()
+                + (CatalogSnapshot.PRODUCT_BYTES + CatalogSnapshot.INDEX_BYTES) * products.size());
+        records.putInt(CatalogSnapshot.MAGIC)
+                .putInt(CatalogSnapshot.VERSION)
+                .putInt(categories.size())
+                .putInt(products.size())
+                .putLong(CatalogSnapshot.toMicros(catalog.asOf()))
+                .putLong(catalog.changePosition());
+
+        int productRow = 0;
+        for (CategoryRow category : categories) {
+            int from = productRow;
+            while (productRow < products.size() && products.get(productRow).categoryId() == category.id()) {
+                productRow++;
+            }
+            records.putLong(category.id());
+            putString(records, strings, category.name());
+            putString(records, strings, category.description());
+            records.putInt(from).putInt(productRow);
+        }
+        if (productRow != products.size()) {
+            throw new IllegalStateException("Catalog snapshot has products of unknown category "
+                    + products.get(productRow).categoryId());
+        }
+
+        for (ProductRow product : products) {
+            records.putLong(product.id())
+                    .putLong(product.categoryId())
+                    .putLong(product.price().setScale(2).unscaledValue().longValueExact())
+                    .putLong(CatalogSnapshot.toMicros(product.createdAt()))
+                    .putInt(product.inStock());
+            putString(records, strings, product.name());
+            records.putInt(0);
+        }
+
+        Integer[] byId = new Integer[products.size()];
+        for (int i = 0; i < byId.length; i++) {
+            byId[i] = i;
+        }
+        Arrays.sort(byId, Comparator.comparingLong(i -> products.get(i).id()));
+        for (int row : byId) {
+            records.putLong(products.get(row).id()).putInt(row).putInt(0);
+        }
+        records.flip();
+
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, records);
+            writeFully(channel, ByteBuffer.wrap(strings.toByteArray()));
+            channel.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void putString(ByteBuffer records, ByteArrayOutputStream strings, String value) {
+        if (value == null) {
+            records.putInt(0).putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        records.putInt(strings.size()).putInt(bytes.length);
+        strings.writeBytes(bytes);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package ohhudead.reservationsystem.catalog;
+
+import java.time.OffsetDateTime;
+
+// Категория в read model; updatedAt == null у строк, прочитанных из снапшота
+public record CategoryRow(
+        long id,
+        String name,
+        String description,
+        OffsetDateTime updatedAt
+) {
+}
@@ -0,0 +1,16 @@
+package ohhudead.reservationsystem.catalog;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+// Товар в read model; updatedAt == null у строк, прочитанных из снапшота
+public record ProductRow(
+        long id,
+        long categoryId,
+        String name,
+        BigDecimal price,
+        int inStock,
+        OffsetDateTime createdAt,
+        OffsetDateTime updatedAt
+) {
+}
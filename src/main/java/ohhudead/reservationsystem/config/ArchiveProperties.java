@@ -0,0 +1,33 @@
+package ohhudead.reservationsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.archive")
+public class ArchiveProperties {
+
+    // выгрузка выключена по умолчанию; чтение уже записанных сегментов работает всегда
+    private boolean enabled = false;
+
+    private String directory = "data/order-archive";
+
+    // закрытые (delivered/cancelled) заказы старше этого уходят в архив
+    private Duration retention = Duration.ofDays(365);
+
+    // заказов в одном сегменте = максимум за один запуск
+    private int segmentRows = 100_000;
+
+    // заказов в одном сжатом блоке сегмента
+    private int blockRows = 1024;
+
+    // заказов, удаляемых из БД одной транзакцией
+    private int deleteBatchSize = 1_000;
+
+    private Duration delay = Duration.ofHours(1);
+
+    // как часто подхватывать сегменты, записанные другими инстансами
+    private Duration rescanDelay = Duration.ofMinutes(1);
+}
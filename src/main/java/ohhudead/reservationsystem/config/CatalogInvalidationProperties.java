@@ -0,0 +1,22 @@
+package ohhudead.reservationsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.catalog.invalidation")
+public class CatalogInvalidationProperties {
+
+    // выключено - чужие изменения каталога видны только через app.catalog.snapshot.refresh-delay
+    private boolean enabled = true;
+
+    private String channel = "catalog_changed";
+
+    // сколько копить уведомления перед перечиткой изменённых строк одним запросом
+    private Duration batchWindow = Duration.ofMillis(200);
+
+    // пауза перед повторным подключением после обрыва соединения LISTEN
+    private Duration reconnectDelay = Duration.ofSeconds(5);
+}
@@ -0,0 +1,29 @@
+package ohhudead.reservationsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.catalog.snapshot")
+public class CatalogSnapshotProperties {
+
+    // выключено - чтения каталога идут в БД, как раньше
+    private boolean enabled = true;
+
+    private String path = "data/catalog/catalog.snapshot";
+
+    // как часто переписывать снапшот на диск
+    private Duration writeDelay = Duration.ofMinutes(5);
+
+    // как часто догонять изменения, сделанные другими инстансами
+    private Duration refreshDelay = Duration.ofSeconds(1);
+
+    // сколько последних записей catalog_changes перечитывать повторно: покрывает транзакции,
+    // закоммиченные позже, чем соседние записи журнала с большим change_id
+    private Duration deltaOverlap = Duration.ofSeconds(5);
+
+    // сколько хранить журнал catalog_changes; снапшот старше этого при старте не используется
+    private Duration changeRetention = Duration.ofHours(1);
+}
@@ -0,0 +1,40 @@
+package ohhudead.reservationsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.jobs")
+public class JobProperties {
+
+    // владелец партиций в job_partitions; пусто - pid@host и случайный суффикс
+    private String instanceId;
+
+    // аренда партиции; продлевается каждой пачкой, поэтому пачка должна успевать за это время
+    private Duration lease = Duration.ofMinutes(2);
+
+    // параллельных партиций на инстанс
+    private int workers = 2;
+
+    // как часто планировать запуски и забирать свободные партиции
+    private Duration pollDelay = Duration.ofSeconds(10);
+
+    private ExpiredOrders expiredOrders = new ExpiredOrders();
+
+    @Data
+    public static class ExpiredOrders {
+
+        private boolean enabled = true;
+
+        // pending-заказы старше этого отменяются с возвратом остатков (SCHEDULER_TASKS.md, задача 1)
+        private Duration maxAge = Duration.ofHours(24);
+
+        private Duration interval = Duration.ofHours(1);
+
+        private int partitions = 16;
+
+        private int chunkSize = 500;
+    }
+}
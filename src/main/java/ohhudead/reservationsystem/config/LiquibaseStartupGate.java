@@ -0,0 +1,128 @@
+package ohhudead.reservationsystem.config;
+
+import liquibase.integration.spring.SpringLiquibase;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * В режиме skip-if-unchanged пропускает запуск Liquibase (разбор changelog, lock,
+ * сверку databasechangelog), если SHA-256 всех файлов changelog совпадает с суммой,
+ * записанной после последнего успешного применения. Любое изменение changelog,
+ * отсутствие таблицы или ошибка чтения - обычный запуск Liquibase.
+ */
+@Component
+@Slf4j
+public class LiquibaseStartupGate implements BeanPostProcessor {
+
+    // DataSource, а не бин JdbcTemplate: JdbcTemplate зависит от liquibase и во время
+    // его post-processing ещё создаётся (циклические ссылки выключены)
+    private final ObjectProvider<DataSource> dataSource;
+    private final ObjectProvider<LiquibaseStartupProperties> properties;
+
+    private String changelogChecksum;
+
+    public LiquibaseStartupGate(ObjectProvider<DataSource> dataSource,
+                                ObjectProvider<LiquibaseStartupProperties> properties) {
+        this.dataSource = dataSource;
+        this.properties = properties;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        if (!(bean instanceof SpringLiquibase liquibase) || !liquibase.isShouldRun() || !enabled()) {
+            return bean;
+        }
+
+        changelogChecksum = computeChangelogChecksum();
+        if (changelogChecksum.equals(findAppliedChecksum())) {
+            log.info("Liquibase changelog unchanged (sha256={}), skipping migration on startup", changelogChecksum);
+            liquibase.setShouldRun(false);
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof SpringLiquibase liquibase && liquibase.isShouldRun() && changelogChecksum != null) {
+            // сюда попадаем только после успешного update: иначе afterPropertiesSet бросил бы исключение
+            jdbcTemplate().update("""
+                    insert into liquibase_startup_state (id, checksum, applied_at)
+                    values (1, ?, now())
+                    on conflict (id) do update set checksum = excluded.checksum, applied_at = excluded.applied_at
+                    """, changelogChecksum);
+        }
+        return bean;
+    }
+
+    private JdbcTemplate jdbcTemplate() {
+        return new JdbcTemplate(dataSource.getObject());
+    }
+
+    private boolean enabled() {
+        return properties.getObject().getStartupMode() == LiquibaseStartupProperties.StartupMode.SKIP_IF_UNCHANGED;
+    }
+
+    private String findAppliedChecksum() {
+        try {
+            List<String> checksums = jdbcTemplate()
+                    .queryForList("select checksum from liquibase_startup_state where id = 1", String.class);
+            return checksums.isEmpty() ? null : checksums.get(0);
+        } catch (DataAccessException e) {
+            log.info("Liquibase startup state is not available yet: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private String computeChangelogChecksum() {
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver()
+                    .getResources(properties.getObject().getChangelogLocation());
+            Arrays.sort(resources, Comparator.comparing(this::relativePath));
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Resource resource : resources) {
+                if (!resource.isReadable()) {
+                    continue;
+                }
+                digest.update(relativePath(resource).getBytes(StandardCharsets.UTF_8));
+                try (InputStream in = resource.getInputStream()) {
+                    digest.update(in.readAllBytes());
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String relativePath(Resource resource) {
+        try {
+            String url = resource.getURL().toString();
+            int index = url.indexOf("db/changelog/");
+            return index >= 0 ? url.substring(index) : url;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
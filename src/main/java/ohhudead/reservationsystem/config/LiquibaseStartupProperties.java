@@ -0,0 +1,19 @@
+package ohhudead.reservationsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.liquibase")
+public class LiquibaseStartupProperties {
+
+    private StartupMode startupMode = StartupMode.ALWAYS;
+
+    // какие ресурсы входят в контрольную сумму changelog
+    private String changelogLocation = "classpath*:db/changelog/**";
+
+    public enum StartupMode {
+        ALWAYS,
+        SKIP_IF_UNCHANGED
+    }
+}
@@ -0,0 +1,83 @@
+package ohhudead.reservationsystem.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import ohhudead.reservationsystem.logging.MeteredAsyncAppender;
+import ohhudead.reservationsystem.logging.SamplingTurboFilter;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Подключает сэмплирование логов к контексту logback и отдаёт метрики логирования.
+ * Сам поток событий по уровням считает actuator (logback.events).
+ */
+@Configuration
+@Slf4j
+public class LoggingConfig implements DisposableBean {
+
+    private static final String ASYNC_APPENDER = "ASYNC";
+
+    private final LoggerContext loggerContext;
+    private final SamplingTurboFilter samplingFilter;
+
+    public LoggingConfig(LoggingProperties properties) {
+        ILoggerFactory factory = LoggerFactory.getILoggerFactory();
+        this.loggerContext = factory instanceof LoggerContext context ? context : null;
+        this.samplingFilter = new SamplingTurboFilter(toRules(properties.getSampling()));
+
+        if (loggerContext != null && properties.getSampling().isEnabled() && !samplingFilter.getRules().isEmpty()) {
+            samplingFilter.setName("sampling");
+            samplingFilter.setContext(loggerContext);
+            samplingFilter.start();
+            loggerContext.addTurboFilter(samplingFilter);
+            log.info("Log sampling enabled, rules={}", samplingFilter.getRules().size());
+        }
+    }
+
+    @Bean
+    public MeterBinder loggingMetrics() {
+        return registry -> {
+            for (SamplingTurboFilter.Rule rule : samplingFilter.getRules()) {
+                FunctionCounter.builder("logging.events.sampled.out", rule.sampledOut(), adder -> adder.sum())
+                        .description("Log events dropped by sampling")
+                        .tag("logger", rule.logger())
+                        .register(registry);
+            }
+            if (loggerContext != null
+                    && loggerContext.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME).getAppender(ASYNC_APPENDER)
+                    instanceof MeteredAsyncAppender async) {
+                Gauge.builder("logging.async.queue.size", async, MeteredAsyncAppender::getNumberOfElementsInQueue)
+                        .description("Log events waiting for the async appender worker")
+                        .register(registry);
+                FunctionCounter.builder("logging.async.dropped", async, MeteredAsyncAppender::getDroppedCount)
+                        .description("Log events dropped because the async queue was full")
+                        .register(registry);
+            }
+        };
+    }
+
+    @Override
+    public void destroy() {
+        if (loggerContext != null) {
+            loggerContext.getTurboFilterList().remove(samplingFilter);
+        }
+        samplingFilter.stop();
+    }
+
+    private static List<SamplingTurboFilter.Rule> toRules(LoggingProperties.Sampling sampling) {
+        return sampling.getRules().stream()
+                .filter(rule -> rule.getLogger() != null && rule.getKeepOneIn() > 1)
+                .map(rule -> new SamplingTurboFilter.Rule(
+                        rule.getLogger(), Level.toLevel(rule.getAbove().name()), rule.getKeepOneIn()))
+                .toList();
+    }
+}
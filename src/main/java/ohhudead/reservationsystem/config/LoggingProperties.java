@@ -0,0 +1,49 @@
+package ohhudead.reservationsystem.config;
+
+import lombok.Data;
+import org.slf4j.event.Level;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "app.logging")
+public class LoggingProperties {
+
+    private Async async = new Async();
+
+    private Sampling sampling = new Sampling();
+
+    // читается logback-spring.xml при старте, здесь - для метаданных и единого места настроек
+    @Data
+    public static class Async {
+
+        private int queueSize = 8_192;
+
+        // при остатке очереди меньше порога отбрасываются TRACE/DEBUG/INFO; 0 - не отбрасывать
+        private int discardingThreshold = 0;
+
+        // true - при полной очереди событие отбрасывается, а не блокирует поток запроса
+        private boolean neverBlock = true;
+    }
+
+    @Data
+    public static class Sampling {
+
+        private boolean enabled = true;
+
+        private List<Rule> rules = new ArrayList<>();
+    }
+
+    @Data
+    public static class Rule {
+
+        private String logger;
+
+        // события этого уровня и выше проходят всегда
+        private Level above = Level.WARN;
+
+        private int keepOneIn = 1;
+    }
+}
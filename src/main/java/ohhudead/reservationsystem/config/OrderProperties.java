@@ -0,0 +1,52 @@
+package ohhudead.reservationsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.orders")
+public class OrderProperties {
+
+    private TotalsBackfill totalsBackfill = new TotalsBackfill();
+
+    private StatusUpdate statusUpdate = new StatusUpdate();
+
+    private GroupCommit groupCommit = new GroupCommit();
+
+    @Data
+    public static class TotalsBackfill {
+
+        // строк в одной транзакции backfill
+        private int batchSize = 1_000;
+
+        // ограничение на один запуск, чтобы не держать ShedLock бесконечно
+        private int maxBatchesPerRun = 500;
+    }
+
+    @Data
+    public static class StatusUpdate {
+
+        // попыток compare-and-set на один запрос; каждая перечитывает статус и версию
+        private int maxAttempts = 5;
+    }
+
+    @Data
+    public static class GroupCommit {
+
+        // выключено - каждый POST /api/orders в своей транзакции, как раньше
+        private boolean enabled = false;
+
+        // сколько ждать попутные заказы после первого в пачке
+        private Duration maxWait = Duration.ofMillis(5);
+
+        private int maxBatchSize = 200;
+
+        // заказов в очереди; сверх этого заказ создаётся отдельной транзакцией
+        private int queueCapacity = 10_000;
+
+        // сколько запрос ждёт, пока его заказ заберут в пачку; дальше - отдельная транзакция
+        private Duration resultTimeout = Duration.ofSeconds(2);
+    }
+}
@@ -0,0 +1,29 @@
+package ohhudead.reservationsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.payments.ingestion")
+public class PaymentIngestionProperties {
+
+    // подтверждений в памяти; сверх этого - в spill-файлы
+    private int queueCapacity = 10_000;
+
+    // подтверждений в одном INSERT + UPDATE
+    private int batchSize = 500;
+
+    private Duration flushDelay = Duration.ofMillis(200);
+
+    private String spillDirectory = "data/payment-spill";
+
+    private int spillSegmentRecords = 10_000;
+
+    // когда заполнены и очередь, и spill, POST /api/payments отвечает 503
+    private long spillMaxRecords = 1_000_000;
+
+    // значение Retry-After для 503
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
@@ -0,0 +1,16 @@
+package ohhudead.reservationsystem.config;
+
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "app.products")
+public class ProductProperties {
+
+    // сколько строк уходит в один UPDATE ... FROM unnest(...) при синхронизации остатков
+    @Positive
+    private int stockSyncChunkSize = 5_000;
+}
@@ -0,0 +1,41 @@
+package ohhudead.reservationsystem.config;
+
+import ohhudead.reservationsystem.profiling.CommitTimingListener;
+import ohhudead.reservationsystem.profiling.LatencyRecorder;
+import ohhudead.reservationsystem.profiling.OperationTimingInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+
+/**
+ * Замер сервисов, репозиториев, мапперов и GlobalExceptionHandler (OperationTimingInterceptor)
+ * и коммитов транзакций (CommitTimingListener). Advisor инфраструктурный: его подхватывает
+ * auto-proxy creator, который уже есть для @Transactional, отдельный AOP-стартер не нужен.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.profiling", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ProfilingConfig {
+
+    // снаружи транзакции: время сервиса включает flush и коммит, сам коммит виден отдельно
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor operationTimingAdvisor(LatencyRecorder latencyRecorder) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                OperationTimingInterceptor.POINTCUT, new OperationTimingInterceptor(latencyRecorder));
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    @Bean
+    public TransactionManagerCustomizer<AbstractPlatformTransactionManager> commitTimingCustomizer(
+            LatencyRecorder latencyRecorder) {
+        return transactionManager -> transactionManager.addListener(new CommitTimingListener(latencyRecorder));
+    }
+}
@@ -0,0 +1,15 @@
+package ohhudead.reservationsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.profiling")
+public class ProfilingProperties {
+
+    // выключено - сервисы и репозитории не оборачиваются вообще, накладных расходов нет
+    private boolean enabled = true;
+
+    // точность гистограмм: 2 знака - погрешность перцентилей около 1%
+    private int significantDigits = 2;
+}
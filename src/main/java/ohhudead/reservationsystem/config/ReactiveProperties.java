@@ -0,0 +1,30 @@
+package ohhudead.reservationsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.reactive")
+public class ReactiveProperties {
+
+    // реактивные эндпоинты каталога (/api/reactive/**) и свой пул R2DBC
+    private boolean enabled = false;
+
+    private String url = "r2dbc:postgresql://localhost:5432/learning";
+
+    private String username = "postgres";
+
+    private String password = "postgres";
+
+    private String schema = "training_ec";
+
+    private int initialPoolSize = 4;
+
+    // в отличие от Hikari, соединение не держится на время запроса целиком,
+    // так что небольшой пул обслуживает намного больше одновременных запросов
+    private int maxPoolSize = 16;
+
+    private Duration maxIdleTime = Duration.ofMinutes(10);
+}
@@ -0,0 +1,18 @@
+package ohhudead.reservationsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.reports")
+public class ReportProperties {
+
+    // насколько окно очередного запуска захватывает предыдущее:
+    // покрывает транзакции, закоммиченные позже своего paid_at/updated_at
+    private Duration rollupOverlap = Duration.ofMinutes(5);
+
+    // максимальный период одного запроса отчёта
+    private int maxRangeDays = 366;
+}
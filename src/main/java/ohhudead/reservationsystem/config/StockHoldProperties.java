@@ -0,0 +1,24 @@
+package ohhudead.reservationsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.stock-holds")
+public class StockHoldProperties {
+
+    private Duration ttl = Duration.ofMinutes(10);
+
+    // точность колеса таймеров; заодно период опроса колеса
+    private Duration tick = Duration.ofSeconds(1);
+
+    private int wheelSize = 64;
+
+    // сколько истёкших резервов освобождается одним DELETE ... RETURNING + UPDATE
+    private int releaseBatchSize = 500;
+
+    // запас для sweep: резерв, просроченный дольше этого, явно потерял своего владельца
+    private Duration sweepGrace = Duration.ofMinutes(1);
+}
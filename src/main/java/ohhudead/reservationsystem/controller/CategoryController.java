@@ -5,6 +5,7 @@ import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import ohhudead.reservationsystem.dto.CategoryRequest;
 import ohhudead.reservationsystem.dto.CategoryResponse;
+import ohhudead.reservationsystem.dto.CategoryUpsertBatchRequest;
 import ohhudead.reservationsystem.entity.Category;
 import ohhudead.reservationsystem.service.CategoryService;
 import org.springframework.http.HttpStatus;
@@ -12,6 +13,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 // TODO [PHASE 5]: Переработать контроллер для использования DTO вместо Entity
 // ПРОБЛЕМЫ текущей реализации:
@@ -57,6 +59,17 @@ public class CategoryController {
         return categoryService.getAll();
     }
 
+    // ?fields=id,name - только перечисленные поля, выборка только этих колонок
+    @GetMapping(params = "fields")
+    public List<Map<String, Object>> getAllFields(@RequestParam String fields) {
+        return categoryService.getAllFields(fields);
+    }
+
+    @GetMapping(value = "/{id}", params = "fields")
+    public Map<String, Object> getFieldsById(@PathVariable @Positive Long id, @RequestParam String fields) {
+        return categoryService.getFieldsById(id, fields);
+    }
+
     @GetMapping("/{id}")
     public CategoryResponse getById(@PathVariable @Positive Long id) {
         return categoryService.getById(id);
@@ -67,6 +80,16 @@ public class CategoryController {
         return categoryService.create(request);
     }
 
+    @PutMapping("/upsert")
+    public CategoryResponse upsertCategory(@Valid @RequestBody CategoryRequest request) {
+        return categoryService.upsert(request);
+    }
+
+    @PutMapping("/upsert/bulk")
+    public List<CategoryResponse> upsertCategories(@Valid @RequestBody CategoryUpsertBatchRequest request) {
+        return categoryService.upsertAll(request.items());
+    }
+
     @PutMapping("/{id}")
     public CategoryResponse updateCategory(@PathVariable @Positive Long id,
                                            @Valid @RequestBody CategoryRequest request) {
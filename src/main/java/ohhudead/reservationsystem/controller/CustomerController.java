@@ -0,0 +1,27 @@
+package ohhudead.reservationsystem.controller;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Positive;
+import lombok.RequiredArgsConstructor;
+import ohhudead.reservationsystem.dto.OrderHistoryResponse;
+import ohhudead.reservationsystem.service.CustomerService;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/customers")
+@RequiredArgsConstructor
+@Validated
+
+public class CustomerController {
+
+    private final CustomerService customerService;
+
+    @GetMapping("/{id}/orders")
+    public OrderHistoryResponse getOrders(@PathVariable @Positive Long id,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+        return customerService.getOrderHistory(id, cursor, size);
+    }
+}
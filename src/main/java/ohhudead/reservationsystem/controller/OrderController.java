@@ -0,0 +1,42 @@
+package ohhudead.reservationsystem.controller;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import lombok.RequiredArgsConstructor;
+import ohhudead.reservationsystem.dto.CreateOrderRequest;
+import ohhudead.reservationsystem.dto.OrderResponse;
+import ohhudead.reservationsystem.dto.UpdateOrderStatusRequest;
+import ohhudead.reservationsystem.service.OrderIntakeService;
+import ohhudead.reservationsystem.service.OrderService;
+import org.springframework.http.HttpStatus;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/orders")
+@RequiredArgsConstructor
+@Validated
+
+public class OrderController {
+
+    private final OrderService orderService;
+    private final OrderIntakeService orderIntakeService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public OrderResponse createOrder(@Valid @RequestBody CreateOrderRequest request) {
+        return orderIntakeService.create(request);
+    }
+
+    @PutMapping("/{id}/status")
+    public OrderResponse updateStatus(@PathVariable @Positive Long id,
+                                      @Valid @RequestBody UpdateOrderStatusRequest request) {
+        return orderService.changeStatus(id, request.status());
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void cancelOrder(@PathVariable @Positive Long id) {
+        orderService.cancel(id);
+    }
+}
@@ -0,0 +1,34 @@
+package ohhudead.reservationsystem.controller;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import lombok.RequiredArgsConstructor;
+import ohhudead.reservationsystem.dto.CreatePaymentRequest;
+import ohhudead.reservationsystem.dto.PaymentIngestionResponse;
+import ohhudead.reservationsystem.dto.PaymentResponse;
+import ohhudead.reservationsystem.service.PaymentIngestionService;
+import org.springframework.http.HttpStatus;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/payments")
+@RequiredArgsConstructor
+@Validated
+
+public class PaymentController {
+
+    private final PaymentIngestionService paymentIngestionService;
+
+    // подтверждение применяется пачкой позже; 503 + Retry-After, если очередь заполнена
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public PaymentIngestionResponse createPayment(@Valid @RequestBody CreatePaymentRequest request) {
+        return paymentIngestionService.accept(request);
+    }
+
+    @GetMapping("/order/{orderId}")
+    public PaymentResponse getByOrderId(@PathVariable @Positive Long orderId) {
+        return paymentIngestionService.getByOrderId(orderId);
+    }
+}
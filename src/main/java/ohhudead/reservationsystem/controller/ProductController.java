@@ -3,13 +3,19 @@ package ohhudead.reservationsystem.controller;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
+import ohhudead.reservationsystem.dto.ProductBatchRequest;
+import ohhudead.reservationsystem.dto.ProductBatchResponse;
 import ohhudead.reservationsystem.dto.ProductRequest;
 import ohhudead.reservationsystem.dto.ProductResponse;
+import ohhudead.reservationsystem.dto.ProductUpsertBatchRequest;
+import ohhudead.reservationsystem.dto.StockAdjustmentRequest;
+import ohhudead.reservationsystem.dto.StockAdjustmentResponse;
 import ohhudead.reservationsystem.service.ProductService;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/products")
@@ -24,19 +30,45 @@ public class ProductController {
     public List<ProductResponse> getAll(@RequestParam(required = false) Long categoryId){
       return productService.getAll(categoryId);
     }
+    // ?fields=id,name,price - только перечисленные поля, выборка только этих колонок
+    @GetMapping(params = "fields")
+    public List<Map<String, Object>> getAllFields(@RequestParam(required = false) Long categoryId,
+                                                  @RequestParam String fields) {
+        return productService.getAllFields(categoryId, fields);
+    }
+    @GetMapping(value = "/{id}", params = "fields")
+    public Map<String, Object> getFieldsById(@PathVariable @Positive Long id, @RequestParam String fields) {
+        return productService.getFieldsById(id, fields);
+    }
     @GetMapping("/{id}")
     public ProductResponse getById(@PathVariable Long id){
         return productService.getById(id);
     }
+    @PostMapping("/batch-get")
+    public ProductBatchResponse getByIds(@Valid @RequestBody ProductBatchRequest request) {
+        return productService.getByIds(request.ids());
+    }
     @PostMapping
     public ProductResponse createProduct(@Valid @RequestBody ProductRequest request) {
         return productService.create(request);
     }
+    @PutMapping("/upsert")
+    public ProductResponse upsertProduct(@Valid @RequestBody ProductRequest request) {
+        return productService.upsert(request);
+    }
+    @PutMapping("/upsert/bulk")
+    public List<ProductResponse> upsertProducts(@Valid @RequestBody ProductUpsertBatchRequest request) {
+        return productService.upsertAll(request.items());
+    }
     @PutMapping("/{id}")
     public ProductResponse updateProduct(@PathVariable @Positive Long id,
                                          @Valid @RequestBody ProductRequest request) {
         return productService.update(id, request);
     }
+    @PatchMapping("/stock")
+    public StockAdjustmentResponse adjustStock(@Valid @RequestBody StockAdjustmentRequest request) {
+        return productService.adjustStock(request);
+    }
     @DeleteMapping("/{id}")
     public void delete(@PathVariable Long id){
         productService.delete(id);
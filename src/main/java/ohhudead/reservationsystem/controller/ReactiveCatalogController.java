@@ -0,0 +1,44 @@
+package ohhudead.reservationsystem.controller;
+
+import jakarta.validation.constraints.Positive;
+import lombok.RequiredArgsConstructor;
+import ohhudead.reservationsystem.dto.CategoryResponse;
+import ohhudead.reservationsystem.dto.ProductResponse;
+import ohhudead.reservationsystem.exception.ResourceNotFoundException;
+import ohhudead.reservationsystem.repository.ReactiveCatalogRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Реактивные двойники чтения каталога. Поток запроса освобождается, пока идёт запрос в БД.
+// Accept: application/x-ndjson - построчная отдача с backpressure от сокета клиента до курсора;
+// application/json - обычный массив, как у ProductController
+@RestController
+@RequestMapping("/api/reactive")
+@RequiredArgsConstructor
+@Validated
+@ConditionalOnProperty(prefix = "app.reactive", name = "enabled", havingValue = "true")
+
+public class ReactiveCatalogController {
+
+    private final ReactiveCatalogRepository catalogRepository;
+
+    @GetMapping(value = "/products", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ProductResponse> getProducts(@RequestParam(required = false) Long categoryId) {
+        return catalogRepository.findProducts(categoryId);
+    }
+
+    @GetMapping("/products/{id}")
+    public Mono<ProductResponse> getProduct(@PathVariable @Positive Long id) {
+        return catalogRepository.findProduct(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Product", id)));
+    }
+
+    @GetMapping(value = "/categories", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<CategoryResponse> getCategories() {
+        return catalogRepository.findCategories();
+    }
+}
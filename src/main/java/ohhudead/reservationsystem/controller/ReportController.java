@@ -0,0 +1,36 @@
+package ohhudead.reservationsystem.controller;
+
+import jakarta.validation.constraints.Positive;
+import lombok.RequiredArgsConstructor;
+import ohhudead.reservationsystem.dto.SalesReportDimension;
+import ohhudead.reservationsystem.dto.SalesReportRow;
+import ohhudead.reservationsystem.entity.PaymentMethod;
+import ohhudead.reservationsystem.service.ReportService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/reports")
+@RequiredArgsConstructor
+@Validated
+
+public class ReportController {
+
+    private final ReportService reportService;
+
+    // Читает только sales_daily_rollup: стоимость O(дни x категории), а не O(заказы)
+    @GetMapping("/sales")
+    public List<SalesReportRow> getSales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Set<SalesReportDimension> groupBy,
+            @RequestParam(required = false) @Positive Long categoryId,
+            @RequestParam(required = false) PaymentMethod paymentMethod) {
+        return reportService.getSalesReport(from, to, groupBy, categoryId, paymentMethod);
+    }
+}
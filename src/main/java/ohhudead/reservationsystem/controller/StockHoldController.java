@@ -0,0 +1,35 @@
+package ohhudead.reservationsystem.controller;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import lombok.RequiredArgsConstructor;
+import ohhudead.reservationsystem.dto.CreateStockHoldRequest;
+import ohhudead.reservationsystem.dto.StockHoldResponse;
+import ohhudead.reservationsystem.service.StockHoldService;
+import org.springframework.http.HttpStatus;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/stock-holds")
+@RequiredArgsConstructor
+@Validated
+
+public class StockHoldController {
+
+    private final StockHoldService stockHoldService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<StockHoldResponse> createHolds(@Valid @RequestBody CreateStockHoldRequest request) {
+        return stockHoldService.create(request);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void release(@PathVariable @Positive Long id) {
+        stockHoldService.release(id);
+    }
+}
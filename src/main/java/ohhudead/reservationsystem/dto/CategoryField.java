@@ -0,0 +1,21 @@
+package ohhudead.reservationsystem.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Set;
+
+// Поля CategoryResponse, которые можно запросить через fields=
+@Getter
+@RequiredArgsConstructor
+public enum CategoryField {
+    ID("id"),
+    NAME("name"),
+    DESCRIPTION("description");
+
+    private final String apiName;
+
+    public static Set<CategoryField> parse(String fields) {
+        return FieldSelection.parse(fields, CategoryField.class, CategoryField::getApiName, "category");
+    }
+}
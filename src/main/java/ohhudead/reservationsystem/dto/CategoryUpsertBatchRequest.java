@@ -0,0 +1,14 @@
+package ohhudead.reservationsystem.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record CategoryUpsertBatchRequest(
+        @NotEmpty @Size(max = CategoryUpsertBatchRequest.MAX_ITEMS) List<@Valid @NotNull CategoryRequest> items
+) {
+    public static final int MAX_ITEMS = 1_000;
+}
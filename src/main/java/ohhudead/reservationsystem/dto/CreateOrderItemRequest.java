@@ -1,12 +1,13 @@
 package ohhudead.reservationsystem.dto;
 
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 
 
 public record CreateOrderItemRequest(
-        @NotNull Long productId,
-        @Min(1) int quantity
+        @NotNull @Positive Long productId,
+        @Min(1) @Max(1000) int quantity
 ) {
 }
-
@@ -1,11 +1,23 @@
 package ohhudead.reservationsystem.dto;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 
 import java.util.List;
 
 public record CreateOrderRequest(
         @NotNull Long customerId,
-        @NotNull List<CreateOrderItemRequest> items
+        @NotEmpty List<@Valid @NotNull CreateOrderItemRequest> items,
+        @NotBlank String shippingCity,
+        @NotBlank String shippingCountry,
+        // резервы из POST /api/stock-holds (по одному на товар): их остаток переходит в заказ,
+        // истёкшие или уже освобождённые резервы пропускаются и остаток списывается как обычно
+        List<@NotNull @Positive Long> holdIds
 ) {
+    public boolean hasHolds() {
+        return holdIds != null && !holdIds.isEmpty();
+    }
 }
@@ -0,0 +1,15 @@
+package ohhudead.reservationsystem.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import ohhudead.reservationsystem.entity.PaymentMethod;
+
+import java.math.BigDecimal;
+
+public record CreatePaymentRequest(
+        @NotNull @Positive Long orderId,
+        @NotNull PaymentMethod method,
+        @NotNull @DecimalMin("0.01") BigDecimal amount
+) {
+}
@@ -0,0 +1,13 @@
+package ohhudead.reservationsystem.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record CreateStockHoldRequest(
+        @NotEmpty @Size(max = 100) List<@Valid @NotNull CreateOrderItemRequest> items
+) {
+}
@@ -0,0 +1,44 @@
+package ohhudead.reservationsystem.dto;
+
+import ohhudead.reservationsystem.exception.InvalidFieldSelectionException;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+// Разбор параметра fields=id,name,price в набор полей enum'а; порядок в ответе - порядок объявления
+public final class FieldSelection {
+
+    private FieldSelection() {
+    }
+
+    public static <E extends Enum<E>> Set<E> parse(String fields, Class<E> type, Function<E, String> apiName,
+                                                   String resource) {
+        E[] values = type.getEnumConstants();
+        Set<E> selected = EnumSet.noneOf(type);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            E field = Arrays.stream(values)
+                    .filter(v -> apiName.apply(v).equals(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> invalid(fields, values, apiName, resource));
+            selected.add(field);
+        }
+        if (selected.isEmpty()) {
+            throw invalid(fields, values, apiName, resource);
+        }
+        return selected;
+    }
+
+    private static <E extends Enum<E>> InvalidFieldSelectionException invalid(String fields, E[] values,
+                                                                              Function<E, String> apiName,
+                                                                              String resource) {
+        List<String> allowed = Arrays.stream(values).map(apiName).toList();
+        return new InvalidFieldSelectionException(resource, fields, allowed);
+    }
+}
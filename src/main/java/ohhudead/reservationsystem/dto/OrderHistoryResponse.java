@@ -0,0 +1,21 @@
+package ohhudead.reservationsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class OrderHistoryResponse {
+
+    private List<OrderSummaryResponse> orders;
+
+    // null, если это последняя страница
+    private String nextCursor;
+}
@@ -0,0 +1,32 @@
+package ohhudead.reservationsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ohhudead.reservationsystem.entity.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class OrderResponse {
+
+    private Long id;
+    private Long customerId;
+    private OffsetDateTime orderDate;
+    private OrderStatus status;
+
+    private BigDecimal totalAmount;
+    private Integer itemsCount;
+
+    private String shippingCity;
+    private String shippingCountry;
+
+    private List<OrderItemResponse> items;
+}
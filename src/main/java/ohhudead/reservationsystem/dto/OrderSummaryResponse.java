@@ -0,0 +1,15 @@
+package ohhudead.reservationsystem.dto;
+
+import ohhudead.reservationsystem.entity.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+public record OrderSummaryResponse(
+        Long id,
+        OffsetDateTime orderDate,
+        OrderStatus status,
+        BigDecimal totalAmount,
+        Integer itemsCount
+) {
+}
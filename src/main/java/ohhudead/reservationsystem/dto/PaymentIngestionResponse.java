@@ -0,0 +1,15 @@
+package ohhudead.reservationsystem.dto;
+
+// Подтверждение принято, но ещё не применено; итог - GET /api/payments/order/{orderId}
+public record PaymentIngestionResponse(
+        Long orderId,
+        Status status
+) {
+
+    public enum Status {
+        QUEUED,
+        SPILLED,
+        // такое же подтверждение по этому заказу уже ждёт применения
+        DUPLICATE
+    }
+}
@@ -0,0 +1,15 @@
+package ohhudead.reservationsystem.dto;
+
+import ohhudead.reservationsystem.entity.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+public record PaymentResponse(
+        Long id,
+        Long orderId,
+        PaymentMethod method,
+        BigDecimal amount,
+        OffsetDateTime paidAt
+) {
+}
@@ -0,0 +1,17 @@
+package ohhudead.reservationsystem.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record ProductBatchRequest(
+        @NotEmpty(message = "Product ids must not be empty")
+        @Size(max = ProductBatchRequest.MAX_BATCH_SIZE,
+                message = "At most " + ProductBatchRequest.MAX_BATCH_SIZE + " product ids per request")
+        List<@NotNull @Positive Long> ids
+) {
+    public static final int MAX_BATCH_SIZE = 200;
+}
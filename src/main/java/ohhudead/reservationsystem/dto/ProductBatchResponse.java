@@ -0,0 +1,21 @@
+package ohhudead.reservationsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class ProductBatchResponse {
+
+    // в порядке ids из запроса, без дубликатов
+    private List<ProductResponse> products;
+
+    private List<Long> missingIds;
+}
@@ -0,0 +1,25 @@
+package ohhudead.reservationsystem.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Set;
+
+// Поля ProductResponse, которые можно запросить через fields=
+@Getter
+@RequiredArgsConstructor
+public enum ProductField {
+    ID("id"),
+    NAME("name"),
+    PRICE("price"),
+    IN_STOCK("inStock"),
+    CATEGORY_ID("categoryId"),
+    CATEGORY_NAME("categoryName"),
+    CREATED_AT("createdAt");
+
+    private final String apiName;
+
+    public static Set<ProductField> parse(String fields) {
+        return FieldSelection.parse(fields, ProductField.class, ProductField::getApiName, "product");
+    }
+}
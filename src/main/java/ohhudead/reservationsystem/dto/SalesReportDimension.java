@@ -0,0 +1,7 @@
+package ohhudead.reservationsystem.dto;
+
+public enum SalesReportDimension {
+    DAY,
+    CATEGORY,
+    PAYMENT_METHOD
+}
@@ -0,0 +1,19 @@
+package ohhudead.reservationsystem.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import ohhudead.reservationsystem.entity.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Поля измерений, по которым не группировали, остаются null и не сериализуются
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SalesReportRow(
+        LocalDate date,
+        Long categoryId,
+        String categoryName,
+        PaymentMethod paymentMethod,
+        long itemsSold,
+        BigDecimal revenue
+) {
+}
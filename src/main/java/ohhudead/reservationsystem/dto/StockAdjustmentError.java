@@ -0,0 +1,13 @@
+package ohhudead.reservationsystem.dto;
+
+public record StockAdjustmentError(
+        Long productId,
+        Reason reason
+) {
+    public enum Reason {
+        PRODUCT_NOT_FOUND,
+        NEGATIVE_STOCK,
+        // итоговый остаток не помещается в integer
+        OUT_OF_RANGE
+    }
+}
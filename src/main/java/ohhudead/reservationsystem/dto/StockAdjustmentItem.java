@@ -0,0 +1,13 @@
+package ohhudead.reservationsystem.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public record StockAdjustmentItem(
+        @NotNull @Positive Long productId,
+        @NotNull @Min(-StockAdjustmentItem.MAX_VALUE) @Max(StockAdjustmentItem.MAX_VALUE) Integer value
+) {
+    public static final int MAX_VALUE = 1_000_000_000;
+}
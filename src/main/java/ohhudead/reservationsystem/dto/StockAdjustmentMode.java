@@ -0,0 +1,6 @@
+package ohhudead.reservationsystem.dto;
+
+public enum StockAdjustmentMode {
+    DELTA,
+    SET
+}
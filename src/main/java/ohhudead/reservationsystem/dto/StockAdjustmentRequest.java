@@ -0,0 +1,18 @@
+package ohhudead.reservationsystem.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record StockAdjustmentRequest(
+        @NotNull(message = "Mode is required") StockAdjustmentMode mode,
+        @NotEmpty(message = "Items must not be empty")
+        @Size(max = StockAdjustmentRequest.MAX_ITEMS,
+                message = "At most " + StockAdjustmentRequest.MAX_ITEMS + " items per request")
+        List<@Valid @NotNull StockAdjustmentItem> items
+) {
+    public static final int MAX_ITEMS = 20_000;
+}
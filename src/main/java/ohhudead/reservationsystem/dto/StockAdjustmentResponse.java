@@ -0,0 +1,20 @@
+package ohhudead.reservationsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class StockAdjustmentResponse {
+
+    private int requested;
+    private int applied;
+    private List<StockAdjustmentError> errors;
+}
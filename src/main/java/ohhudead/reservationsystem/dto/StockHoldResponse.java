@@ -0,0 +1,11 @@
+package ohhudead.reservationsystem.dto;
+
+import java.time.OffsetDateTime;
+
+public record StockHoldResponse(
+        Long holdId,
+        Long productId,
+        Integer quantity,
+        OffsetDateTime expiresAt
+) {
+}
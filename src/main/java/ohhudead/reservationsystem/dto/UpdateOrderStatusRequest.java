@@ -0,0 +1,9 @@
+package ohhudead.reservationsystem.dto;
+
+import jakarta.validation.constraints.NotNull;
+import ohhudead.reservationsystem.entity.OrderStatus;
+
+public record UpdateOrderStatusRequest(
+        @NotNull OrderStatus status
+) {
+}
@@ -2,6 +2,9 @@ package ohhudead.reservationsystem.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
@@ -27,20 +30,44 @@ public class Order {
     @JoinColumn(name = "customer_id", nullable = false)
     private Customer customer;
 
+    @Column(name = "order_date", nullable = false)
+    private OffsetDateTime orderDate;
+
     @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.NAMED_ENUM)
     @Column(name = "status", nullable = false)
     private OrderStatus orderStatus;
 
-    @Column(name = "total_amount", nullable = false)
+    @Column(name = "shipping_city", nullable = false)
+    private String shippingCity;
+
+    @Column(name = "shipping_country", nullable = false)
+    private String shippingCountry;
+
+    @Column(name = "total_amount")
     private BigDecimal totalAmount;
 
-    @Column(name = "created_at", insertable = false, updatable = false)
-    private OffsetDateTime createdAt;
+    @Column(name = "items_count")
+    private Integer itemsCount;
 
-    @OneToMany(mappedBy = "order", fetch = FetchType.LAZY)
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    // статус меняется через compare-and-set в OrderRepository, версия растёт вместе с ним
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @OneToMany(mappedBy = "order", fetch = FetchType.LAZY, cascade = CascadeType.PERSIST)
     @Builder.Default
     private List<OrderItem> items = new ArrayList<>();
 
     @OneToOne(mappedBy = "order", fetch = FetchType.LAZY)
     private Payment payment;
+
+    public void addItem(OrderItem item) {
+        item.setOrder(this);
+        items.add(item);
+    }
 }
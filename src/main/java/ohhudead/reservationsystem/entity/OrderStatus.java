@@ -1,9 +1,34 @@
 package ohhudead.reservationsystem.entity;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum OrderStatus {
     pending,
     paid,
     shipped,
     delivered,
-    cancelled
+    cancelled;
+
+    // допустимые переходы (API_SPECIFICATION.md 4.4); delivered и cancelled - конечные
+    private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        TRANSITIONS.put(pending, EnumSet.of(paid, cancelled));
+        TRANSITIONS.put(paid, EnumSet.of(shipped, cancelled));
+        TRANSITIONS.put(shipped, EnumSet.of(delivered));
+        TRANSITIONS.put(delivered, EnumSet.noneOf(OrderStatus.class));
+        TRANSITIONS.put(cancelled, EnumSet.noneOf(OrderStatus.class));
+    }
+
+    public Set<OrderStatus> allowedTransitions() {
+        return Collections.unmodifiableSet(TRANSITIONS.get(this));
+    }
+
+    public boolean canTransitionTo(OrderStatus target) {
+        return TRANSITIONS.get(this).contains(target);
+    }
 }
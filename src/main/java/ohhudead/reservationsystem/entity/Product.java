@@ -36,4 +36,9 @@ public class Product {
 
     @Column(name = "created_at", insertable = false, updatable = false)
     private OffsetDateTime createdAt;
+
+    // меняется и set-based запросами остатков (version = version + 1)
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
@@ -0,0 +1,23 @@
+package ohhudead.reservationsystem.event;
+
+import java.util.Collection;
+import java.util.List;
+
+// Публикуется сервисами после изменения каталога, чтобы кеши могли сбросить записи
+public record CatalogChangedEvent(
+        EntityType entityType,
+        Collection<Long> ids
+) {
+    public enum EntityType {
+        PRODUCT,
+        CATEGORY
+    }
+
+    public static CatalogChangedEvent products(Collection<Long> ids) {
+        return new CatalogChangedEvent(EntityType.PRODUCT, List.copyOf(ids));
+    }
+
+    public static CatalogChangedEvent categories(Collection<Long> ids) {
+        return new CatalogChangedEvent(EntityType.CATEGORY, List.copyOf(ids));
+    }
+}
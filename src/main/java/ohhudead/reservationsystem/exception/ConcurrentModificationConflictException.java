@@ -0,0 +1,13 @@
+package ohhudead.reservationsystem.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class ConcurrentModificationConflictException extends ApplicationException {
+
+    public ConcurrentModificationConflictException(String resource, Long id) {
+        super(
+                HttpStatus.CONFLICT,
+                resource + " id=" + id + " was modified concurrently, retry the request"
+        );
+    }
+}
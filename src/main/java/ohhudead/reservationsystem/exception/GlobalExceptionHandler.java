@@ -4,8 +4,10 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
 import ohhudead.reservationsystem.dto.ErrorResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -40,6 +42,27 @@ public class GlobalExceptionHandler {
 
     }
 
+    // очередь приёма платежей заполнена: 503 + Retry-After, чтобы провайдер повторил позже
+    @ExceptionHandler(PaymentQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handlePaymentQueueFull(
+            PaymentQueueFullException ex,
+            HttpServletRequest request
+    ) {
+        HttpStatus status = ex.getStatus();
+
+        ErrorResponse body = ErrorResponse.builder()
+                .timestamp(Instant.now())
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .build();
+
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(body);
+    }
+
     //2
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleMethodArgumentNotValid(
@@ -96,6 +119,28 @@ public class GlobalExceptionHandler {
     }
 
     //4
+    // сущность с @Version изменили между чтением и записью - клиент может повторить запрос
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(
+            ObjectOptimisticLockingFailureException ex,
+            HttpServletRequest request
+    ) {
+        HttpStatus status = HttpStatus.CONFLICT;
+
+        ErrorResponse body = ErrorResponse.builder()
+                .timestamp(Instant.now())
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message("Resource was modified concurrently, retry the request")
+                .path(request.getRequestURI())
+                .build();
+
+        log.warn("Optimistic locking failure: {} id={}", ex.getPersistentClassName(), ex.getIdentifier());
+
+        return ResponseEntity.status(status).body(body);
+    }
+
+    //5
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleOther(
             Exception ex,
@@ -0,0 +1,13 @@
+package ohhudead.reservationsystem.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class InsufficientStockException extends ApplicationException {
+
+    public InsufficientStockException(Long productId, int requested) {
+        super(
+                HttpStatus.BAD_REQUEST,
+                "Insufficient stock for product id=" + productId + ", requested=" + requested
+        );
+    }
+}
@@ -0,0 +1,13 @@
+package ohhudead.reservationsystem.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidCursorException extends ApplicationException {
+
+    public InvalidCursorException(String cursor) {
+        super(
+                HttpStatus.BAD_REQUEST,
+                "Invalid page cursor '" + cursor + "'"
+        );
+    }
+}
@@ -0,0 +1,15 @@
+package ohhudead.reservationsystem.exception;
+
+import org.springframework.http.HttpStatus;
+
+import java.util.Collection;
+
+public class InvalidFieldSelectionException extends ApplicationException {
+
+    public InvalidFieldSelectionException(String resource, String fields, Collection<String> allowed) {
+        super(
+                HttpStatus.BAD_REQUEST,
+                "Invalid fields '" + fields + "' for " + resource + ", allowed: " + String.join(",", allowed)
+        );
+    }
+}
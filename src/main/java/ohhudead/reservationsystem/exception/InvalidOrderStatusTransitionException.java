@@ -0,0 +1,15 @@
+package ohhudead.reservationsystem.exception;
+
+import ohhudead.reservationsystem.entity.OrderStatus;
+import org.springframework.http.HttpStatus;
+
+public class InvalidOrderStatusTransitionException extends ApplicationException {
+
+    public InvalidOrderStatusTransitionException(Long orderId, OrderStatus from, OrderStatus to) {
+        super(
+                HttpStatus.BAD_REQUEST,
+                "Order id=" + orderId + " cannot change status from " + from + " to " + to
+                        + ", allowed: " + from.allowedTransitions()
+        );
+    }
+}
@@ -0,0 +1,13 @@
+package ohhudead.reservationsystem.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidReportRangeException extends ApplicationException {
+
+    public InvalidReportRangeException(String message) {
+        super(
+                HttpStatus.BAD_REQUEST,
+                message
+        );
+    }
+}
@@ -0,0 +1,20 @@
+package ohhudead.reservationsystem.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+
+@Getter
+public class PaymentQueueFullException extends ApplicationException {
+
+    private final Duration retryAfter;
+
+    public PaymentQueueFullException(Duration retryAfter) {
+        super(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                "Payment ingestion queue is full, retry later"
+        );
+        this.retryAfter = retryAfter;
+    }
+}
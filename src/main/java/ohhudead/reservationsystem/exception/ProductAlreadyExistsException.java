@@ -0,0 +1,13 @@
+package ohhudead.reservationsystem.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class ProductAlreadyExistsException extends ApplicationException {
+
+    public ProductAlreadyExistsException(Long categoryId, String name) {
+        super(
+                HttpStatus.CONFLICT,
+                "Product with name '" + name + "' already exists in category id=" + categoryId
+        );
+    }
+}
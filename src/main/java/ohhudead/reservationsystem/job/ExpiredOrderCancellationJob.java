@@ -0,0 +1,61 @@
+package ohhudead.reservationsystem.job;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ohhudead.reservationsystem.config.JobProperties;
+import ohhudead.reservationsystem.repository.ExpiredOrderRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// SCHEDULER_TASKS.md, задача 1: отмена pending-заказов старше app.jobs.expired-orders.max-age
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(prefix = "app.jobs.expired-orders", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ExpiredOrderCancellationJob implements PartitionedJob {
+
+    private final ExpiredOrderRepository expiredOrderRepository;
+    private final JobProperties jobProperties;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public String name() {
+        return "cancelExpiredOrders";
+    }
+
+    @Override
+    public Duration interval() {
+        return jobProperties.getExpiredOrders().getInterval();
+    }
+
+    @Override
+    public int partitions() {
+        return jobProperties.getExpiredOrders().getPartitions();
+    }
+
+    @Override
+    public int chunkSize() {
+        return jobProperties.getExpiredOrders().getChunkSize();
+    }
+
+    @Override
+    public Optional<IdRange> idRange() {
+        return expiredOrderRepository.findPendingIdRange();
+    }
+
+    @Override
+    public long processChunk(long afterId, long toId, int limit) {
+        ExpiredOrderRepository.CancelledChunk chunk = expiredOrderRepository.cancelExpired(
+                afterId, toId, jobProperties.getExpiredOrders().getMaxAge(), limit);
+        if (chunk.cancelled() > 0) {
+            meterRegistry.counter("orders.expired.cancelled").increment(chunk.cancelled());
+            log.info("Expired orders cancelled, range=({}, {}], cancelled={}, restockedProducts={}",
+                    afterId, toId, chunk.cancelled(), chunk.restockedProducts());
+        }
+        return chunk.matched() < limit ? toId : chunk.lastOrderId();
+    }
+}
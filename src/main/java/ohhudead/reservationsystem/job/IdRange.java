@@ -0,0 +1,7 @@
+package ohhudead.reservationsystem.job;
+
+public record IdRange(
+        long min,
+        long max
+) {
+}
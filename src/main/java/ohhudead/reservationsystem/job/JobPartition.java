@@ -0,0 +1,12 @@
+package ohhudead.reservationsystem.job;
+
+// Захваченная инстансом партиция: обработано всё до checkpoint включительно
+public record JobPartition(
+        String jobName,
+        long runId,
+        int partitionNo,
+        long rangeTo,
+        long checkpoint,
+        String previousOwner
+) {
+}
@@ -0,0 +1,31 @@
+package ohhudead.reservationsystem.job;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Фоновая задача, которую PartitionedJobScheduler делит на диапазоны id и раздаёт всем инстансам.
+ * Каждая пачка выполняется в транзакции вместе с сохранением checkpoint'а партиции,
+ * поэтому processChunk должен быть идемпотентным только в пределах одной пачки.
+ */
+public interface PartitionedJob {
+
+    // имя в job_runs/job_partitions, до 64 символов
+    String name();
+
+    // как часто начинать новый запуск (от начала предыдущего)
+    Duration interval();
+
+    int partitions();
+
+    int chunkSize();
+
+    // границы id на момент планирования; empty - обрабатывать нечего
+    Optional<IdRange> idRange();
+
+    /**
+     * Обрабатывает до limit строк с id в (afterId, toId] и возвращает id последней
+     * обработанной строки или toId, если диапазон исчерпан.
+     */
+    long processChunk(long afterId, long toId, int limit);
+}
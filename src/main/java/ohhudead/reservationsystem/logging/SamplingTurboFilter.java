@@ -0,0 +1,76 @@
+package ohhudead.reservationsystem.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Пропускает только каждое N-е (в среднем) событие уровня не выше заданного для логгеров
+ * из правил. Решение принимается до форматирования сообщения, поэтому отброшенное событие
+ * не стоит ни аллокаций, ни места в очереди асинхронного appender'а.
+ * Правило с самым длинным префиксом логгера побеждает; WARN/ERROR по умолчанию не трогаются.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private final List<Rule> rules;
+
+    public SamplingTurboFilter(List<Rule> rules) {
+        this.rules = rules.stream()
+                .sorted(Comparator.comparingInt((Rule r) -> r.logger().length()).reversed())
+                .toList();
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format == null - это isXxxEnabled(): сэмплируем только само событие, иначе оно решалось бы дважды
+        if (format == null || !isStarted()) {
+            return FilterReply.NEUTRAL;
+        }
+        Rule rule = match(logger.getName());
+        if (rule == null || rule.keepOneIn() <= 1 || level.isGreaterOrEqual(rule.above())) {
+            return FilterReply.NEUTRAL;
+        }
+        if (ThreadLocalRandom.current().nextInt(rule.keepOneIn()) == 0) {
+            return FilterReply.NEUTRAL;
+        }
+        rule.sampledOut().increment();
+        return FilterReply.DENY;
+    }
+
+    private Rule match(String loggerName) {
+        for (Rule rule : rules) {
+            String prefix = rule.logger();
+            if (prefix.isEmpty() || Logger.ROOT_LOGGER_NAME.equals(prefix)) {
+                return rule;
+            }
+            if (loggerName.startsWith(prefix)
+                    && (loggerName.length() == prefix.length() || loggerName.charAt(prefix.length()) == '.')) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param logger    имя логгера или пакета, к которому относится правило
+     * @param above     события этого уровня и выше не сэмплируются
+     * @param keepOneIn доля пропускаемых событий, 1/keepOneIn
+     */
+    public record Rule(String logger, Level above, int keepOneIn, LongAdder sampledOut) {
+
+        public Rule(String logger, Level above, int keepOneIn) {
+            this(logger, above, keepOneIn, new LongAdder());
+        }
+    }
+}
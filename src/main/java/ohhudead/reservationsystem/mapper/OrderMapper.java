@@ -0,0 +1,34 @@
+package ohhudead.reservationsystem.mapper;
+
+import ohhudead.reservationsystem.dto.OrderItemResponse;
+import ohhudead.reservationsystem.dto.OrderResponse;
+import ohhudead.reservationsystem.entity.Order;
+import ohhudead.reservationsystem.entity.OrderItem;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.Named;
+
+import java.math.BigDecimal;
+
+@Mapper(componentModel = "spring")
+
+public interface OrderMapper {
+
+    @Mapping(target = "id", source = "orderId")
+    @Mapping(target = "customerId", source = "customer.id")
+    @Mapping(target = "status", source = "orderStatus")
+    OrderResponse toResponse(Order order);
+
+    @Mapping(target = "productId", source = "product.id")
+    @Mapping(target = "productName", source = "product.name")
+    @Mapping(target = "subtotal", source = "item", qualifiedByName = "subtotal")
+    OrderItemResponse toItemResponse(OrderItem item);
+
+    @Named("subtotal")
+    default BigDecimal subtotal(OrderItem item) {
+        if (item.getUnitPrice() == null || item.getQuantity() == null) {
+            return null;
+        }
+        return item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+    }
+}
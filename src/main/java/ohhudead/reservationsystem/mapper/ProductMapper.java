@@ -33,13 +33,24 @@ public interface ProductMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "category", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "name", source = "name", qualifiedByName = "normalizeName")
     Product toEntity(ProductRequest request);
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "category", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "name", source = "name", qualifiedByName = "normalizeName")
     void updateFromRequest(ProductRequest request, @MappingTarget Product product);
 
+    // ux_products_category_name_lower сравнивает имя как есть, поэтому create, update
+    // и upsert должны сохранять его в одном виде
+    @Named("normalizeName")
+    default String normalizeName(String name) {
+        return name != null ? name.trim() : null;
+    }
+
     @Named("categoryToId")
     default Long categoryToId(Category category) {
         return category != null ? category.getId() : null;
@@ -0,0 +1,42 @@
+package ohhudead.reservationsystem.profiling;
+
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+// Время коммита (вместе с flush Hibernate) отдельной операцией transaction.commit
+public class CommitTimingListener implements TransactionExecutionListener {
+
+    private final LatencyRecorder.Operation commits;
+    private final ThreadLocal<OperationEvent> current = new ThreadLocal<>();
+    private final ThreadLocal<Long> started = new ThreadLocal<>();
+
+    public CommitTimingListener(LatencyRecorder latencyRecorder) {
+        this.commits = latencyRecorder.operation("transaction", "transaction.commit");
+    }
+
+    @Override
+    public void beforeCommit(TransactionExecution transaction) {
+        OperationEvent event = new OperationEvent();
+        event.begin();
+        current.set(event);
+        started.set(System.nanoTime());
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        Long startedAt = started.get();
+        OperationEvent event = current.get();
+        started.remove();
+        current.remove();
+        if (startedAt == null) {
+            return;
+        }
+        commits.record(System.nanoTime() - startedAt);
+        if (event.shouldCommit()) {
+            event.layer = "transaction";
+            event.operation = transaction.getTransactionName();
+            event.outcome = commitFailure == null ? "ok" : commitFailure.getClass().getSimpleName();
+            event.commit();
+        }
+    }
+}
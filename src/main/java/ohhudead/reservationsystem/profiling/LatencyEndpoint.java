@@ -0,0 +1,28 @@
+package ohhudead.reservationsystem.profiling;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// GET /actuator/latency - перцентили по операциям с момента старта или последнего DELETE
+@Component
+@Endpoint(id = "latency")
+@RequiredArgsConstructor
+public class LatencyEndpoint {
+
+    private final LatencyRecorder latencyRecorder;
+
+    @ReadOperation
+    public List<LatencyRecorder.OperationLatency> latencies() {
+        return latencyRecorder.snapshot();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        latencyRecorder.reset();
+    }
+}
@@ -0,0 +1,112 @@
+package ohhudead.reservationsystem.profiling;
+
+import ohhudead.reservationsystem.config.ProfilingProperties;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HdrHistogram на каждую операцию. Запись идёт в Recorder (wait-free, без блокировок
+ * на горячем пути); при чтении накопленный интервал переливается в общую гистограмму.
+ */
+@Component
+public class LatencyRecorder {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    public record OperationLatency(
+            String layer,
+            String operation,
+            long count,
+            double meanMs,
+            double p50Ms,
+            double p90Ms,
+            double p99Ms,
+            double p999Ms,
+            double maxMs
+    ) {
+    }
+
+    private final int significantDigits;
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+
+    public LatencyRecorder(ProfilingProperties properties) {
+        this.significantDigits = properties.getSignificantDigits();
+    }
+
+    Operation operation(String layer, String name) {
+        return operations.computeIfAbsent(name, key -> new Operation(layer, key, significantDigits));
+    }
+
+    // по убыванию суммарного времени - сверху то, на что уходит больше всего
+    public List<OperationLatency> snapshot() {
+        List<OperationLatency> result = new ArrayList<>(operations.size());
+        for (Operation operation : operations.values()) {
+            Histogram total = operation.drain();
+            if (total.getTotalCount() > 0) {
+                result.add(new OperationLatency(
+                        operation.layer,
+                        operation.name,
+                        total.getTotalCount(),
+                        total.getMean() / NANOS_PER_MILLI,
+                        total.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                        total.getValueAtPercentile(90) / NANOS_PER_MILLI,
+                        total.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                        total.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                        total.getMaxValue() / NANOS_PER_MILLI));
+            }
+        }
+        result.sort(Comparator.comparingDouble((OperationLatency l) -> l.meanMs() * l.count()).reversed());
+        return result;
+    }
+
+    public void reset() {
+        operations.values().forEach(Operation::reset);
+    }
+
+    static final class Operation {
+
+        private final String layer;
+        private final String name;
+        private final Recorder recorder;
+        private final Histogram total;
+        private Histogram interval;
+
+        private Operation(String layer, String name, int significantDigits) {
+            this.layer = layer;
+            this.name = name;
+            this.recorder = new Recorder(significantDigits);
+            this.total = new Histogram(significantDigits);
+        }
+
+        String layer() {
+            return layer;
+        }
+
+        String name() {
+            return name;
+        }
+
+        void record(long nanos) {
+            recorder.recordValue(nanos);
+        }
+
+        // копия: total меняется при следующем чтении
+        private synchronized Histogram drain() {
+            interval = recorder.getIntervalHistogram(interval);
+            total.add(interval);
+            return total.copy();
+        }
+
+        private synchronized void reset() {
+            interval = recorder.getIntervalHistogram(interval);
+            total.reset();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ohhudead.reservationsystem.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR-событие операции. Пишется только в идущую запись и только дольше порога
+ * (переопределяется в .jfc: {@code ohhudead.Operation#threshold=0 ms}); без записи
+ * shouldCommit() сразу возвращает false.
+ */
+@Name("ohhudead.Operation")
+@Label("Operation")
+@Category({"Reservation System", "Operations"})
+@Description("Service, repository, mapper, exception handler or transaction commit call")
+@Threshold("10 ms")
+@StackTrace(false)
+class OperationEvent extends jdk.jfr.Event {
+
+    @Label("Layer")
+    String layer;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Outcome")
+    String outcome;
+}
@@ -0,0 +1,109 @@
+package ohhudead.reservationsystem.profiling;
+
+import ohhudead.reservationsystem.exception.GlobalExceptionHandler;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.StaticMethodMatcher;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Замеряет публичные методы бинов из пакетов service, repository и mapper и обработчики
+ * GlobalExceptionHandler: HdrHistogram в LatencyRecorder и OperationEvent в JFR.
+ * Имя операции - {@code Класс.метод}; для Spring Data репозиториев - по интерфейсу
+ * репозитория, а не по прокси.
+ */
+public class OperationTimingInterceptor implements MethodInterceptor {
+
+    private static final String BASE_PACKAGE = "ohhudead.reservationsystem.";
+
+    public static final Pointcut POINTCUT = new ComposablePointcut(
+            (ClassFilter) clazz -> layer(clazz) != null,
+            new StaticMethodMatcher() {
+                @Override
+                public boolean matches(Method method, Class<?> targetClass) {
+                    return Modifier.isPublic(method.getModifiers()) && method.getDeclaringClass() != Object.class;
+                }
+            });
+
+    private final LatencyRecorder latencyRecorder;
+    private final Map<Class<?>, Map<Method, LatencyRecorder.Operation>> operations = new ConcurrentHashMap<>();
+
+    public OperationTimingInterceptor(LatencyRecorder latencyRecorder) {
+        this.latencyRecorder = latencyRecorder;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        LatencyRecorder.Operation operation = operation(invocation);
+        OperationEvent event = new OperationEvent();
+        event.begin();
+        long started = System.nanoTime();
+        String outcome = "ok";
+        try {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            operation.record(System.nanoTime() - started);
+            if (event.shouldCommit()) {
+                event.layer = operation.layer();
+                event.operation = operation.name();
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+
+    private LatencyRecorder.Operation operation(MethodInvocation invocation) {
+        Class<?> targetClass = invocation.getThis() == null
+                ? invocation.getMethod().getDeclaringClass()
+                : invocation.getThis().getClass();
+        return operations
+                .computeIfAbsent(targetClass, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(invocation.getMethod(), method -> {
+                    Class<?> owner = owner(targetClass);
+                    return latencyRecorder.operation(layer(owner), owner.getSimpleName() + "." + method.getName());
+                });
+    }
+
+    // класс или интерфейс приложения, по которому названа операция (CGLIB и JDK-прокси пропускаются)
+    private static Class<?> owner(Class<?> clazz) {
+        Class<?> user = ClassUtils.getUserClass(clazz);
+        if (user.getName().startsWith(BASE_PACKAGE)) {
+            return user;
+        }
+        for (Class<?> candidate : ClassUtils.getAllInterfacesForClassAsSet(user)) {
+            if (candidate.getName().startsWith(BASE_PACKAGE)) {
+                return candidate;
+            }
+        }
+        return user;
+    }
+
+    static String layer(Class<?> clazz) {
+        Class<?> owner = owner(clazz);
+        if (owner == GlobalExceptionHandler.class) {
+            return "exception-handler";
+        }
+        String packageName = owner.getPackageName();
+        if (packageName.equals(BASE_PACKAGE + "service")) {
+            return "service";
+        }
+        if (packageName.equals(BASE_PACKAGE + "repository")) {
+            return "repository";
+        }
+        if (packageName.equals(BASE_PACKAGE + "mapper")) {
+            return "mapper";
+        }
+        return null;
+    }
+}
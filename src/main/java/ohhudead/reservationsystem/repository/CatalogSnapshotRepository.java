@@ -0,0 +1,100 @@
+package ohhudead.reservationsystem.repository;
+
+import lombok.RequiredArgsConstructor;
+import ohhudead.reservationsystem.catalog.CatalogChange;
+import ohhudead.reservationsystem.catalog.CatalogContents;
+import ohhudead.reservationsystem.catalog.CategoryRow;
+import ohhudead.reservationsystem.catalog.ProductRow;
+import ohhudead.reservationsystem.event.CatalogChangedEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class CatalogSnapshotRepository {
+
+    private static final String PRODUCT_COLUMNS =
+            "select product_id, category_id, product_name, price, in_stock, created_at, updated_at from products ";
+
+    private static final String CATEGORY_COLUMNS =
+            "select category_id, category_name, description, updated_at from categories ";
+
+    private static final RowMapper<ProductRow> PRODUCT_ROW = (rs, rowNum) -> new ProductRow(
+            rs.getLong("product_id"),
+            rs.getLong("category_id"),
+            rs.getString("product_name"),
+            rs.getBigDecimal("price"),
+            rs.getInt("in_stock"),
+            rs.getObject("created_at", OffsetDateTime.class),
+            rs.getObject("updated_at", OffsetDateTime.class));
+
+    private static final RowMapper<CategoryRow> CATEGORY_ROW = (rs, rowNum) -> new CategoryRow(
+            rs.getLong("category_id"),
+            rs.getString("category_name"),
+            rs.getString("description"),
+            rs.getObject("updated_at", OffsetDateTime.class));
+
+    private static final RowMapper<CatalogChange> CHANGE_ROW = (rs, rowNum) -> new CatalogChange(
+            rs.getLong("change_id"),
+            CatalogChangedEvent.EntityType.valueOf(rs.getString("entity_type")),
+            rs.getLong("entity_id"),
+            rs.getObject("changed_at", OffsetDateTime.class));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Один снимок БД на весь каталог, asOf - время начала транзакции. changePosition - последняя
+    // запись журнала старше asOf - overlap: всё до неё уже закоммичено и попало в снимок
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public CatalogContents findCatalog(Duration overlap) {
+        OffsetDateTime asOf = jdbcTemplate.queryForObject("select now()", OffsetDateTime.class);
+        // идём по PK с хвоста журнала: просматриваются только записи последних overlap
+        List<Long> position = jdbcTemplate.queryForList(
+                "select change_id from catalog_changes where changed_at <= ? order by change_id desc limit 1",
+                Long.class, asOf.minus(overlap));
+        return new CatalogContents(asOf,
+                position.isEmpty() ? 0 : position.get(0),
+                jdbcTemplate.query(CATEGORY_COLUMNS, CATEGORY_ROW),
+                jdbcTemplate.query(PRODUCT_COLUMNS, PRODUCT_ROW));
+    }
+
+    // Хвост журнала после afterChangeId - диапазон по PK, без индексов на products.
+    // asOf читается первым: всё, что закоммичено до него, в хвост уже попало
+    @Transactional(readOnly = true)
+    public ChangeTail findChanges(long afterChangeId) {
+        OffsetDateTime asOf = jdbcTemplate.queryForObject("select now()", OffsetDateTime.class);
+        List<CatalogChange> changes = jdbcTemplate.query(
+                "select change_id, entity_type, entity_id, changed_at from catalog_changes "
+                        + "where change_id > ? order by change_id",
+                CHANGE_ROW, afterChangeId);
+        return new ChangeTail(asOf, changes);
+    }
+
+    public List<ProductRow> findProducts(Collection<Long> ids) {
+        long[] productIds = ids.stream().mapToLong(Long::longValue).toArray();
+        return jdbcTemplate.query(PRODUCT_COLUMNS + "where product_id = any(?::bigint[])",
+                ps -> ps.setArray(1, SqlArrays.bigintArray(ps.getConnection(), productIds)),
+                PRODUCT_ROW);
+    }
+
+    public List<CategoryRow> findCategories(Collection<Long> ids) {
+        long[] categoryIds = ids.stream().mapToLong(Long::longValue).toArray();
+        return jdbcTemplate.query(CATEGORY_COLUMNS + "where category_id = any(?::bigint[])",
+                ps -> ps.setArray(1, SqlArrays.bigintArray(ps.getConnection(), categoryIds)),
+                CATEGORY_ROW);
+    }
+
+    public int purgeChanges(OffsetDateTime before) {
+        return jdbcTemplate.update("delete from catalog_changes where changed_at < ?", before);
+    }
+
+    public record ChangeTail(OffsetDateTime asOf, List<CatalogChange> changes) {
+    }
+}
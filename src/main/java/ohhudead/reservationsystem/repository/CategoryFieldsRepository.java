@@ -0,0 +1,16 @@
+package ohhudead.reservationsystem.repository;
+
+import ohhudead.reservationsystem.dto.CategoryField;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public interface CategoryFieldsRepository {
+
+    // Tuple-запрос только по запрошенным колонкам categories
+    List<Map<String, Object>> findFields(Set<CategoryField> fields);
+
+    Optional<Map<String, Object>> findFieldsById(Set<CategoryField> fields, Long id);
+}
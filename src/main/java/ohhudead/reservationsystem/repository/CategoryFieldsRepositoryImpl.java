@@ -0,0 +1,65 @@
+package ohhudead.reservationsystem.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import ohhudead.reservationsystem.dto.CategoryField;
+import ohhudead.reservationsystem.entity.Category;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public class CategoryFieldsRepositoryImpl implements CategoryFieldsRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findFields(Set<CategoryField> fields) {
+        return query(fields, null);
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findFieldsById(Set<CategoryField> fields, Long id) {
+        return query(fields, id).stream().findFirst();
+    }
+
+    private List<Map<String, Object>> query(Set<CategoryField> fields, Long id) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Category> category = query.from(Category.class);
+
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (CategoryField field : fields) {
+            String attribute = switch (field) {
+                case ID -> "id";
+                case NAME -> "name";
+                case DESCRIPTION -> "description";
+            };
+            selections.add(category.get(attribute).alias(field.getApiName()));
+        }
+        query.multiselect(selections);
+
+        if (id != null) {
+            query.where(cb.equal(category.get("id"), id));
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (CategoryField field : fields) {
+                row.put(field.getApiName(), tuple.get(field.getApiName()));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -32,7 +32,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 // Читать: TECHNICAL_REQUIREMENTS.md раздел 3.2, CODE_EXAMPLES_AND_PATTERNS.md раздел 2
 // Изучить: Query methods, @Query annotation, Projections
 
-public interface CategoryRepository extends JpaRepository<Category, Long> {
+public interface CategoryRepository extends JpaRepository<Category, Long>, CategoryUpsertRepository,
+        CategoryFieldsRepository {
 
     boolean existsByNameIgnoreCase(String name);
 
@@ -0,0 +1,15 @@
+package ohhudead.reservationsystem.repository;
+
+import ohhudead.reservationsystem.dto.CategoryResponse;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface CategoryUpsertRepository {
+
+    // INSERT ... ON CONFLICT DO NOTHING: пусто, если категория с таким именем (без учёта регистра) уже есть
+    Optional<CategoryResponse> insertIfAbsent(String name, String description);
+
+    // Один INSERT ... ON CONFLICT DO UPDATE на всю пачку; имена в пачке должны быть уникальны
+    List<CategoryResponse> upsertAll(String[] names, String[] descriptions);
+}
@@ -0,0 +1,57 @@
+package ohhudead.reservationsystem.repository;
+
+import lombok.RequiredArgsConstructor;
+import ohhudead.reservationsystem.dto.CategoryResponse;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class CategoryUpsertRepositoryImpl implements CategoryUpsertRepository {
+
+    private static final String INSERT_IF_ABSENT_SQL = """
+            insert into categories (category_name, description)
+            values (?, ?)
+            on conflict (lower(category_name)) do nothing
+            returning category_id, category_name, description
+            """;
+
+    // имя сохраняется в том написании, в каком категория была создана
+    private static final String UPSERT_SQL = """
+            insert into categories (category_name, description)
+            select t.name, t.description
+            from unnest(?::text[], ?::text[]) as t(name, description)
+            on conflict (lower(category_name)) do update
+                set description = coalesce(excluded.description, categories.description)
+            returning category_id, category_name, description
+            """;
+
+    private static final RowMapper<CategoryResponse> CATEGORY_MAPPER = (rs, rowNum) -> new CategoryResponse(
+            rs.getLong("category_id"),
+            rs.getString("category_name"),
+            rs.getString("description")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Optional<CategoryResponse> insertIfAbsent(String name, String description) {
+        return jdbcTemplate.query(INSERT_IF_ABSENT_SQL, CATEGORY_MAPPER, name, description)
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public List<CategoryResponse> upsertAll(String[] names, String[] descriptions) {
+        return jdbcTemplate.query(UPSERT_SQL,
+                ps -> {
+                    Connection connection = ps.getConnection();
+                    ps.setArray(1, SqlArrays.textArray(connection, names));
+                    ps.setArray(2, SqlArrays.textArray(connection, descriptions));
+                },
+                CATEGORY_MAPPER);
+    }
+}
@@ -0,0 +1,92 @@
+package ohhudead.reservationsystem.repository;
+
+import lombok.RequiredArgsConstructor;
+import ohhudead.reservationsystem.job.IdRange;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Repository
+@RequiredArgsConstructor
+public class ExpiredOrderRepository {
+
+    // Пачка просроченных pending-заказов в диапазоне id: статус и остатки - одним statement.
+    // skip locked - заказ, который прямо сейчас оплачивают или отменяют вручную, пропускаем;
+    // если он так и останется pending, его отменит следующий запуск.
+    // Остатки возвращаются как в ProductRepository.restoreStockForOrder - с блокировкой в порядке id
+    private static final String CANCEL_EXPIRED_SQL = """
+            with expired as (
+                select o.order_id
+                from orders o
+                where o.order_id > ? and o.order_id <= ?
+                  and o.status = 'pending'
+                  and o.order_date < now() - make_interval(secs => ?)
+                order by o.order_id
+                limit ?
+                for update skip locked
+            ),
+            cancelled as (
+                update orders o
+                set status     = 'cancelled',
+                    version    = o.version + 1,
+                    updated_at = now()
+                from expired e
+                where o.order_id = e.order_id
+                returning o.order_id
+            ),
+            returned as (
+                select oi.product_id, sum(oi.quantity) as quantity
+                from order_items oi
+                join cancelled c on c.order_id = oi.order_id
+                group by oi.product_id
+            ),
+            locked as (
+                select p.product_id
+                from products p
+                join returned r on r.product_id = p.product_id
+                order by p.product_id
+                for update of p
+            ),
+            restocked as (
+                update products p
+                set in_stock = p.in_stock + r.quantity,
+                    version  = p.version + 1
+                from returned r
+                join locked l on l.product_id = r.product_id
+                where p.product_id = r.product_id
+                returning p.product_id
+            )
+            select (select count(*) from expired) as matched,
+                   (select max(order_id) from expired) as last_order_id,
+                   (select count(*) from cancelled) as cancelled,
+                   (select count(*) from restocked) as restocked
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record CancelledChunk(int matched, long lastOrderId, int cancelled, int restockedProducts) {
+    }
+
+    public Optional<IdRange> findPendingIdRange() {
+        return jdbcTemplate.query("""
+                        select min(order_id) as min_id, max(order_id) as max_id
+                        from orders
+                        where status = 'pending'
+                        having count(*) > 0
+                        """,
+                (rs, rowNum) -> new IdRange(rs.getLong("min_id"), rs.getLong("max_id"))
+        ).stream().findFirst();
+    }
+
+    public CancelledChunk cancelExpired(long afterId, long toId, Duration maxAge, int limit) {
+        return jdbcTemplate.queryForObject(CANCEL_EXPIRED_SQL,
+                (rs, rowNum) -> new CancelledChunk(
+                        rs.getInt("matched"),
+                        rs.getLong("last_order_id"),
+                        rs.getInt("cancelled"),
+                        rs.getInt("restocked")),
+                afterId, toId, maxAge.toSeconds(), limit);
+    }
+}
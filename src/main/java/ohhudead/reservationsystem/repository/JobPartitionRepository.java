@@ -0,0 +1,152 @@
+package ohhudead.reservationsystem.repository;
+
+import lombok.RequiredArgsConstructor;
+import ohhudead.reservationsystem.job.JobPartition;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@RequiredArgsConstructor
+public class JobPartitionRepository {
+
+    // Свободная (без владельца или с просроченной арендой) незавершённая партиция текущего запуска.
+    // skip locked: партицию, которую сейчас обрабатывает пачка владельца, не трогаем даже
+    // с просроченной арендой - её строка заблокирована до конца пачки
+    private static final String CLAIM_SQL = """
+            with candidate as (
+                select p.job_name, p.run_id, p.partition_no, p.owner as previous_owner
+                from job_partitions p
+                join job_runs r on r.job_name = p.job_name and r.run_id = p.run_id
+                where p.job_name = ?
+                  and not p.done
+                  and (p.owner is null or p.lease_until < now())
+                order by p.partition_no
+                limit 1
+                for update of p skip locked
+            )
+            update job_partitions p
+            set owner       = ?,
+                lease_until = now() + make_interval(secs => ?),
+                attempts    = p.attempts + 1
+            from candidate c
+            where p.job_name = c.job_name
+              and p.run_id = c.run_id
+              and p.partition_no = c.partition_no
+            returning p.job_name, p.run_id, p.partition_no, p.range_to, p.checkpoint, c.previous_owner
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OffsetDateTime currentDbTime() {
+        return jdbcTemplate.queryForObject("select now()", OffsetDateTime.class);
+    }
+
+    public record RunState(long runId, OffsetDateTime startedAt, OffsetDateTime finishedAt) {
+    }
+
+    // Блокирует строку задачи в job_runs до конца транзакции: планирует запуск один инстанс
+    public RunState lockRun(String jobName) {
+        jdbcTemplate.update("insert into job_runs (job_name, run_id) values (?, 0) on conflict do nothing", jobName);
+        return jdbcTemplate.queryForObject(
+                "select run_id, started_at, finished_at from job_runs where job_name = ? for update",
+                (rs, rowNum) -> new RunState(
+                        rs.getLong("run_id"),
+                        rs.getObject("started_at", OffsetDateTime.class),
+                        rs.getObject("finished_at", OffsetDateTime.class)),
+                jobName);
+    }
+
+    // Новый запуск: (min - 1, max] делится на равные диапазоны, партиции прошлых запусков удаляются
+    public int startRun(String jobName, long runId, long min, long max, int partitions, boolean empty) {
+        jdbcTemplate.update("delete from job_partitions where job_name = ? and run_id < ?", jobName, runId);
+        jdbcTemplate.update("""
+                update job_runs
+                set run_id = ?, started_at = now(), finished_at = case when ? then now() end
+                where job_name = ?
+                """, runId, empty, jobName);
+        if (empty) {
+            return 0;
+        }
+
+        long from = min - 1;
+        long span = max - from;
+        int count = (int) Math.max(1, Math.min(partitions, span));
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long rangeFrom = from + span * i / count;
+            long rangeTo = from + span * (i + 1) / count;
+            rows.add(new Object[]{jobName, runId, i, rangeFrom, rangeTo, rangeFrom});
+        }
+        jdbcTemplate.batchUpdate("""
+                insert into job_partitions (job_name, run_id, partition_no, range_from, range_to, checkpoint)
+                values (?, ?, ?, ?, ?, ?)
+                """, rows);
+        return count;
+    }
+
+    public Optional<JobPartition> claim(String jobName, String owner, Duration lease) {
+        return jdbcTemplate.query(CLAIM_SQL,
+                (rs, rowNum) -> new JobPartition(
+                        rs.getString("job_name"),
+                        rs.getLong("run_id"),
+                        rs.getInt("partition_no"),
+                        rs.getLong("range_to"),
+                        rs.getLong("checkpoint"),
+                        rs.getString("previous_owner")),
+                jobName, owner, lease.toMillis() / 1000.0
+        ).stream().findFirst();
+    }
+
+    // Продлевает аренду и блокирует строку партиции до конца транзакции пачки.
+    // false - партицию уже забрал другой инстанс
+    public boolean renewLease(JobPartition partition, String owner, Duration lease) {
+        return jdbcTemplate.update("""
+                update job_partitions
+                set lease_until = now() + make_interval(secs => ?)
+                where job_name = ? and run_id = ? and partition_no = ? and owner = ? and not done
+                """, lease.toMillis() / 1000.0, partition.jobName(), partition.runId(), partition.partitionNo(),
+                owner) == 1;
+    }
+
+    public void saveCheckpoint(JobPartition partition, long checkpoint, boolean done) {
+        jdbcTemplate.update("""
+                update job_partitions
+                set checkpoint = ?, done = ?
+                where job_name = ? and run_id = ? and partition_no = ?
+                """, checkpoint, done, partition.jobName(), partition.runId(), partition.partitionNo());
+    }
+
+    // Отдаёт партицию без ожидания аренды (штатная остановка инстанса)
+    public void release(JobPartition partition, String owner) {
+        jdbcTemplate.update("""
+                update job_partitions
+                set owner = null, lease_until = null
+                where job_name = ? and run_id = ? and partition_no = ? and owner = ?
+                """, partition.jobName(), partition.runId(), partition.partitionNo(), owner);
+    }
+
+    // true - эта партиция была последней и запуск завершён.
+    // Строка запуска блокируется до проверки: два воркера, закрывающие последние партиции,
+    // проверяют по очереди, и второй уже видит закоммиченную партицию первого
+    public boolean finishRunIfComplete(String jobName, long runId) {
+        List<Long> run = jdbcTemplate.queryForList(
+                "select run_id from job_runs where job_name = ? and run_id = ? for update",
+                Long.class, jobName, runId);
+        if (run.isEmpty()) {
+            return false;
+        }
+        return jdbcTemplate.update("""
+                update job_runs r
+                set finished_at = now()
+                where r.job_name = ? and r.run_id = ? and r.finished_at is null
+                  and not exists(select 1 from job_partitions p
+                                 where p.job_name = r.job_name and p.run_id = r.run_id and not p.done)
+                """, jobName, runId) == 1;
+    }
+}
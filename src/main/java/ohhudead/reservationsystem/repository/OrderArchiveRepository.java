@@ -0,0 +1,170 @@
+package ohhudead.reservationsystem.repository;
+
+import lombok.RequiredArgsConstructor;
+import ohhudead.reservationsystem.archive.ArchivedOrder;
+import ohhudead.reservationsystem.entity.OrderStatus;
+import ohhudead.reservationsystem.entity.PaymentMethod;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class OrderArchiveRepository {
+
+    // итоги берём посчитанными, если backfill до строки ещё не дошёл - считаем здесь
+    private static final String FIND_ORDERS_SQL = """
+            select o.order_id, o.customer_id, o.order_date, o.status, o.shipping_city, o.shipping_country,
+                   coalesce(o.total_amount,
+                            (select coalesce(sum(oi.quantity * oi.unit_price), 0)
+                             from order_items oi where oi.order_id = o.order_id)) as total_amount,
+                   coalesce(o.items_count,
+                            (select count(*) from order_items oi where oi.order_id = o.order_id)) as items_count,
+                   o.updated_at, o.version
+            from orders o
+            where o.status in ('delivered', 'cancelled')
+              and o.order_date < ?
+            order by o.order_date, o.order_id
+            limit ?
+            """;
+
+    private static final String FIND_ITEMS_SQL = """
+            select oi.order_item_id, oi.order_id, oi.product_id, oi.quantity, oi.unit_price
+            from order_items oi
+            where oi.order_id = any(?::bigint[])
+            order by oi.order_id, oi.order_item_id
+            """;
+
+    private static final String FIND_PAYMENTS_SQL = """
+            select p.payment_id, p.order_id, p.method, p.amount, p.paid_at
+            from payments p
+            where p.order_id = any(?::bigint[])
+            """;
+
+    // блокируем в порядке id и оставляем только заказы, не менявшиеся после выгрузки в сегмент
+    private static final String LOCK_UNCHANGED_SQL = """
+            select o.order_id
+            from orders o
+            join unnest(?::bigint[], ?::bigint[]) as a(order_id, version)
+                 on a.order_id = o.order_id and a.version = o.version
+            order by o.order_id
+            for update of o
+            """;
+
+    // вклад удаляемых заказов в выручку - по тем же правилам, что sales_daily_rollup
+    private static final String ADD_ARCHIVED_ROLLUP_SQL = """
+            insert into sales_archived_rollup (sales_date, category_id, payment_method, items_sold, revenue)
+            select (p.paid_at at time zone 'UTC')::date,
+                   pr.category_id,
+                   p.method,
+                   sum(oi.quantity),
+                   sum(oi.quantity * oi.unit_price)
+            from orders o
+            join payments p on p.order_id = o.order_id
+            join order_items oi on oi.order_id = o.order_id
+            join products pr on pr.product_id = oi.product_id
+            where o.order_id = any(?::bigint[])
+              and o.status in ('paid', 'shipped', 'delivered')
+            group by 1, 2, 3
+            on conflict (sales_date, category_id, payment_method) do update
+                set items_sold = sales_archived_rollup.items_sold + excluded.items_sold,
+                    revenue    = sales_archived_rollup.revenue + excluded.revenue
+            returning sales_date
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Самые старые закрытые заказы до cutoff вместе с позициями и оплатой
+    public List<ArchivedOrder> findArchivable(OffsetDateTime cutoff, int limit) {
+        List<OrderRow> orders = jdbcTemplate.query(FIND_ORDERS_SQL, (rs, rowNum) -> new OrderRow(
+                rs.getLong("order_id"),
+                rs.getLong("customer_id"),
+                rs.getObject("order_date", OffsetDateTime.class),
+                OrderStatus.valueOf(rs.getString("status")),
+                rs.getString("shipping_city"),
+                rs.getString("shipping_country"),
+                rs.getBigDecimal("total_amount"),
+                rs.getInt("items_count"),
+                rs.getObject("updated_at", OffsetDateTime.class),
+                rs.getLong("version")
+        ), cutoff, limit);
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+
+        long[] ids = orders.stream().mapToLong(OrderRow::orderId).toArray();
+        Map<Long, List<ArchivedOrder.Item>> items = new HashMap<>();
+        jdbcTemplate.query(FIND_ITEMS_SQL,
+                ps -> ps.setArray(1, SqlArrays.bigintArray(ps.getConnection(), ids)),
+                rs -> {
+                    items.computeIfAbsent(rs.getLong("order_id"), id -> new ArrayList<>())
+                            .add(new ArchivedOrder.Item(
+                                    rs.getLong("order_item_id"),
+                                    rs.getLong("product_id"),
+                                    rs.getInt("quantity"),
+                                    rs.getBigDecimal("unit_price")));
+                });
+        Map<Long, ArchivedOrder.Payment> payments = new HashMap<>();
+        jdbcTemplate.query(FIND_PAYMENTS_SQL,
+                ps -> ps.setArray(1, SqlArrays.bigintArray(ps.getConnection(), ids)),
+                rs -> {
+                    payments.put(rs.getLong("order_id"), new ArchivedOrder.Payment(
+                            rs.getLong("payment_id"),
+                            PaymentMethod.valueOf(rs.getString("method")),
+                            rs.getBigDecimal("amount"),
+                            rs.getObject("paid_at", OffsetDateTime.class)));
+                });
+
+        return orders.stream()
+                .map(o -> new ArchivedOrder(o.orderId(), o.customerId(), o.orderDate(), o.status(),
+                        o.shippingCity(), o.shippingCountry(), o.totalAmount(), o.itemsCount(), o.updatedAt(),
+                        o.version(), items.getOrDefault(o.orderId(), List.of()), payments.get(o.orderId())))
+                .toList();
+    }
+
+    public List<Long> lockUnchanged(long[] orderIds, long[] versions) {
+        return jdbcTemplate.query(LOCK_UNCHANGED_SQL,
+                ps -> {
+                    Connection connection = ps.getConnection();
+                    ps.setArray(1, SqlArrays.bigintArray(connection, orderIds));
+                    ps.setArray(2, SqlArrays.bigintArray(connection, versions));
+                },
+                (rs, rowNum) -> rs.getLong("order_id"));
+    }
+
+    // возвращает дни оплаты, чей вклад перенесён в sales_archived_rollup
+    public List<LocalDate> addToArchivedRollup(long[] orderIds) {
+        return jdbcTemplate.query(ADD_ARCHIVED_ROLLUP_SQL,
+                ps -> ps.setArray(1, SqlArrays.bigintArray(ps.getConnection(), orderIds)),
+                (rs, rowNum) -> rs.getObject("sales_date", LocalDate.class)
+        ).stream().distinct().toList();
+    }
+
+    // order_items и payments удаляются каскадом
+    public int delete(long[] orderIds) {
+        return jdbcTemplate.update("delete from orders where order_id = any(?::bigint[])",
+                ps -> ps.setArray(1, SqlArrays.bigintArray(ps.getConnection(), orderIds)));
+    }
+
+    private record OrderRow(
+            long orderId,
+            long customerId,
+            OffsetDateTime orderDate,
+            OrderStatus status,
+            String shippingCity,
+            String shippingCountry,
+            BigDecimal totalAmount,
+            int itemsCount,
+            OffsetDateTime updatedAt,
+            long version
+    ) {
+    }
+}
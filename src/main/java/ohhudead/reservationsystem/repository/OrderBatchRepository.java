@@ -0,0 +1,165 @@
+package ohhudead.reservationsystem.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Запросы group commit заказов (OrderService.createBatch): каждый - один statement на всю пачку
+@Repository
+@RequiredArgsConstructor
+public class OrderBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record LockedProduct(long id, String name, BigDecimal price, int inStock) {
+    }
+
+    public record NewOrder(long orderId, long customerId, OffsetDateTime orderDate,
+                           String shippingCity, String shippingCountry, BigDecimal totalAmount, int itemsCount) {
+    }
+
+    public record NewOrderItem(long id, long orderId, long productId, int quantity, BigDecimal unitPrice) {
+    }
+
+    public Set<Long> findExistingCustomerIds(long[] customerIds) {
+        return new HashSet<>(jdbcTemplate.query(
+                "select customer_id from customers where customer_id = any(?)",
+                ps -> ps.setArray(1, SqlArrays.bigintArray(ps.getConnection(), customerIds)),
+                (rs, rowNum) -> rs.getLong("customer_id")));
+    }
+
+    // Блокирует товары пачки в порядке id, как и одиночное списание, - без дедлоков с ним.
+    // Горячая строка блокируется один раз на пачку, а не на каждый заказ
+    public Map<Long, LockedProduct> lockProducts(long[] productIds) {
+        Map<Long, LockedProduct> products = new LinkedHashMap<>();
+        jdbcTemplate.query("""
+                        select product_id, product_name, price, in_stock
+                        from products
+                        where product_id = any(?)
+                        order by product_id
+                        for update
+                        """,
+                ps -> ps.setArray(1, SqlArrays.bigintArray(ps.getConnection(), productIds)),
+                rs -> {
+                    long id = rs.getLong("product_id");
+                    products.put(id, new LockedProduct(
+                            id, rs.getString("product_name"), rs.getBigDecimal("price"), rs.getInt("in_stock")));
+                });
+        return products;
+    }
+
+    // id заранее из последовательности: строки заказов и позиций связываются без returning
+    public long[] nextOrderIds(int count) {
+        return nextIds("orders", "order_id", count);
+    }
+
+    public long[] nextOrderItemIds(int count) {
+        return nextIds("order_items", "order_item_id", count);
+    }
+
+    // остатки уже проверены под блокировкой в lockProducts
+    public void decrementStock(long[] productIds, int[] quantities) {
+        jdbcTemplate.update("""
+                        update products p
+                        set in_stock = p.in_stock - d.quantity,
+                            version  = p.version + 1
+                        from unnest(?::bigint[], ?::integer[]) as d(product_id, quantity)
+                        where p.product_id = d.product_id
+                        """,
+                ps -> {
+                    Connection connection = ps.getConnection();
+                    ps.setArray(1, SqlArrays.bigintArray(connection, productIds));
+                    ps.setArray(2, SqlArrays.intArray(connection, quantities));
+                });
+    }
+
+    public void insertOrders(List<NewOrder> orders) {
+        int size = orders.size();
+        long[] orderIds = new long[size];
+        long[] customerIds = new long[size];
+        String[] orderDates = new String[size];
+        String[] cities = new String[size];
+        String[] countries = new String[size];
+        BigDecimal[] totals = new BigDecimal[size];
+        int[] itemCounts = new int[size];
+        for (int i = 0; i < size; i++) {
+            NewOrder order = orders.get(i);
+            orderIds[i] = order.orderId();
+            customerIds[i] = order.customerId();
+            orderDates[i] = order.orderDate().toString();
+            cities[i] = order.shippingCity();
+            countries[i] = order.shippingCountry();
+            totals[i] = order.totalAmount();
+            itemCounts[i] = order.itemsCount();
+        }
+
+        jdbcTemplate.update("""
+                        insert into orders (order_id, customer_id, order_date, status, shipping_city, shipping_country,
+                                            total_amount, items_count)
+                        select t.order_id, t.customer_id, t.order_date::timestamptz, 'pending',
+                               t.shipping_city, t.shipping_country, t.total_amount, t.items_count
+                        from unnest(?::bigint[], ?::bigint[], ?::text[], ?::text[], ?::text[], ?::numeric[], ?::integer[])
+                                 as t(order_id, customer_id, order_date, shipping_city, shipping_country,
+                                      total_amount, items_count)
+                        """,
+                ps -> {
+                    Connection connection = ps.getConnection();
+                    ps.setArray(1, SqlArrays.bigintArray(connection, orderIds));
+                    ps.setArray(2, SqlArrays.bigintArray(connection, customerIds));
+                    ps.setArray(3, SqlArrays.textArray(connection, orderDates));
+                    ps.setArray(4, SqlArrays.textArray(connection, cities));
+                    ps.setArray(5, SqlArrays.textArray(connection, countries));
+                    ps.setArray(6, SqlArrays.numericArray(connection, totals));
+                    ps.setArray(7, SqlArrays.intArray(connection, itemCounts));
+                });
+    }
+
+    public void insertOrderItems(List<NewOrderItem> items) {
+        int size = items.size();
+        long[] ids = new long[size];
+        long[] orderIds = new long[size];
+        long[] productIds = new long[size];
+        int[] quantities = new int[size];
+        BigDecimal[] unitPrices = new BigDecimal[size];
+        for (int i = 0; i < size; i++) {
+            NewOrderItem item = items.get(i);
+            ids[i] = item.id();
+            orderIds[i] = item.orderId();
+            productIds[i] = item.productId();
+            quantities[i] = item.quantity();
+            unitPrices[i] = item.unitPrice();
+        }
+
+        jdbcTemplate.update("""
+                        insert into order_items (order_item_id, order_id, product_id, quantity, unit_price)
+                        select *
+                        from unnest(?::bigint[], ?::bigint[], ?::bigint[], ?::integer[], ?::numeric[])
+                        """,
+                ps -> {
+                    Connection connection = ps.getConnection();
+                    ps.setArray(1, SqlArrays.bigintArray(connection, ids));
+                    ps.setArray(2, SqlArrays.bigintArray(connection, orderIds));
+                    ps.setArray(3, SqlArrays.bigintArray(connection, productIds));
+                    ps.setArray(4, SqlArrays.intArray(connection, quantities));
+                    ps.setArray(5, SqlArrays.numericArray(connection, unitPrices));
+                });
+    }
+
+    private long[] nextIds(String table, String column, int count) {
+        return jdbcTemplate.queryForList(
+                        "select nextval(pg_get_serial_sequence(?, ?)) from generate_series(1, ?)",
+                        Long.class, table, column, count)
+                .stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+}
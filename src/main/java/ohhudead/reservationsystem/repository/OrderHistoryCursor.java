@@ -0,0 +1,36 @@
+package ohhudead.reservationsystem.repository;
+
+import ohhudead.reservationsystem.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Позиция последней выданной строки в порядке (order_date desc, order_id desc)
+public record OrderHistoryCursor(
+        OffsetDateTime orderDate,
+        long orderId
+) {
+
+    public String encode() {
+        String raw = orderDate + "|" + orderId;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderHistoryCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                throw new InvalidCursorException(cursor);
+            }
+            return new OrderHistoryCursor(
+                    OffsetDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package ohhudead.reservationsystem.repository;
+
+import ohhudead.reservationsystem.dto.OrderSummaryResponse;
+
+import java.util.List;
+
+public interface OrderHistoryRepository {
+
+    // Keyset-страница истории клиента по idx_orders_customer_date, без загрузки сущностей.
+    // after == null - первая страница
+    List<OrderSummaryResponse> findOrderSummaries(Long customerId, OrderHistoryCursor after, int limit);
+}
@@ -0,0 +1,55 @@
+package ohhudead.reservationsystem.repository;
+
+import lombok.RequiredArgsConstructor;
+import ohhudead.reservationsystem.dto.OrderSummaryResponse;
+import ohhudead.reservationsystem.entity.OrderStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class OrderHistoryRepositoryImpl implements OrderHistoryRepository {
+
+    // total_amount/items_count денормализованы в orders; подзапрос к order_items
+    // выполняется только для строк, которые backfill ещё не успел заполнить
+    private static final String SUMMARY_SQL = """
+            select o.order_id,
+                   o.order_date,
+                   o.status::text as status,
+                   coalesce(o.items_count,
+                            (select count(*) from order_items oi where oi.order_id = o.order_id)) as items_count,
+                   coalesce(o.total_amount,
+                            (select coalesce(sum(oi.quantity * oi.unit_price), 0)
+                             from order_items oi where oi.order_id = o.order_id)) as total_amount
+            from orders o
+            where o.customer_id = ?
+            %s
+            order by o.order_date desc, o.order_id desc
+            limit ?
+            """;
+
+    private static final String FIRST_PAGE_SQL = SUMMARY_SQL.formatted("");
+    private static final String NEXT_PAGE_SQL = SUMMARY_SQL.formatted(
+            "and (o.order_date, o.order_id) < (?, ?)");
+
+    private static final RowMapper<OrderSummaryResponse> SUMMARY_MAPPER = (rs, rowNum) -> new OrderSummaryResponse(
+            rs.getLong("order_id"),
+            rs.getObject("order_date", OffsetDateTime.class),
+            OrderStatus.valueOf(rs.getString("status")),
+            rs.getBigDecimal("total_amount"),
+            rs.getInt("items_count")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<OrderSummaryResponse> findOrderSummaries(Long customerId, OrderHistoryCursor after, int limit) {
+        if (after == null) {
+            return jdbcTemplate.query(FIRST_PAGE_SQL, SUMMARY_MAPPER, customerId, limit);
+        }
+        return jdbcTemplate.query(NEXT_PAGE_SQL, SUMMARY_MAPPER,
+                customerId, after.orderDate(), after.orderId(), limit);
+    }
+}
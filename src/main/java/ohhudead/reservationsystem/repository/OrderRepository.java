@@ -2,6 +2,56 @@ package ohhudead.reservationsystem.repository;
 
 import ohhudead.reservationsystem.entity.*;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface OrderRepository extends JpaRepository<Order,Long>{
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+public interface OrderRepository extends JpaRepository<Order,Long>, OrderHistoryRepository {
+
+    @Query("select new ohhudead.reservationsystem.repository.OrderStatusVersion(o.orderStatus, o.version) " +
+           "from Order o where o.orderId = :id")
+    Optional<OrderStatusVersion> findStatusById(@Param("id") Long id);
+
+    // compare-and-set: 0 строк - статус или версию уже поменял кто-то другой
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o " +
+           "set o.orderStatus = :to, o.version = o.version + 1, o.updatedAt = :now " +
+           "where o.orderId = :id and o.orderStatus = :from and o.version = :version")
+    int compareAndSetStatus(@Param("id") Long id,
+                            @Param("from") OrderStatus from,
+                            @Param("version") Long version,
+                            @Param("to") OrderStatus to,
+                            @Param("now") OffsetDateTime now);
+
+    // Заполняет total_amount/items_count у очередной пачки старых заказов.
+    // skip locked - чтобы не ждать заказы, которые прямо сейчас кто-то меняет
+    @Transactional
+    @Modifying
+    @Query(value = """
+            with batch as (
+                select order_id
+                from orders
+                where total_amount is null
+                order by order_id
+                limit :batchSize
+                for update skip locked
+            )
+            update orders o
+            set total_amount = coalesce(s.total_amount, 0),
+                items_count  = coalesce(s.items_count, 0),
+                version      = o.version + 1
+            from batch b
+            left join lateral (
+                select sum(oi.quantity * oi.unit_price) as total_amount,
+                       count(*) as items_count
+                from order_items oi
+                where oi.order_id = b.order_id
+            ) s on true
+            where o.order_id = b.order_id
+            """, nativeQuery = true)
+    int backfillTotals(@Param("batchSize") int batchSize);
 }
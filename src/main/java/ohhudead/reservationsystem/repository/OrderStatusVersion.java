@@ -0,0 +1,7 @@
+package ohhudead.reservationsystem.repository;
+
+import ohhudead.reservationsystem.entity.OrderStatus;
+
+// то, что нужно для compare-and-set статуса, без загрузки сущности в persistence context
+public record OrderStatusVersion(OrderStatus status, Long version) {
+}
@@ -0,0 +1,104 @@
+package ohhudead.reservationsystem.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class PaymentBatchRepository {
+
+    // Вся пачка - один statement: заказы блокируются в порядке id (как при списании остатков),
+    // затем один многострочный INSERT в payments и один UPDATE orders по вставленным строкам.
+    // Правила API_SPECIFICATION 5.1: заказ pending, платежа ещё нет, сумма совпадает с итогом.
+    // Повторное применение того же подтверждения даёт ALREADY_PAID, так что пачку можно повторять.
+    // Статус берётся из locked: после ожидания блокировки это уже перечитанная текущая строка,
+    // а exists по payments видит только снимок начала statement и не заметит оплату, которую
+    // параллельно закоммитил другой экземпляр.
+    private static final String APPLY_SQL = """
+            with input as (
+                select distinct on (t.order_id)
+                       t.order_id, t.method, t.amount, t.received_at::timestamptz as paid_at
+                from unnest(?::bigint[], ?::text[], ?::numeric[], ?::text[])
+                         as t(order_id, method, amount, received_at)
+                order by t.order_id, t.received_at::timestamptz
+            ),
+            locked as (
+                select o.order_id, o.status, o.total_amount
+                from orders o
+                join input i on i.order_id = o.order_id
+                order by o.order_id
+                for update of o
+            ),
+            eligible as (
+                select i.order_id, i.method, i.amount, i.paid_at
+                from input i
+                join locked l on l.order_id = i.order_id
+                where l.status = 'pending'
+                  and i.amount = coalesce(l.total_amount,
+                                          (select sum(oi.quantity * oi.unit_price)
+                                           from order_items oi
+                                           where oi.order_id = i.order_id))
+            ),
+            inserted as (
+                insert into payments (order_id, method, amount, paid_at)
+                select order_id, method::payment_method, amount, paid_at
+                from eligible
+                on conflict (order_id) do nothing
+                returning order_id
+            ),
+            paid as (
+                update orders o
+                set status     = 'paid',
+                    version    = o.version + 1,
+                    updated_at = now()
+                from inserted i
+                where o.order_id = i.order_id
+                returning o.order_id
+            )
+            select i.order_id,
+                   case
+                       when p.order_id is not null then 'APPLIED'
+                       when l.order_id is null then 'ORDER_NOT_FOUND'
+                       when l.status = 'paid' then 'ALREADY_PAID'
+                       when exists(select 1 from payments x where x.order_id = i.order_id) then 'ALREADY_PAID'
+                       when l.status <> 'pending' then 'INVALID_STATUS'
+                       else 'AMOUNT_MISMATCH'
+                   end as outcome
+            from input i
+            left join locked l on l.order_id = i.order_id
+            left join paid p on p.order_id = i.order_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<PaymentBatchResult> apply(List<PaymentConfirmation> batch) {
+        long[] orderIds = new long[batch.size()];
+        String[] methods = new String[batch.size()];
+        BigDecimal[] amounts = new BigDecimal[batch.size()];
+        String[] receivedAt = new String[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            PaymentConfirmation confirmation = batch.get(i);
+            orderIds[i] = confirmation.orderId();
+            methods[i] = confirmation.method().name();
+            amounts[i] = confirmation.amount();
+            receivedAt[i] = confirmation.receivedAt().toString();
+        }
+
+        return jdbcTemplate.query(APPLY_SQL,
+                ps -> {
+                    Connection connection = ps.getConnection();
+                    ps.setArray(1, SqlArrays.bigintArray(connection, orderIds));
+                    ps.setArray(2, SqlArrays.textArray(connection, methods));
+                    ps.setArray(3, SqlArrays.numericArray(connection, amounts));
+                    ps.setArray(4, SqlArrays.textArray(connection, receivedAt));
+                },
+                (rs, rowNum) -> new PaymentBatchResult(
+                        rs.getLong("order_id"),
+                        PaymentBatchResult.Outcome.valueOf(rs.getString("outcome"))));
+    }
+}
@@ -0,0 +1,15 @@
+package ohhudead.reservationsystem.repository;
+
+public record PaymentBatchResult(
+        Long orderId,
+        Outcome outcome
+) {
+
+    public enum Outcome {
+        APPLIED,
+        ORDER_NOT_FOUND,
+        ALREADY_PAID,
+        INVALID_STATUS,
+        AMOUNT_MISMATCH
+    }
+}
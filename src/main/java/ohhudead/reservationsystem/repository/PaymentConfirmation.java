@@ -0,0 +1,15 @@
+package ohhudead.reservationsystem.repository;
+
+import ohhudead.reservationsystem.entity.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+// Подтверждение оплаты в очереди приёма; receivedAt становится payments.paid_at
+public record PaymentConfirmation(
+        Long orderId,
+        PaymentMethod method,
+        BigDecimal amount,
+        OffsetDateTime receivedAt
+) {
+}
@@ -3,5 +3,9 @@ package ohhudead.reservationsystem.repository;
 import ohhudead.reservationsystem.entity.*;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Optional;
+
 public interface PaymentRepository extends JpaRepository<Payment,Long>{
+
+    Optional<Payment> findByOrderOrderId(Long orderId);
 }
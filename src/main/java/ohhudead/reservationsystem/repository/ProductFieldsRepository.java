@@ -0,0 +1,16 @@
+package ohhudead.reservationsystem.repository;
+
+import ohhudead.reservationsystem.dto.ProductField;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public interface ProductFieldsRepository {
+
+    // Tuple-запрос только по запрошенным колонкам; join к categories - только если нужен categoryName
+    List<Map<String, Object>> findFields(Set<ProductField> fields, Long categoryId);
+
+    Optional<Map<String, Object>> findFieldsById(Set<ProductField> fields, Long id);
+}
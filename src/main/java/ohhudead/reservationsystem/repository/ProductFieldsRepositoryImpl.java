@@ -0,0 +1,82 @@
+package ohhudead.reservationsystem.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import ohhudead.reservationsystem.dto.ProductField;
+import ohhudead.reservationsystem.entity.Category;
+import ohhudead.reservationsystem.entity.Product;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public class ProductFieldsRepositoryImpl implements ProductFieldsRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findFields(Set<ProductField> fields, Long categoryId) {
+        return query(fields, categoryId, null);
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findFieldsById(Set<ProductField> fields, Long id) {
+        return query(fields, null, id).stream().findFirst();
+    }
+
+    private List<Map<String, Object>> query(Set<ProductField> fields, Long categoryId, Long id) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> product = query.from(Product.class);
+        // category_id лежит в products, join нужен только ради имени категории
+        Join<Product, Category> category = fields.contains(ProductField.CATEGORY_NAME)
+                ? product.join("category")
+                : null;
+
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (ProductField field : fields) {
+            selections.add(path(field, product, category).alias(field.getApiName()));
+        }
+        query.multiselect(selections);
+
+        if (categoryId != null) {
+            query.where(cb.equal(product.get("category").get("id"), categoryId));
+        }
+        if (id != null) {
+            query.where(cb.equal(product.get("id"), id));
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (ProductField field : fields) {
+                row.put(field.getApiName(), tuple.get(field.getApiName()));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static Path<?> path(ProductField field, Root<Product> product, Join<Product, Category> category) {
+        return switch (field) {
+            case ID -> product.get("id");
+            case NAME -> product.get("name");
+            case PRICE -> product.get("price");
+            case IN_STOCK -> product.get("inStock");
+            case CATEGORY_ID -> product.get("category").get("id");
+            case CATEGORY_NAME -> category.get("name");
+            case CREATED_AT -> product.get("createdAt");
+        };
+    }
+}
@@ -2,14 +2,55 @@ package ohhudead.reservationsystem.repository;
 
 import ohhudead.reservationsystem.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
-public interface ProductRepository extends JpaRepository<Product, Long>{
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductStockRepository,
+        ProductUpsertRepository, ProductFieldsRepository {
 
     long countByCategoryId(Long id);
 
     boolean existByCategoryId(Long categoryId);
 
     List<Product> findByCategoryId(Long categoryId);
+
+    @Query("select p from Product p join fetch p.category where p.id in :ids")
+    List<Product> findAllWithCategoryByIdIn(@Param("ids") Collection<Long> ids);
+
+    // атомарное списание: 0 строк - остатка не хватает
+    @Modifying
+    @Query(value = "update products set in_stock = in_stock - :quantity, version = version + 1 " +
+                   "where product_id = :id and in_stock >= :quantity",
+           nativeQuery = true)
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // возврат остатков по позициям отменённого заказа; строки блокируются в порядке id,
+    // как и при списании в OrderService.create, чтобы не ловить дедлоки
+    @Modifying
+    @Query(value = """
+            with returned as (
+                select product_id, sum(quantity) as quantity
+                from order_items
+                where order_id = :orderId
+                group by product_id
+            ),
+            locked as (
+                select p.product_id
+                from products p
+                join returned r on r.product_id = p.product_id
+                order by p.product_id
+                for update of p
+            )
+            update products p
+            set in_stock = p.in_stock + r.quantity,
+                version  = p.version + 1
+            from returned r
+            join locked l on l.product_id = r.product_id
+            where p.product_id = r.product_id
+            """, nativeQuery = true)
+    int restoreStockForOrder(@Param("orderId") Long orderId);
 }
@@ -0,0 +1,12 @@
+package ohhudead.reservationsystem.repository;
+
+import ohhudead.reservationsystem.dto.StockAdjustmentMode;
+
+import java.util.List;
+
+public interface ProductStockRepository {
+
+    // Один UPDATE ... FROM unnest(...) на весь чанк; строки, которые нарушили бы
+    // products_in_stock_check или вышли бы за integer, не обновляются и возвращаются с newStock = null
+    List<StockAdjustmentRow> adjustStock(StockAdjustmentMode mode, long[] productIds, int[] values);
+}
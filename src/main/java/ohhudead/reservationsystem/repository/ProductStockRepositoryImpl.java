@@ -0,0 +1,60 @@
+package ohhudead.reservationsystem.repository;
+
+import lombok.RequiredArgsConstructor;
+import ohhudead.reservationsystem.dto.StockAdjustmentMode;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ProductStockRepositoryImpl implements ProductStockRepository {
+
+    // новый остаток считается в bigint: сумма не переполняется, а выход за integer отклоняется
+    private static final String ADJUST_STOCK_SQL = """
+            with input as (
+                select t.product_id, t.value
+                from unnest(?::bigint[], ?::int[]) as t(product_id, value)
+            ),
+            updated as (
+                update products p
+                set in_stock = (%1$s)::int,
+                    version  = p.version + 1
+                from input i
+                where p.product_id = i.product_id
+                  and %1$s between 0 and 2147483647
+                returning p.product_id, p.in_stock
+            )
+            select i.product_id,
+                   u.in_stock as new_stock,
+                   p.product_id is not null as found,
+                   %1$s as target_stock
+            from input i
+            left join updated u on u.product_id = i.product_id
+            left join products p on p.product_id = i.product_id
+            """;
+
+    private static final String DELTA_SQL = ADJUST_STOCK_SQL.formatted("p.in_stock::bigint + i.value");
+    private static final String SET_SQL = ADJUST_STOCK_SQL.formatted("i.value::bigint");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<StockAdjustmentRow> adjustStock(StockAdjustmentMode mode, long[] productIds, int[] values) {
+        String sql = mode == StockAdjustmentMode.DELTA ? DELTA_SQL : SET_SQL;
+
+        return jdbcTemplate.query(sql,
+                ps -> {
+                    Connection connection = ps.getConnection();
+                    ps.setArray(1, SqlArrays.bigintArray(connection, productIds));
+                    ps.setArray(2, SqlArrays.intArray(connection, values));
+                },
+                (rs, rowNum) -> new StockAdjustmentRow(
+                        rs.getLong("product_id"),
+                        rs.getBoolean("found"),
+                        rs.getObject("new_stock", Integer.class),
+                        rs.getObject("target_stock", Long.class)
+                ));
+    }
+
+}
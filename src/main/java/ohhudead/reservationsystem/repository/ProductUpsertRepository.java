@@ -0,0 +1,13 @@
+package ohhudead.reservationsystem.repository;
+
+import ohhudead.reservationsystem.dto.ProductResponse;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface ProductUpsertRepository {
+
+    // Вставка или обновление цены/остатка по (category_id, lower(product_name)) одним запросом.
+    // Ключи в пачке должны быть уникальны; несуществующая категория - DataIntegrityViolationException
+    List<ProductResponse> upsertAll(long[] categoryIds, String[] names, BigDecimal[] prices, int[] inStock);
+}
@@ -0,0 +1,53 @@
+package ohhudead.reservationsystem.repository;
+
+import lombok.RequiredArgsConstructor;
+import ohhudead.reservationsystem.dto.ProductResponse;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ProductUpsertRepositoryImpl implements ProductUpsertRepository {
+
+    private static final String UPSERT_SQL = """
+            with upserted as (
+                insert into products (category_id, product_name, price, in_stock)
+                select t.category_id, t.name, t.price, t.in_stock
+                from unnest(?::bigint[], ?::text[], ?::numeric[], ?::int[]) as t(category_id, name, price, in_stock)
+                on conflict (category_id, lower(product_name)) do update
+                    set price    = excluded.price,
+                        in_stock = excluded.in_stock,
+                        version  = products.version + 1
+                returning product_id, category_id, product_name, price, in_stock, created_at
+            )
+            select u.product_id, u.category_id, c.category_name, u.product_name, u.price, u.in_stock, u.created_at
+            from upserted u
+            join categories c on c.category_id = u.category_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<ProductResponse> upsertAll(long[] categoryIds, String[] names, BigDecimal[] prices, int[] inStock) {
+        return jdbcTemplate.query(UPSERT_SQL,
+                ps -> {
+                    Connection connection = ps.getConnection();
+                    ps.setArray(1, SqlArrays.bigintArray(connection, categoryIds));
+                    ps.setArray(2, SqlArrays.textArray(connection, names));
+                    ps.setArray(3, SqlArrays.numericArray(connection, prices));
+                    ps.setArray(4, SqlArrays.intArray(connection, inStock));
+                },
+                (rs, rowNum) -> ProductResponse.builder()
+                        .id(rs.getLong("product_id"))
+                        .name(rs.getString("product_name"))
+                        .price(rs.getBigDecimal("price"))
+                        .inStock(rs.getInt("in_stock"))
+                        .categoryId(rs.getLong("category_id"))
+                        .categoryName(rs.getString("category_name"))
+                        .createdAt(rs.getObject("created_at", OffsetDateTime.class))
+                        .build());
+    }
+}
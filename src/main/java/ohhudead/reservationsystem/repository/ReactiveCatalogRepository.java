@@ -0,0 +1,70 @@
+package ohhudead.reservationsystem.repository;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import ohhudead.reservationsystem.dto.CategoryResponse;
+import ohhudead.reservationsystem.dto.ProductResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+// Те же данные, что отдают ProductService/CategoryService, но через R2DBC без блокировки потоков.
+// Строки читаются из курсора по мере запроса подписчиком (backpressure доходит до драйвера)
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.reactive", name = "enabled", havingValue = "true")
+public class ReactiveCatalogRepository {
+
+    private static final String PRODUCT_COLUMNS = """
+            select p.product_id, p.product_name, p.price, p.in_stock, p.category_id, c.category_name, p.created_at
+            from products p
+            join categories c on c.category_id = p.category_id
+            """;
+
+    private final DatabaseClient reactiveDatabaseClient;
+
+    public Flux<ProductResponse> findProducts(Long categoryId) {
+        if (categoryId == null) {
+            return reactiveDatabaseClient.sql(PRODUCT_COLUMNS + "order by p.product_id")
+                    .map(ReactiveCatalogRepository::toProduct)
+                    .all();
+        }
+        return reactiveDatabaseClient.sql(PRODUCT_COLUMNS + "where p.category_id = :categoryId order by p.product_id")
+                .bind("categoryId", categoryId)
+                .map(ReactiveCatalogRepository::toProduct)
+                .all();
+    }
+
+    public Mono<ProductResponse> findProduct(Long id) {
+        return reactiveDatabaseClient.sql(PRODUCT_COLUMNS + "where p.product_id = :id")
+                .bind("id", id)
+                .map(ReactiveCatalogRepository::toProduct)
+                .one();
+    }
+
+    public Flux<CategoryResponse> findCategories() {
+        return reactiveDatabaseClient.sql("select category_id, category_name, description from categories order by category_id")
+                .map(row -> new CategoryResponse(
+                        row.get("category_id", Long.class),
+                        row.get("category_name", String.class),
+                        row.get("description", String.class)))
+                .all();
+    }
+
+    private static ProductResponse toProduct(Readable row) {
+        return ProductResponse.builder()
+                .id(row.get("product_id", Long.class))
+                .name(row.get("product_name", String.class))
+                .price(row.get("price", BigDecimal.class))
+                .inStock(row.get("in_stock", Integer.class))
+                .categoryId(row.get("category_id", Long.class))
+                .categoryName(row.get("category_name", String.class))
+                .createdAt(row.get("created_at", OffsetDateTime.class))
+                .build();
+    }
+}
@@ -0,0 +1,157 @@
+package ohhudead.reservationsystem.repository;
+
+import lombok.RequiredArgsConstructor;
+import ohhudead.reservationsystem.dto.SalesReportDimension;
+import ohhudead.reservationsystem.dto.SalesReportRow;
+import ohhudead.reservationsystem.entity.PaymentMethod;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Repository
+@RequiredArgsConstructor
+public class SalesRollupRepository {
+
+    private static final String AFFECTED_DAYS_SQL = """
+            select (p.paid_at at time zone 'UTC')::date as sales_date
+            from payments p
+            where p.paid_at > ? and p.paid_at <= ?
+            union
+            select (p.paid_at at time zone 'UTC')::date
+            from orders o
+            join payments p on p.order_id = o.order_id
+            where o.updated_at > ? and o.updated_at <= ?
+            """;
+
+    private static final String DELETE_DAYS_SQL = """
+            delete from sales_daily_rollup
+            where sales_date = any(?::date[])
+            """;
+
+    // пересчёт целых дней идемпотентен, поэтому окна запусков могут перекрываться
+    private static final String INSERT_DAYS_SQL = """
+            insert into sales_daily_rollup (sales_date, category_id, payment_method, items_sold, revenue)
+            select d.sales_date,
+                   pr.category_id,
+                   p.method,
+                   sum(oi.quantity),
+                   sum(oi.quantity * oi.unit_price)
+            from unnest(?::date[]) as d(sales_date)
+            join payments p
+                 on p.paid_at >= (d.sales_date::timestamp at time zone 'UTC')
+                and p.paid_at < ((d.sales_date + 1)::timestamp at time zone 'UTC')
+            join orders o on o.order_id = p.order_id
+            join order_items oi on oi.order_id = o.order_id
+            join products pr on pr.product_id = oi.product_id
+            where o.status in ('paid', 'shipped', 'delivered')
+            group by d.sales_date, pr.category_id, p.method
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Сериализует пересчёт sales_daily_rollup с архивацией заказов до конца транзакции:
+    // иначе пересчёт со старым снимком вернул бы в rollup вклад уже заархивированных заказов
+    public void lockRollup() {
+        jdbcTemplate.query("select pg_advisory_xact_lock(hashtext('sales_daily_rollup'))", rs -> {
+        });
+    }
+
+    public OffsetDateTime currentDbTime() {
+        return jdbcTemplate.queryForObject("select now()", OffsetDateTime.class);
+    }
+
+    public Optional<OffsetDateTime> findWatermark(String name) {
+        return jdbcTemplate.query(
+                "select processed_until from rollup_watermarks where name = ?",
+                (rs, rowNum) -> rs.getObject("processed_until", OffsetDateTime.class),
+                name
+        ).stream().findFirst();
+    }
+
+    public void saveWatermark(String name, OffsetDateTime processedUntil) {
+        jdbcTemplate.update("""
+                insert into rollup_watermarks (name, processed_until)
+                values (?, ?)
+                on conflict (name) do update set processed_until = excluded.processed_until
+                """, name, processedUntil);
+    }
+
+    public List<LocalDate> findAffectedDays(OffsetDateTime from, OffsetDateTime to) {
+        return jdbcTemplate.query(AFFECTED_DAYS_SQL,
+                (rs, rowNum) -> rs.getObject("sales_date", LocalDate.class),
+                from, to, from, to);
+    }
+
+    public int rebuildDays(List<LocalDate> days) {
+        Object[] dates = days.stream().map(Date::valueOf).toArray();
+        jdbcTemplate.update(DELETE_DAYS_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("date", dates)));
+        return jdbcTemplate.update(INSERT_DAYS_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("date", dates)));
+    }
+
+    public List<SalesReportRow> findReport(LocalDate from, LocalDate to, Set<SalesReportDimension> groupBy,
+                                           Long categoryId, PaymentMethod paymentMethod) {
+        boolean byDay = groupBy.contains(SalesReportDimension.DAY);
+        boolean byCategory = groupBy.contains(SalesReportDimension.CATEGORY);
+        boolean byMethod = groupBy.contains(SalesReportDimension.PAYMENT_METHOD);
+
+        List<String> columns = new ArrayList<>();
+        if (byDay) {
+            columns.add("r.sales_date");
+        }
+        if (byCategory) {
+            columns.add("r.category_id");
+            columns.add("c.category_name");
+        }
+        if (byMethod) {
+            columns.add("r.payment_method");
+        }
+
+        StringBuilder sql = new StringBuilder("select ");
+        for (String column : columns) {
+            sql.append(column).append(", ");
+        }
+        // заархивированные заказы учтены отдельно, в sales_archived_rollup
+        sql.append("sum(r.items_sold) as items_sold, sum(r.revenue) as revenue ")
+                .append("from (select sales_date, category_id, payment_method, items_sold, revenue ")
+                .append("from sales_daily_rollup ")
+                .append("union all ")
+                .append("select sales_date, category_id, payment_method, items_sold, revenue ")
+                .append("from sales_archived_rollup) r ");
+        if (byCategory) {
+            sql.append("join categories c on c.category_id = r.category_id ");
+        }
+        sql.append("where r.sales_date between ? and ? ");
+
+        List<Object> args = new ArrayList<>(List.of(Date.valueOf(from), Date.valueOf(to)));
+        if (categoryId != null) {
+            sql.append("and r.category_id = ? ");
+            args.add(categoryId);
+        }
+        if (paymentMethod != null) {
+            sql.append("and r.payment_method = ?::training_ec.payment_method ");
+            args.add(paymentMethod.name());
+        }
+        if (!columns.isEmpty()) {
+            String grouping = String.join(", ", columns);
+            sql.append("group by ").append(grouping).append(" order by ").append(grouping);
+        }
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new SalesReportRow(
+                byDay ? rs.getObject("sales_date", LocalDate.class) : null,
+                byCategory ? rs.getLong("category_id") : null,
+                byCategory ? rs.getString("category_name") : null,
+                byMethod ? PaymentMethod.valueOf(rs.getString("payment_method")) : null,
+                rs.getLong("items_sold"),
+                rs.getBigDecimal("revenue")
+        ), args.toArray());
+    }
+}
@@ -0,0 +1,29 @@
+package ohhudead.reservationsystem.repository;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+final class SqlArrays {
+
+    private SqlArrays() {
+    }
+
+    static Array bigintArray(Connection connection, long[] values) throws SQLException {
+        return connection.createArrayOf("bigint", Arrays.stream(values).boxed().toArray());
+    }
+
+    static Array intArray(Connection connection, int[] values) throws SQLException {
+        return connection.createArrayOf("integer", Arrays.stream(values).boxed().toArray());
+    }
+
+    static Array textArray(Connection connection, String[] values) throws SQLException {
+        return connection.createArrayOf("text", values);
+    }
+
+    static Array numericArray(Connection connection, BigDecimal[] values) throws SQLException {
+        return connection.createArrayOf("numeric", values);
+    }
+}
@@ -0,0 +1,13 @@
+package ohhudead.reservationsystem.repository;
+
+public record StockAdjustmentRow(
+        long productId,
+        boolean found,
+        Integer newStock,
+        // остаток, который получился бы; null - товара нет
+        Long targetStock
+) {
+    public boolean applied() {
+        return newStock != null;
+    }
+}
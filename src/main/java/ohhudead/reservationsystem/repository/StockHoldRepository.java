@@ -0,0 +1,115 @@
+package ohhudead.reservationsystem.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Repository
+@RequiredArgsConstructor
+public class StockHoldRepository {
+
+    // списание остатка и вставка резерва одним запросом; пусто - остатка не хватило
+    private static final String CREATE_SQL = """
+            with reserved as (
+                update products
+                set in_stock = in_stock - ?,
+                    version  = version + 1
+                where product_id = ? and in_stock >= ?
+                returning product_id
+            )
+            insert into stock_holds (product_id, quantity, expires_at)
+            select product_id, ?, ?
+            from reserved
+            returning hold_id
+            """;
+
+    // DELETE ... RETURNING делает освобождение идемпотентным: если резерв уже
+    // освободил другой инстанс или он превращён в заказ, остаток не вернётся дважды
+    private static final String RELEASE_SQL = """
+            with released as (
+                delete from stock_holds
+                where hold_id = any(?)
+                returning product_id, quantity
+            ),
+            per_product as (
+                select product_id, sum(quantity) as quantity
+                from released
+                group by product_id
+            )
+            update products p
+            set in_stock = p.in_stock + pp.quantity,
+                version  = p.version + 1
+            from per_product pp
+            where p.product_id = pp.product_id
+            """;
+
+    // резервы переходят в заказ: удаляются и отдают зарезервированное количество по товарам.
+    // Истёкший или уже освобождённый резерв не вернётся - его остаток вернул release
+    private static final String CONSUME_SQL = """
+            with consumed as (
+                delete from stock_holds
+                where hold_id = any(?)
+                returning product_id, quantity
+            )
+            select product_id, sum(quantity) as quantity
+            from consumed
+            group by product_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Optional<Long> create(Long productId, int quantity, OffsetDateTime expiresAt) {
+        return jdbcTemplate.query(CREATE_SQL,
+                (rs, rowNum) -> rs.getLong("hold_id"),
+                quantity, productId, quantity, quantity, expiresAt
+        ).stream().findFirst();
+    }
+
+    // возвращает число товаров, которым вернули остаток
+    public int release(long[] holdIds) {
+        return jdbcTemplate.update(RELEASE_SQL,
+                ps -> ps.setArray(1, SqlArrays.bigintArray(ps.getConnection(), holdIds)));
+    }
+
+    public Map<Long, Integer> consume(long[] holdIds) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        jdbcTemplate.query(CONSUME_SQL,
+                ps -> ps.setArray(1, SqlArrays.bigintArray(ps.getConnection(), holdIds)),
+                rs -> {
+                    quantities.put(rs.getLong("product_id"), rs.getInt("quantity"));
+                });
+        return quantities;
+    }
+
+    // зарезервировано больше, чем вошло в заказ, - излишек возвращается в остаток
+    public void returnStock(Long productId, int quantity) {
+        jdbcTemplate.update("update products set in_stock = in_stock + ?, version = version + 1 where product_id = ?",
+                quantity, productId);
+    }
+
+    public List<HoldExpiry> findAll() {
+        return jdbcTemplate.query("select hold_id, expires_at from stock_holds",
+                (rs, rowNum) -> new HoldExpiry(
+                        rs.getLong("hold_id"),
+                        rs.getObject("expires_at", OffsetDateTime.class)));
+    }
+
+    public List<Long> findExpiredBefore(OffsetDateTime before, int limit) {
+        return jdbcTemplate.queryForList("""
+                select hold_id
+                from stock_holds
+                where expires_at < ?
+                order by expires_at
+                limit ?
+                """, Long.class, before, limit);
+    }
+
+    public record HoldExpiry(long holdId, OffsetDateTime expiresAt) {
+    }
+}
@@ -0,0 +1,42 @@
+package ohhudead.reservationsystem.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import ohhudead.reservationsystem.catalog.CatalogReadModel;
+import ohhudead.reservationsystem.config.CatalogSnapshotProperties;
+import ohhudead.reservationsystem.service.CatalogSnapshotService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+@Component
+@RequiredArgsConstructor
+public class CatalogSnapshotScheduler {
+
+    private final CatalogReadModel catalogReadModel;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final CatalogSnapshotProperties properties;
+
+    // Без ShedLock: у каждого инстанса своя read model; первый запуск сразу после старта прогревает её
+    @Scheduled(fixedDelayString = "${app.catalog.snapshot.refresh-delay:PT1S}")
+    public void catchUpReadModel() {
+        catalogReadModel.catchUp();
+    }
+
+    // Без ShedLock: снапшот лежит на локальном диске каждого инстанса
+    @Scheduled(initialDelayString = "${app.catalog.snapshot.write-delay:PT5M}",
+            fixedDelayString = "${app.catalog.snapshot.write-delay:PT5M}")
+    public void writeSnapshot() throws IOException {
+        if (properties.isEnabled()) {
+            catalogSnapshotService.writeSnapshot();
+        }
+    }
+
+    // журнал растёт на строку за каждое изменение товара, поэтому чистится чаще, чем он хранится
+    @Scheduled(fixedDelayString = "PT10M")
+    @SchedulerLock(name = "purgeCatalogChanges", lockAtMostFor = "5m")
+    public void purgeChanges() {
+        catalogSnapshotService.purgeChanges();
+    }
+}
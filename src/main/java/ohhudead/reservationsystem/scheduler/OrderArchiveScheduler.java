@@ -0,0 +1,50 @@
+package ohhudead.reservationsystem.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import ohhudead.reservationsystem.archive.ArchivedOrder;
+import ohhudead.reservationsystem.archive.OrderArchive;
+import ohhudead.reservationsystem.config.ArchiveProperties;
+import ohhudead.reservationsystem.service.OrderArchiveService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderArchiveScheduler {
+
+    private final OrderArchiveService orderArchiveService;
+    private final OrderArchive orderArchive;
+    private final ArchiveProperties properties;
+
+    // Один сегмент за запуск; каждая пачка удаления - отдельная транзакция (deleteArchived)
+    @Scheduled(fixedDelayString = "${app.archive.delay:PT1H}")
+    @SchedulerLock(name = "archiveClosedOrders", lockAtMostFor = "2h")
+    public void archiveClosedOrders() throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        List<ArchivedOrder> orders = orderArchiveService.writeSegment();
+
+        int deleted = 0;
+        for (int from = 0; from < orders.size(); from += properties.getDeleteBatchSize()) {
+            int to = Math.min(orders.size(), from + properties.getDeleteBatchSize());
+            deleted += orderArchiveService.deleteArchived(orders.subList(from, to));
+        }
+
+        if (!orders.isEmpty()) {
+            log.info("Orders archived: written={}, deleted={}", orders.size(), deleted);
+        }
+    }
+
+    // Без ShedLock: каждый инстанс обновляет свой список сегментов
+    @Scheduled(fixedDelayString = "${app.archive.rescan-delay:PT1M}")
+    public void rescanArchive() throws IOException {
+        orderArchive.rescan();
+    }
+}
@@ -0,0 +1,40 @@
+package ohhudead.reservationsystem.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import ohhudead.reservationsystem.config.OrderProperties;
+import ohhudead.reservationsystem.repository.OrderRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderTotalsBackfillScheduler {
+
+    private final OrderRepository orderRepository;
+    private final OrderProperties orderProperties;
+
+    // Каждая пачка - отдельная транзакция (backfillTotals), поэтому прерванный запуск
+    // просто продолжится со следующего раза. Когда всё заполнено, запуск стоит
+    // один пустой lookup по частичному индексу idx_orders_totals_pending
+    @Scheduled(fixedDelayString = "${app.orders.totals-backfill.delay:PT5M}")
+    @SchedulerLock(name = "backfillOrderTotals", lockAtMostFor = "30m")
+    public void backfillOrderTotals() {
+        OrderProperties.TotalsBackfill settings = orderProperties.getTotalsBackfill();
+
+        long updated = 0;
+        int batches = 0;
+        int lastBatch;
+        do {
+            lastBatch = orderRepository.backfillTotals(settings.getBatchSize());
+            updated += lastBatch;
+            batches++;
+        } while (lastBatch == settings.getBatchSize() && batches < settings.getMaxBatchesPerRun());
+
+        if (updated > 0) {
+            log.info("Order totals backfill: updated={}, batches={}", updated, batches);
+        }
+    }
+}
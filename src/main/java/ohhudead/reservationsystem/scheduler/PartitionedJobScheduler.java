@@ -0,0 +1,147 @@
+package ohhudead.reservationsystem.scheduler;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import ohhudead.reservationsystem.config.JobProperties;
+import ohhudead.reservationsystem.job.JobPartition;
+import ohhudead.reservationsystem.job.PartitionedJob;
+import ohhudead.reservationsystem.service.PartitionedJobService;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Исполнитель PartitionedJob без ShedLock: каждый инстанс планирует запуски (строка job_runs
+ * блокируется, поэтому запуск создаётся один раз) и забирает свободные партиции в свои
+ * app.jobs.workers потоков. Время запуска делится примерно на число инстансов.
+ * Партиции упавшего инстанса забираются после истечения аренды (app.jobs.lease)
+ * и продолжаются с checkpoint'а; при штатной остановке партиции отдаются сразу.
+ */
+@Component
+@Slf4j
+public class PartitionedJobScheduler {
+
+    private final List<PartitionedJob> jobs;
+    private final PartitionedJobService partitionedJobService;
+    private final JobProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final String owner;
+    private final ExecutorService workers;
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private volatile boolean stopping;
+
+    public PartitionedJobScheduler(List<PartitionedJob> jobs,
+                                   PartitionedJobService partitionedJobService,
+                                   JobProperties properties,
+                                   MeterRegistry meterRegistry) {
+        this.jobs = jobs;
+        this.partitionedJobService = partitionedJobService;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.owner = properties.getInstanceId() != null
+                ? properties.getInstanceId()
+                : ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(properties.getWorkers(), runnable -> {
+            Thread thread = new Thread(runnable, "job-worker-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.jobs.poll-delay:PT10S}")
+    public void pollJobs() {
+        if (stopping || jobs.isEmpty()) {
+            return;
+        }
+        for (PartitionedJob job : jobs) {
+            try {
+                partitionedJobService.planRun(job);
+            } catch (DataAccessException e) {
+                log.warn("Job run not planned, job={}: {}", job.name(), e.getMessage());
+            }
+        }
+        while (activeWorkers.get() < properties.getWorkers()) {
+            activeWorkers.incrementAndGet();
+            workers.execute(this::drain);
+        }
+    }
+
+    // забирает партиции всех задач по кругу, пока есть свободные
+    private void drain() {
+        try {
+            boolean claimed = true;
+            while (claimed && !stopping) {
+                claimed = false;
+                for (PartitionedJob job : jobs) {
+                    Optional<JobPartition> partition = partitionedJobService.claim(job, owner, properties.getLease());
+                    if (partition.isPresent()) {
+                        claimed = true;
+                        process(job, partition.get());
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Job worker stopped: {}", e.getMessage());
+        } finally {
+            activeWorkers.decrementAndGet();
+        }
+    }
+
+    private void process(PartitionedJob job, JobPartition partition) {
+        if (partition.previousOwner() != null && !partition.previousOwner().equals(owner)) {
+            meterRegistry.counter("jobs.partitions.stolen", "job", job.name()).increment();
+            log.info("Job partition taken over, job={}, runId={}, partition={}, previousOwner={}, checkpoint={}",
+                    job.name(), partition.runId(), partition.partitionNo(), partition.previousOwner(),
+                    partition.checkpoint());
+        }
+
+        long checkpoint = partition.checkpoint();
+        try {
+            while (checkpoint < partition.rangeTo()) {
+                if (stopping) {
+                    partitionedJobService.release(partition, owner);
+                    return;
+                }
+                OptionalLong next = partitionedJobService.processChunk(
+                        job, partition, checkpoint, owner, properties.getLease());
+                if (next.isEmpty()) {
+                    meterRegistry.counter("jobs.partitions.lost", "job", job.name()).increment();
+                    log.warn("Job partition lease lost, job={}, runId={}, partition={}",
+                            job.name(), partition.runId(), partition.partitionNo());
+                    return;
+                }
+                checkpoint = next.getAsLong();
+                meterRegistry.counter("jobs.chunks", "job", job.name()).increment();
+            }
+            meterRegistry.counter("jobs.partitions.completed", "job", job.name()).increment();
+        } catch (RuntimeException e) {
+            // пачка откатилась вместе с checkpoint'ом; партицию отдаём, её повторит любой инстанс
+            meterRegistry.counter("jobs.partitions.failed", "job", job.name()).increment();
+            log.error("Job partition failed, job={}, runId={}, partition={}, checkpoint={}",
+                    job.name(), partition.runId(), partition.partitionNo(), checkpoint, e);
+            partitionedJobService.release(partition, owner);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        stopping = true;
+        workers.shutdown();
+        if (!workers.awaitTermination(properties.getLease().toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("Job workers did not stop in time, partitions will be taken over after lease expiry");
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package ohhudead.reservationsystem.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import ohhudead.reservationsystem.service.PaymentIngestionService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Без ShedLock: у каждого инстанса своя очередь и свой spill;
+// повторное применение подтверждения безопасно (ALREADY_PAID)
+@Component
+@RequiredArgsConstructor
+public class PaymentIngestionScheduler {
+
+    private final PaymentIngestionService paymentIngestionService;
+
+    @Scheduled(fixedDelayString = "${app.payments.ingestion.flush-delay:PT0.2S}")
+    public void flushPayments() {
+        paymentIngestionService.flush();
+    }
+}
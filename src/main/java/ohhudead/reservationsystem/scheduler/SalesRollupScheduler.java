@@ -0,0 +1,20 @@
+package ohhudead.reservationsystem.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import ohhudead.reservationsystem.service.ReportService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class SalesRollupScheduler {
+
+    private final ReportService reportService;
+
+    @Scheduled(fixedDelayString = "${app.reports.rollup-delay:PT1M}")
+    @SchedulerLock(name = "refreshSalesRollup", lockAtMostFor = "15m")
+    public void refreshSalesRollup() {
+        reportService.refreshSalesRollup();
+    }
+}
@@ -0,0 +1,25 @@
+package ohhudead.reservationsystem.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import ohhudead.reservationsystem.service.StockHoldService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Без ShedLock: каждый инстанс освобождает резервы из своего колеса,
+// повторное освобождение одного резерва безопасно (DELETE ... RETURNING)
+@Component
+@RequiredArgsConstructor
+public class StockHoldExpiryScheduler {
+
+    private final StockHoldService stockHoldService;
+
+    @Scheduled(fixedDelayString = "${app.stock-holds.tick:PT1S}")
+    public void releaseExpiredHolds() {
+        stockHoldService.releaseExpired();
+    }
+
+    @Scheduled(fixedDelayString = "${app.stock-holds.sweep-delay:PT1M}")
+    public void sweepOrphanedHolds() {
+        stockHoldService.sweepOrphaned();
+    }
+}
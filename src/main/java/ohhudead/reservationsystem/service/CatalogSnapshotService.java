@@ -0,0 +1,47 @@
+package ohhudead.reservationsystem.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ohhudead.reservationsystem.catalog.CatalogContents;
+import ohhudead.reservationsystem.catalog.CatalogSnapshotWriter;
+import ohhudead.reservationsystem.config.CatalogSnapshotProperties;
+import ohhudead.reservationsystem.repository.CatalogSnapshotRepository;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogSnapshotService {
+
+    private final CatalogSnapshotRepository catalogSnapshotRepository;
+    private final CatalogSnapshotProperties properties;
+
+    // Снапшот пишется из БД, а не из read model: так ошибка в overlay не переживёт рестарт
+    public void writeSnapshot() throws IOException {
+        long start = System.nanoTime();
+        CatalogContents catalog = catalogSnapshotRepository.findCatalog(properties.getDeltaOverlap());
+
+        Path path = Path.of(properties.getPath());
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        CatalogSnapshotWriter.write(path, catalog);
+        log.info("Catalog snapshot written, asOf={}, changePosition={}, products={}, categories={}, bytes={}, tookMs={}",
+                catalog.asOf(), catalog.changePosition(), catalog.products().size(), catalog.categories().size(), Files.size(path),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public int purgeChanges() {
+        int purged = catalogSnapshotRepository.purgeChanges(
+                OffsetDateTime.now().minus(properties.getChangeRetention()));
+        if (purged > 0) {
+            log.info("Catalog changes purged, count={}", purged);
+        }
+        return purged;
+    }
+}
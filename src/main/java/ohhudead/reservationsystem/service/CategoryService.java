@@ -2,20 +2,30 @@ package ohhudead.reservationsystem.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import ohhudead.reservationsystem.catalog.CatalogReadModel;
 import ohhudead.reservationsystem.entity.Category;
+import ohhudead.reservationsystem.dto.CategoryField;
 import ohhudead.reservationsystem.dto.CategoryRequest;
 import ohhudead.reservationsystem.dto.CategoryResponse;
+import ohhudead.reservationsystem.event.CatalogChangedEvent;
 import ohhudead.reservationsystem.mapper.CategoryMapper;
 import ohhudead.reservationsystem.exception.CategoryAlreadyExistsException;
 import ohhudead.reservationsystem.exception.CategoryDeleteException;
 import ohhudead.reservationsystem.exception.ResourceNotFoundException;
 import ohhudead.reservationsystem.repository.CategoryRepository;
 import ohhudead.reservationsystem.repository.ProductRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 // TODO [PHASE 4]: Добавить транзакционность и улучшить обработку ошибок
 // ПРОБЛЕМЫ текущей реализации:
@@ -55,10 +65,15 @@ public class CategoryService {
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
     private final CategoryMapper categoryMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogReadModel catalogReadModel;
 
 
     public List<CategoryResponse> getAll() {
         log.info("Getting all categories");
+        if (catalogReadModel.isServing()) {
+            return catalogReadModel.findCategories();
+        }
         return categoryRepository.findAll()
                 .stream()
                 .map(categoryMapper::toResponse)
@@ -68,35 +83,86 @@ public class CategoryService {
 
     public CategoryResponse getById(Long id) {
         log.info("Get category by id={}", id);
+        if (catalogReadModel.isServing()) {
+            Optional<CategoryResponse> cached = catalogReadModel.findCategory(id);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
         Category category = findById(id);
         return categoryMapper.toResponse(category);
     }
 
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllFields(String fields) {
+        Set<CategoryField> selected = CategoryField.parse(fields);
+        log.info("Getting all categories, fields={}", selected);
+        return categoryRepository.findFields(selected);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getFieldsById(Long id, String fields) {
+        Set<CategoryField> selected = CategoryField.parse(fields);
+        log.info("Get category by id={}, fields={}", id, selected);
+        return categoryRepository.findFieldsById(selected, id)
+                .orElseThrow(() -> new ResourceNotFoundException("Category", id));
+    }
+
     @Transactional
     public CategoryResponse create(CategoryRequest request) {
         log.info("Creating category with name={}", request.getName());
 
-        if (categoryRepository.existsByNameIgnoreCase(request.getName())){
-            throw new CategoryAlreadyExistsException(request.getName());
-        }
+        // без предварительного existsBy: конфликт по ux_categories_name_lower решает сама вставка
         Category category = categoryMapper.toEntity(request);
-        category = categoryRepository.save(category);
-        return categoryMapper.toResponse(category);
-
+        CategoryResponse created = categoryRepository.insertIfAbsent(category.getName(), category.getDescription())
+                .orElseThrow(() -> new CategoryAlreadyExistsException(request.getName()));
+        eventPublisher.publishEvent(CatalogChangedEvent.categories(List.of(created.getId())));
+        return created;
     }
 
     @Transactional
     public CategoryResponse update(Long id, CategoryRequest request) {
-        log.info("Update category id{}, request={}", id, request);
+        log.info("Update category id={}", id);
 
         Category existing = findById(id);
 
         categoryMapper.updateFromRequest(request, existing);
 
-        existing = categoryRepository.save(existing);
+        try {
+            existing = categoryRepository.saveAndFlush(existing);
+        } catch (DataIntegrityViolationException e) {
+            throw new CategoryAlreadyExistsException(existing.getName());
+        }
+        eventPublisher.publishEvent(CatalogChangedEvent.categories(List.of(id)));
         return categoryMapper.toResponse(existing);
     }
 
+    @Transactional
+    public CategoryResponse upsert(CategoryRequest request) {
+        log.info("Upsert category with name={}", request.getName());
+        return upsertAll(List.of(request)).get(0);
+    }
+
+    @Transactional
+    public List<CategoryResponse> upsertAll(List<CategoryRequest> requests) {
+        // ON CONFLICT DO UPDATE не может дважды задеть одну строку в одном запросе,
+        // поэтому одинаковые (без учёта регистра) имена схлопываем: побеждает последнее
+        Map<String, Category> byName = new LinkedHashMap<>();
+        for (CategoryRequest request : requests) {
+            Category category = categoryMapper.toEntity(request);
+            byName.put(category.getName().toLowerCase(Locale.ROOT), category);
+        }
+        log.info("Upsert categories, size={}", byName.size());
+
+        List<CategoryResponse> upserted = categoryRepository.upsertAll(
+                byName.values().stream().map(Category::getName).toArray(String[]::new),
+                byName.values().stream().map(Category::getDescription).toArray(String[]::new));
+
+        eventPublisher.publishEvent(CatalogChangedEvent.categories(
+                upserted.stream().map(CategoryResponse::getId).toList()));
+        return upserted;
+    }
+
     @Transactional
     public void delete(Long id) {
         log.info("Delete category id={}", id);
@@ -109,6 +175,7 @@ public class CategoryService {
         }
 
         categoryRepository.delete(category);
+        eventPublisher.publishEvent(CatalogChangedEvent.categories(List.of(id)));
     }
 
     private Category findById(Long id) {
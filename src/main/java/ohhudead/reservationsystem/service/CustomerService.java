@@ -0,0 +1,65 @@
+package ohhudead.reservationsystem.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ohhudead.reservationsystem.archive.OrderArchive;
+import ohhudead.reservationsystem.dto.OrderHistoryResponse;
+import ohhudead.reservationsystem.dto.OrderSummaryResponse;
+import ohhudead.reservationsystem.exception.ResourceNotFoundException;
+import ohhudead.reservationsystem.repository.CustomerRepository;
+import ohhudead.reservationsystem.repository.OrderHistoryCursor;
+import ohhudead.reservationsystem.repository.OrderRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+
+public class CustomerService {
+
+    private final CustomerRepository customerRepository;
+    private final OrderRepository orderRepository;
+    private final OrderArchive orderArchive;
+
+    public OrderHistoryResponse getOrderHistory(Long customerId, String cursor, int size) {
+        log.info("Get order history, customerId={}, size={}", customerId, size);
+
+        if (!customerRepository.existsById(customerId)) {
+            throw new ResourceNotFoundException("Customer", customerId);
+        }
+
+        OrderHistoryCursor after = cursor == null ? null : OrderHistoryCursor.decode(cursor);
+
+        // запрашиваем на одну строку больше, чтобы понять, есть ли следующая страница;
+        // архивные заказы вливаются в тот же порядок, при дубликате побеждает строка из БД
+        List<OrderSummaryResponse> rows = new ArrayList<>(orderRepository.findOrderSummaries(customerId, after, size + 1));
+        Set<Long> live = new HashSet<>();
+        rows.forEach(row -> live.add(row.id()));
+        for (OrderSummaryResponse archived : orderArchive.findOrderSummaries(customerId, after, size + 1)) {
+            if (!live.contains(archived.id())) {
+                rows.add(archived);
+            }
+        }
+        rows.sort(OrderArchive.HISTORY_ORDER);
+        boolean hasNext = rows.size() > size;
+        List<OrderSummaryResponse> page = hasNext ? rows.subList(0, size) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            OrderSummaryResponse last = page.get(page.size() - 1);
+            nextCursor = new OrderHistoryCursor(last.orderDate(), last.id()).encode();
+        }
+
+        return OrderHistoryResponse.builder()
+                .orders(List.copyOf(page))
+                .nextCursor(nextCursor)
+                .build();
+    }
+}
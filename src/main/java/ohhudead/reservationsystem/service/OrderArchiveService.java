@@ -0,0 +1,75 @@
+package ohhudead.reservationsystem.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ohhudead.reservationsystem.archive.ArchivedOrder;
+import ohhudead.reservationsystem.archive.OrderArchive;
+import ohhudead.reservationsystem.config.ArchiveProperties;
+import ohhudead.reservationsystem.repository.OrderArchiveRepository;
+import ohhudead.reservationsystem.repository.SalesRollupRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Перенос закрытых заказов старше app.archive.retention из БД в файловый архив.
+ * Сначала сегмент пишется и fsync'ится ({@link #writeSegment}), затем строки удаляются
+ * пачками ({@link #deleteArchived}) - каждая пачка отдельной транзакцией вместе с переносом
+ * вклада в выручку в sales_archived_rollup и пересчётом затронутых дней sales_daily_rollup.
+ * Сбой между записью сегмента и удалением оставляет заказ и в БД, и в архиве:
+ * история такие дубликаты схлопывает, следующий запуск выгрузит заказ ещё раз.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderArchiveService {
+
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final SalesRollupRepository salesRollupRepository;
+    private final OrderArchive orderArchive;
+    private final ArchiveProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    // Выгружает до app.archive.segment-rows самых старых кандидатов новым сегментом
+    @Transactional(readOnly = true)
+    public List<ArchivedOrder> writeSegment() throws IOException {
+        orderArchive.rescan();
+
+        OffsetDateTime cutoff = salesRollupRepository.currentDbTime().minus(properties.getRetention());
+        List<ArchivedOrder> orders = orderArchiveRepository.findArchivable(cutoff, properties.getSegmentRows());
+        if (!orders.isEmpty()) {
+            Path segment = orderArchive.append(orders);
+            log.info("Order archive segment written, segment={}, orders={}", segment.getFileName(), orders.size());
+        }
+        return orders;
+    }
+
+    // Удаляет из БД уже записанные в архив заказы, кроме изменённых после выгрузки
+    @Transactional
+    public int deleteArchived(List<ArchivedOrder> batch) {
+        salesRollupRepository.lockRollup();
+
+        long[] ids = batch.stream().mapToLong(ArchivedOrder::orderId).toArray();
+        long[] versions = batch.stream().mapToLong(ArchivedOrder::version).toArray();
+        long[] unchanged = orderArchiveRepository.lockUnchanged(ids, versions).stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+        if (unchanged.length == 0) {
+            return 0;
+        }
+
+        List<LocalDate> days = orderArchiveRepository.addToArchivedRollup(unchanged);
+        int deleted = orderArchiveRepository.delete(unchanged);
+        if (!days.isEmpty()) {
+            salesRollupRepository.rebuildDays(days);
+        }
+        meterRegistry.counter("orders.archive.deleted").increment(deleted);
+        return deleted;
+    }
+}
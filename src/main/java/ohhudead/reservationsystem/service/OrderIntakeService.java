@@ -0,0 +1,207 @@
+package ohhudead.reservationsystem.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import ohhudead.reservationsystem.config.OrderProperties;
+import ohhudead.reservationsystem.dto.CreateOrderRequest;
+import ohhudead.reservationsystem.dto.OrderResponse;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Приём заказов с group commit (app.orders.group-commit.enabled): запрос кладёт заказ
+ * в очередь и ждёт, поток order-intake собирает заказы за max-wait (до max-batch-size)
+ * и применяет их одной транзакцией OrderService.createBatch. Один коммит и одна блокировка
+ * горячих товаров на пачку вместо каждого заказа; каждый запрос получает свой заказ
+ * или свою ошибку только после коммита пачки.
+ * <p>
+ * Если пачка упала целиком (дедлок, обрыв соединения), её заказы создаются обычным
+ * OrderService.create в потоках своих запросов. Переполненная очередь и заказ, который поток
+ * пачки не забрал за result-timeout, - тоже обычный create.
+ */
+@Service
+@Slf4j
+public class OrderIntakeService {
+
+    private static final long IDLE_POLL_MILLIS = 1000;
+
+    // result: null - пачка не применилась, заказ создаётся отдельно.
+    // claimed: заказ забрал либо поток пачки, либо сам запрос после таймаута - ровно один из них
+    private record PendingOrder(CreateOrderRequest request,
+                                CompletableFuture<OrderService.BatchOutcome> result,
+                                AtomicBoolean claimed) {
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+
+    private final OrderService orderService;
+    private final OrderProperties.GroupCommit properties;
+    private final MeterRegistry meterRegistry;
+    private final BlockingQueue<PendingOrder> queue;
+
+    private volatile boolean stopping;
+    private Thread flusher;
+
+    public OrderIntakeService(OrderService orderService, OrderProperties orderProperties, MeterRegistry meterRegistry) {
+        this.orderService = orderService;
+        this.properties = orderProperties.getGroupCommit();
+        this.meterRegistry = meterRegistry;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Gauge.builder("orders.group-commit.queue.size", queue, BlockingQueue::size)
+                .description("Orders waiting for the next group commit")
+                .register(meterRegistry);
+        flusher = new Thread(this::flushLoop, "order-intake");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // веб-сервер к этому моменту уже не принимает запросы: дописываем то, что в очереди
+    @PreDestroy
+    void stop() throws InterruptedException {
+        stopping = true;
+        if (flusher != null) {
+            flusher.join(IDLE_POLL_MILLIS * 5);
+        }
+    }
+
+    public OrderResponse create(CreateOrderRequest request) {
+        // заказ из резервов идёт отдельной транзакцией: createBatch резервы не разбирает
+        if (!properties.isEnabled() || request.hasHolds()) {
+            return orderService.create(request);
+        }
+        PendingOrder pending = new PendingOrder(request, new CompletableFuture<>(), new AtomicBoolean());
+        if (stopping || !queue.offer(pending)) {
+            meterRegistry.counter("orders.group-commit.bypassed", "reason", "queue-full").increment();
+            return orderService.create(request);
+        }
+
+        OrderService.BatchOutcome outcome = await(pending);
+        if (outcome == null) {
+            meterRegistry.counter("orders.group-commit.bypassed", "reason", "batch-failed").increment();
+            return orderService.create(request);
+        }
+        if (outcome.error() != null) {
+            throw outcome.error();
+        }
+        return outcome.order();
+    }
+
+    // Ждём не дольше result-timeout: если поток пачки заказ ещё не забрал (остановлен, упал,
+    // не успевает), запрос забирает его сам и создаёт отдельной транзакцией. Если забрал -
+    // пачка с этим заказом уже применяется и результат придёт: apply завершает все future
+    private OrderService.BatchOutcome await(PendingOrder pending) {
+        try {
+            return pending.result().get(properties.getResultTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (pending.claim()) {
+                meterRegistry.counter("orders.group-commit.bypassed", "reason", "timeout").increment();
+                return null;
+            }
+            return pending.result().join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (pending.claim()) {
+                return null;
+            }
+            return pending.result().join();
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private void flushLoop() {
+        while (!stopping || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    apply(collectBatch(first));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Throwable e) {
+                // поток не должен умереть: без него все запросы уходили бы в таймаут
+                log.error("Order intake loop failed", e);
+            }
+        }
+        // то, что осталось в очереди, запросы создадут сами
+        PendingOrder left;
+        while ((left = queue.poll()) != null) {
+            if (left.claim()) {
+                left.result().complete(null);
+            }
+        }
+    }
+
+    // в пачку попадают только заказы, которые удалось забрать у запроса
+    private List<PendingOrder> collectBatch(PendingOrder first) throws InterruptedException {
+        List<PendingOrder> batch = new ArrayList<>(properties.getMaxBatchSize());
+        List<PendingOrder> drained = new ArrayList<>(properties.getMaxBatchSize());
+        claimInto(batch, first);
+        long deadline = System.nanoTime() + properties.getMaxWait().toNanos();
+        while (batch.size() < properties.getMaxBatchSize()) {
+            // всё, что уже в очереди, забираем без ожидания
+            queue.drainTo(drained, properties.getMaxBatchSize() - batch.size());
+            drained.forEach(pending -> claimInto(batch, pending));
+            drained.clear();
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= properties.getMaxBatchSize() || remaining <= 0) {
+                break;
+            }
+            PendingOrder next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            claimInto(batch, next);
+        }
+        return batch;
+    }
+
+    private static void claimInto(List<PendingOrder> batch, PendingOrder pending) {
+        if (pending.claim()) {
+            batch.add(pending);
+        }
+    }
+
+    // ответы отдаются только после коммита: createBatch возвращается из транзакции.
+    // Любой исход, включая Error, завершает все future пачки
+    private void apply(List<PendingOrder> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            List<OrderService.BatchOutcome> outcomes = orderService.createBatch(
+                    batch.stream().map(PendingOrder::request).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(outcomes.get(i));
+            }
+        } catch (Throwable e) {
+            log.warn("Order batch failed, creating {} orders one by one: {}", batch.size(), e.toString());
+            batch.forEach(pending -> pending.result().complete(null));
+            if (e instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package ohhudead.reservationsystem.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ohhudead.reservationsystem.config.OrderProperties;
+import ohhudead.reservationsystem.dto.CreateOrderItemRequest;
+import ohhudead.reservationsystem.dto.CreateOrderRequest;
+import ohhudead.reservationsystem.dto.OrderItemResponse;
+import ohhudead.reservationsystem.dto.OrderResponse;
+import ohhudead.reservationsystem.entity.Customer;
+import ohhudead.reservationsystem.entity.Order;
+import ohhudead.reservationsystem.entity.OrderItem;
+import ohhudead.reservationsystem.entity.OrderStatus;
+import ohhudead.reservationsystem.entity.Product;
+import ohhudead.reservationsystem.exception.ApplicationException;
+import ohhudead.reservationsystem.exception.ConcurrentModificationConflictException;
+import ohhudead.reservationsystem.exception.InsufficientStockException;
+import ohhudead.reservationsystem.exception.InvalidOrderStatusTransitionException;
+import ohhudead.reservationsystem.exception.ResourceNotFoundException;
+import ohhudead.reservationsystem.mapper.OrderMapper;
+import ohhudead.reservationsystem.repository.CustomerRepository;
+import ohhudead.reservationsystem.repository.OrderBatchRepository;
+import ohhudead.reservationsystem.repository.OrderRepository;
+import ohhudead.reservationsystem.repository.OrderStatusVersion;
+import ohhudead.reservationsystem.repository.ProductRepository;
+import ohhudead.reservationsystem.repository.StockHoldRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+
+public class OrderService {
+
+    private final OrderRepository orderRepository;
+    private final CustomerRepository customerRepository;
+    private final ProductRepository productRepository;
+    private final OrderBatchRepository orderBatchRepository;
+    private final StockHoldRepository stockHoldRepository;
+    private final OrderMapper orderMapper;
+    private final OrderProperties orderProperties;
+    private final MeterRegistry meterRegistry;
+
+    // результат заказа из пачки: либо order, либо error - та же ошибка, что дал бы create
+    public record BatchOutcome(OrderResponse order, ApplicationException error) {
+    }
+
+    public OrderResponse create(CreateOrderRequest request) {
+        Customer customer = customerRepository.findById(request.customerId())
+                .orElseThrow(() -> new ResourceNotFoundException("Customer", request.customerId()));
+
+        // одинаковые товары схлопываем; TreeMap - чтобы списывать остатки всегда в порядке id
+        // и не ловить дедлоки между параллельными заказами
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (CreateOrderItemRequest item : request.items()) {
+            quantities.merge(item.productId(), item.quantity(), Integer::sum);
+        }
+
+        Map<Long, Product> products = productRepository.findAllById(quantities.keySet())
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        // резервы переходят в заказ: их количество уже списано с остатка
+        Map<Long, Integer> held = request.hasHolds()
+                ? stockHoldRepository.consume(request.holdIds().stream().mapToLong(Long::longValue).toArray())
+                : Map.of();
+
+        Order order = Order.builder()
+                .customer(customer)
+                .orderDate(OffsetDateTime.now())
+                .orderStatus(OrderStatus.pending)
+                .shippingCity(request.shippingCity())
+                .shippingCountry(request.shippingCountry())
+                .build();
+
+        // товары заказа и резервов - одним проходом в порядке id, как и без резервов
+        Set<Long> productIds = new TreeSet<>(quantities.keySet());
+        productIds.addAll(held.keySet());
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (Long productId : productIds) {
+            if (!quantities.containsKey(productId)) {
+                // резерв на товар, которого нет в заказе, - остаток возвращается
+                stockHoldRepository.returnStock(productId, held.get(productId));
+                continue;
+            }
+            int quantity = quantities.get(productId);
+
+            Product product = products.get(productId);
+            if (product == null) {
+                throw new ResourceNotFoundException("Product", productId);
+            }
+            int toDecrement = quantity - held.getOrDefault(productId, 0);
+            if (toDecrement > 0 && productRepository.decrementStock(productId, toDecrement) == 0) {
+                throw new InsufficientStockException(productId, quantity);
+            }
+            if (toDecrement < 0) {
+                stockHoldRepository.returnStock(productId, -toDecrement);
+            }
+
+            OrderItem item = OrderItem.builder()
+                    .product(product)
+                    .quantity(quantity)
+                    .unitPrice(product.getPrice())
+                    .build();
+            order.addItem(item);
+            total = total.add(product.getPrice().multiply(BigDecimal.valueOf(quantity)));
+        }
+
+        // итоги считаем один раз здесь, чтобы списки и отчёты не агрегировали order_items
+        order.setTotalAmount(total);
+        order.setItemsCount(order.getItems().size());
+
+        order = orderRepository.save(order);
+        log.info("Order created, orderId={}, customerId={}, totalAmount={}",
+                order.getOrderId(), customer.getId(), total);
+
+        return orderMapper.toResponse(order);
+    }
+
+    /**
+     * Group commit (OrderIntakeService): пачка заказов одной транзакцией. Товары пачки блокируются
+     * один раз в порядке id, остатки проверяются по заказам в порядке поступления, затем одно
+     * суммарное списание и многострочные вставки заказов и позиций. Отклонённый заказ
+     * (нет покупателя или товара, не хватает остатка) не влияет на остальные.
+     */
+    public List<BatchOutcome> createBatch(List<CreateOrderRequest> requests) {
+        Map<Long, Integer> requested = new TreeMap<>();
+        List<Map<Long, Integer>> quantities = new ArrayList<>(requests.size());
+        for (CreateOrderRequest request : requests) {
+            Map<Long, Integer> orderQuantities = new TreeMap<>();
+            for (CreateOrderItemRequest item : request.items()) {
+                orderQuantities.merge(item.productId(), item.quantity(), Integer::sum);
+            }
+            orderQuantities.forEach((productId, quantity) -> requested.merge(productId, quantity, Integer::sum));
+            quantities.add(orderQuantities);
+        }
+
+        Set<Long> customers = orderBatchRepository.findExistingCustomerIds(
+                requests.stream().mapToLong(CreateOrderRequest::customerId).distinct().toArray());
+        Map<Long, OrderBatchRepository.LockedProduct> products = orderBatchRepository.lockProducts(
+                requested.keySet().stream().mapToLong(Long::longValue).toArray());
+        Map<Long, Integer> remaining = new TreeMap<>();
+        products.values().forEach(product -> remaining.put(product.id(), product.inStock()));
+
+        // та же проверка, что в create: покупатель, затем товары в порядке id
+        BatchOutcome[] outcomes = new BatchOutcome[requests.size()];
+        List<Integer> accepted = new ArrayList<>(requests.size());
+        Map<Long, Integer> decrements = new TreeMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            ApplicationException error = customers.contains(requests.get(i).customerId())
+                    ? null
+                    : new ResourceNotFoundException("Customer", requests.get(i).customerId());
+            for (Map.Entry<Long, Integer> entry : quantities.get(i).entrySet()) {
+                if (error != null) {
+                    break;
+                }
+                if (!products.containsKey(entry.getKey())) {
+                    error = new ResourceNotFoundException("Product", entry.getKey());
+                } else if (remaining.get(entry.getKey()) < entry.getValue()) {
+                    error = new InsufficientStockException(entry.getKey(), entry.getValue());
+                }
+            }
+            if (error != null) {
+                outcomes[i] = new BatchOutcome(null, error);
+                continue;
+            }
+            quantities.get(i).forEach((productId, quantity) -> {
+                remaining.merge(productId, -quantity, Integer::sum);
+                decrements.merge(productId, quantity, Integer::sum);
+            });
+            accepted.add(i);
+        }
+
+        if (!accepted.isEmpty()) {
+            insertBatch(requests, quantities, products, accepted, decrements, outcomes);
+        }
+        meterRegistry.summary("orders.group-commit.batch.size").record(requests.size());
+        log.info("Order batch applied, size={}, created={}, rejected={}",
+                requests.size(), accepted.size(), requests.size() - accepted.size());
+        return Arrays.asList(outcomes);
+    }
+
+    private void insertBatch(List<CreateOrderRequest> requests,
+                             List<Map<Long, Integer>> quantities,
+                             Map<Long, OrderBatchRepository.LockedProduct> products,
+                             List<Integer> accepted,
+                             Map<Long, Integer> decrements,
+                             BatchOutcome[] outcomes) {
+        orderBatchRepository.decrementStock(
+                decrements.keySet().stream().mapToLong(Long::longValue).toArray(),
+                decrements.values().stream().mapToInt(Integer::intValue).toArray());
+
+        long[] orderIds = orderBatchRepository.nextOrderIds(accepted.size());
+        long[] itemIds = orderBatchRepository.nextOrderItemIds(
+                accepted.stream().mapToInt(i -> quantities.get(i).size()).sum());
+        OffsetDateTime orderDate = OffsetDateTime.now();
+        List<OrderBatchRepository.NewOrder> orders = new ArrayList<>(accepted.size());
+        List<OrderBatchRepository.NewOrderItem> items = new ArrayList<>(itemIds.length);
+
+        int itemIndex = 0;
+        for (int n = 0; n < accepted.size(); n++) {
+            int i = accepted.get(n);
+            CreateOrderRequest request = requests.get(i);
+            List<OrderItemResponse> itemResponses = new ArrayList<>(quantities.get(i).size());
+            BigDecimal total = BigDecimal.ZERO;
+            for (Map.Entry<Long, Integer> entry : quantities.get(i).entrySet()) {
+                OrderBatchRepository.LockedProduct product = products.get(entry.getKey());
+                BigDecimal subtotal = product.price().multiply(BigDecimal.valueOf(entry.getValue()));
+                long itemId = itemIds[itemIndex++];
+                items.add(new OrderBatchRepository.NewOrderItem(
+                        itemId, orderIds[n], product.id(), entry.getValue(), product.price()));
+                itemResponses.add(OrderItemResponse.builder()
+                        .id(itemId)
+                        .productId(product.id())
+                        .productName(product.name())
+                        .quantity(entry.getValue())
+                        .unitPrice(product.price())
+                        .subtotal(subtotal)
+                        .build());
+                total = total.add(subtotal);
+            }
+            orders.add(new OrderBatchRepository.NewOrder(orderIds[n], request.customerId(), orderDate,
+                    request.shippingCity(), request.shippingCountry(), total, itemResponses.size()));
+            outcomes[i] = new BatchOutcome(OrderResponse.builder()
+                    .id(orderIds[n])
+                    .customerId(request.customerId())
+                    .orderDate(orderDate)
+                    .status(OrderStatus.pending)
+                    .totalAmount(total)
+                    .itemsCount(itemResponses.size())
+                    .shippingCity(request.shippingCity())
+                    .shippingCountry(request.shippingCountry())
+                    .items(itemResponses)
+                    .build(), null);
+        }
+
+        orderBatchRepository.insertOrders(orders);
+        orderBatchRepository.insertOrderItems(items);
+    }
+
+    public OrderResponse changeStatus(Long orderId, OrderStatus target) {
+        log.info("Change order status, orderId={}, status={}", orderId, target);
+        transition(orderId, target);
+
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order", orderId));
+        return orderMapper.toResponse(order);
+    }
+
+    public void cancel(Long orderId) {
+        log.info("Cancel order id={}", orderId);
+        transition(orderId, OrderStatus.cancelled);
+    }
+
+    // Вместо SELECT ... FOR UPDATE: читаем статус и версию, проверяем переход по таблице
+    // OrderStatus и пишем UPDATE ... WHERE status = ? AND version = ?. Если строку успели
+    // поменять, UPDATE дожидается чужого коммита и возвращает 0 - перечитываем и пробуем снова.
+    // В READ COMMITTED каждый запрос видит свежие данные, поэтому повтор в той же транзакции.
+    private void transition(Long orderId, OrderStatus target) {
+        int maxAttempts = orderProperties.getStatusUpdate().getMaxAttempts();
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            OrderStatusVersion current = orderRepository.findStatusById(orderId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order", orderId));
+
+            if (!current.status().canTransitionTo(target)) {
+                statusUpdates(target, "rejected").increment();
+                throw new InvalidOrderStatusTransitionException(orderId, current.status(), target);
+            }
+
+            int updated = orderRepository.compareAndSetStatus(
+                    orderId, current.status(), current.version(), target, OffsetDateTime.now());
+            if (updated == 1) {
+                if (target == OrderStatus.cancelled) {
+                    productRepository.restoreStockForOrder(orderId);
+                }
+                statusUpdates(target, "applied").increment();
+                meterRegistry.summary("orders.status.cas.attempts").record(attempt);
+                return;
+            }
+
+            meterRegistry.counter("orders.status.cas.conflicts", "target", target.name()).increment();
+            log.debug("Order status conflict, orderId={}, attempt={}", orderId, attempt);
+        }
+
+        statusUpdates(target, "exhausted").increment();
+        throw new ConcurrentModificationConflictException("Order", orderId);
+    }
+
+    private Counter statusUpdates(OrderStatus target, String outcome) {
+        return meterRegistry.counter("orders.status.updates", "target", target.name(), "outcome", outcome);
+    }
+}
@@ -0,0 +1,79 @@
+package ohhudead.reservationsystem.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ohhudead.reservationsystem.job.IdRange;
+import ohhudead.reservationsystem.job.JobPartition;
+import ohhudead.reservationsystem.job.PartitionedJob;
+import ohhudead.reservationsystem.repository.JobPartitionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Транзакционные шаги PartitionedJobScheduler: планирование запуска, захват партиции
+ * и обработка одной пачки. Пачка, продление аренды и checkpoint коммитятся вместе:
+ * после падения инстанса другой продолжит партицию с последнего checkpoint'а,
+ * не повторяя и не теряя закоммиченные пачки.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PartitionedJobService {
+
+    private final JobPartitionRepository jobPartitionRepository;
+
+    // Новый запуск, если прошлый завершён и прошёл interval; возвращает число партиций
+    @Transactional
+    public int planRun(PartitionedJob job) {
+        JobPartitionRepository.RunState run = jobPartitionRepository.lockRun(job.name());
+        // страховка: запуск без открытых партиций, который почему-то не закрылся, закрываем здесь
+        if (run.startedAt() != null && run.finishedAt() == null
+                && !jobPartitionRepository.finishRunIfComplete(job.name(), run.runId())) {
+            return 0;
+        }
+        OffsetDateTime now = jobPartitionRepository.currentDbTime();
+        if (run.startedAt() != null && run.startedAt().plus(job.interval()).isAfter(now)) {
+            return 0;
+        }
+
+        long runId = run.runId() + 1;
+        Optional<IdRange> range = job.idRange();
+        int partitions = range
+                .map(r -> jobPartitionRepository.startRun(job.name(), runId, r.min(), r.max(), job.partitions(), false))
+                .orElseGet(() -> jobPartitionRepository.startRun(job.name(), runId, 0, 0, 0, true));
+        log.info("Job run planned, job={}, runId={}, range={}, partitions={}",
+                job.name(), runId, range.orElse(null), partitions);
+        return partitions;
+    }
+
+    @Transactional
+    public Optional<JobPartition> claim(PartitionedJob job, String owner, Duration lease) {
+        return jobPartitionRepository.claim(job.name(), owner, lease);
+    }
+
+    // Одна пачка партиции; empty - аренду забрал другой инстанс, пачка не выполнялась
+    @Transactional
+    public OptionalLong processChunk(PartitionedJob job, JobPartition partition, long checkpoint,
+                                     String owner, Duration lease) {
+        if (!jobPartitionRepository.renewLease(partition, owner, lease)) {
+            return OptionalLong.empty();
+        }
+        long next = job.processChunk(checkpoint, partition.rangeTo(), job.chunkSize());
+        boolean done = next >= partition.rangeTo();
+        jobPartitionRepository.saveCheckpoint(partition, next, done);
+        if (done && jobPartitionRepository.finishRunIfComplete(job.name(), partition.runId())) {
+            log.info("Job run finished, job={}, runId={}", job.name(), partition.runId());
+        }
+        return OptionalLong.of(next);
+    }
+
+    @Transactional
+    public void release(JobPartition partition, String owner) {
+        jobPartitionRepository.release(partition, owner);
+    }
+}
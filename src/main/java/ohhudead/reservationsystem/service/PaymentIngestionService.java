@@ -0,0 +1,186 @@
+package ohhudead.reservationsystem.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ohhudead.reservationsystem.config.PaymentIngestionProperties;
+import ohhudead.reservationsystem.dto.CreatePaymentRequest;
+import ohhudead.reservationsystem.dto.PaymentIngestionResponse;
+import ohhudead.reservationsystem.dto.PaymentResponse;
+import ohhudead.reservationsystem.exception.PaymentQueueFullException;
+import ohhudead.reservationsystem.exception.ResourceNotFoundException;
+import ohhudead.reservationsystem.repository.PaymentBatchRepository;
+import ohhudead.reservationsystem.repository.PaymentBatchResult;
+import ohhudead.reservationsystem.repository.PaymentConfirmation;
+import ohhudead.reservationsystem.repository.PaymentRepository;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Приём подтверждений оплаты: запрос только кладёт подтверждение в ограниченную очередь
+ * в памяти (дубликаты по order_id схлопываются), переполнение уходит в PaymentSpillStore,
+ * а когда заполнен и он - 503 с Retry-After. Flush по расписанию применяет очередь пачками
+ * через PaymentBatchRepository, затем - накопленные spill-сегменты.
+ * Подтверждения в памяти между приёмом и flush (до app.payments.ingestion.flush-delay)
+ * при аварийной остановке теряются; при штатной остановке они применяются или уходят в spill.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentIngestionService {
+
+    private final PaymentBatchRepository paymentBatchRepository;
+    private final PaymentRepository paymentRepository;
+    private final PaymentSpillStore spillStore;
+    private final PaymentIngestionProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    // порядок вставки сохраняется, ключ - order_id для дедупликации
+    private final LinkedHashMap<Long, PaymentConfirmation> pending = new LinkedHashMap<>();
+    private final Object flushLock = new Object();
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("payments.ingestion.queue.size", this, PaymentIngestionService::queueSize)
+                .description("Payment confirmations waiting in memory")
+                .register(meterRegistry);
+        Gauge.builder("payments.ingestion.spill.size", spillStore, PaymentSpillStore::size)
+                .description("Payment confirmations waiting in spill segments")
+                .register(meterRegistry);
+    }
+
+    public PaymentIngestionResponse accept(CreatePaymentRequest request) {
+        PaymentConfirmation confirmation = new PaymentConfirmation(
+                request.orderId(), request.method(), request.amount(), OffsetDateTime.now(ZoneOffset.UTC));
+
+        PaymentIngestionResponse.Status status = enqueue(confirmation);
+        if (status == null) {
+            status = spillStore.append(confirmation) ? PaymentIngestionResponse.Status.SPILLED : null;
+        }
+        if (status == null) {
+            meterRegistry.counter("payments.ingestion.accepted", "status", "REJECTED").increment();
+            throw new PaymentQueueFullException(properties.getRetryAfter());
+        }
+        meterRegistry.counter("payments.ingestion.accepted", "status", status.name()).increment();
+        return new PaymentIngestionResponse(request.orderId(), status);
+    }
+
+    @Transactional(readOnly = true)
+    public PaymentResponse getByOrderId(Long orderId) {
+        return paymentRepository.findByOrderOrderId(orderId)
+                .map(p -> new PaymentResponse(p.getId(), orderId, p.getMethod(), p.getAmount(), p.getPaidAt()))
+                .orElseThrow(() -> new ResourceNotFoundException("Payment", orderId));
+    }
+
+    // null - в памяти нет места
+    private synchronized PaymentIngestionResponse.Status enqueue(PaymentConfirmation confirmation) {
+        if (pending.containsKey(confirmation.orderId())) {
+            return PaymentIngestionResponse.Status.DUPLICATE;
+        }
+        if (pending.size() >= properties.getQueueCapacity()) {
+            return null;
+        }
+        pending.put(confirmation.orderId(), confirmation);
+        return PaymentIngestionResponse.Status.QUEUED;
+    }
+
+    public void flush() {
+        synchronized (flushLock) {
+            List<PaymentConfirmation> batch;
+            while (!(batch = takeBatch()).isEmpty()) {
+                if (!applyOrSpill(batch)) {
+                    return;
+                }
+            }
+            // spill разбираем, только когда память пуста: новые подтверждения важнее старых
+            if (queueSize() == 0 && spillStore.size() > 0) {
+                applySpill();
+            }
+        }
+    }
+
+    @PreDestroy
+    void drainOnShutdown() {
+        log.info("Draining payment ingestion queue, pending={}", queueSize());
+        flush();
+    }
+
+    private synchronized List<PaymentConfirmation> takeBatch() {
+        List<PaymentConfirmation> batch = new ArrayList<>(Math.min(pending.size(), properties.getBatchSize()));
+        Iterator<PaymentConfirmation> it = pending.values().iterator();
+        while (it.hasNext() && batch.size() < properties.getBatchSize()) {
+            batch.add(it.next());
+            it.remove();
+        }
+        return batch;
+    }
+
+    private synchronized int queueSize() {
+        return pending.size();
+    }
+
+    // false - БД недоступна, пачка сохранена в spill, дальше в этом цикле не идём
+    private boolean applyOrSpill(List<PaymentConfirmation> batch) {
+        try {
+            apply(batch);
+            return true;
+        } catch (DataAccessException e) {
+            log.warn("Payment batch failed, spilling {} confirmations: {}", batch.size(), e.getMessage());
+            for (PaymentConfirmation confirmation : batch) {
+                if (!spillStore.append(confirmation)) {
+                    log.error("Payment spill is full, confirmation lost, orderId={}", confirmation.orderId());
+                }
+            }
+            return false;
+        }
+    }
+
+    private void applySpill() {
+        for (Path segment : spillStore.sealSegments()) {
+            try {
+                List<PaymentConfirmation> confirmations = spillStore.read(segment);
+                for (int from = 0; from < confirmations.size(); from += properties.getBatchSize()) {
+                    apply(confirmations.subList(from, Math.min(confirmations.size(), from + properties.getBatchSize())));
+                }
+                // повторное применение сегмента после сбоя здесь безопасно - будет ALREADY_PAID
+                spillStore.delete(segment, confirmations.size());
+                log.info("Payment spill segment applied, segment={}, records={}",
+                        segment.getFileName(), confirmations.size());
+            } catch (IOException | DataAccessException e) {
+                log.warn("Payment spill segment {} not applied: {}", segment.getFileName(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void apply(List<PaymentConfirmation> batch) {
+        List<PaymentBatchResult> results = paymentBatchRepository.apply(batch);
+        meterRegistry.summary("payments.ingestion.batch.size").record(batch.size());
+
+        Map<PaymentBatchResult.Outcome, Integer> counts = new LinkedHashMap<>();
+        for (PaymentBatchResult result : results) {
+            counts.merge(result.outcome(), 1, Integer::sum);
+            if (result.outcome() != PaymentBatchResult.Outcome.APPLIED
+                    && result.outcome() != PaymentBatchResult.Outcome.ALREADY_PAID) {
+                log.warn("Payment confirmation rejected, orderId={}, outcome={}", result.orderId(), result.outcome());
+            }
+        }
+        counts.forEach((outcome, count) ->
+                meterRegistry.counter("payments.ingestion.applied", "outcome", outcome.name()).increment(count));
+        log.info("Payment batch applied, size={}, outcomes={}", batch.size(), counts);
+    }
+}
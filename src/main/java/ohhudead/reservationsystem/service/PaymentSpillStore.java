@@ -0,0 +1,154 @@
+package ohhudead.reservationsystem.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import ohhudead.reservationsystem.config.PaymentIngestionProperties;
+import ohhudead.reservationsystem.entity.PaymentMethod;
+import ohhudead.reservationsystem.repository.PaymentConfirmation;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Переполнение очереди подтверждений оплаты на диск. Сегменты - append-only файлы
+ * payments-<номер>.spill, одна строка на подтверждение, каждая запись сразу fsync'ится:
+ * ответ 202 SPILLED означает, что подтверждение переживёт рестарт.
+ * Сегменты с прошлого запуска подхватываются при старте и применяются обычным flush.
+ */
+@Component
+@Slf4j
+public class PaymentSpillStore {
+
+    private static final String SUFFIX = ".spill";
+
+    private final PaymentIngestionProperties properties;
+    private final Path directory;
+
+    private FileChannel active;
+    private int activeRecords;
+    private long totalRecords;
+    private long nextSegment;
+
+    public PaymentSpillStore(PaymentIngestionProperties properties) {
+        this.properties = properties;
+        this.directory = Path.of(properties.getSpillDirectory());
+    }
+
+    @PostConstruct
+    synchronized void open() throws IOException {
+        Files.createDirectories(directory);
+        for (Path segment : segments()) {
+            totalRecords += read(segment).size();
+            nextSegment = Math.max(nextSegment, segmentNumber(segment) + 1);
+        }
+        if (totalRecords > 0) {
+            log.info("Payment spill segments found, records={}", totalRecords);
+        }
+    }
+
+    // false - spill заполнен, вызывающий отвечает 503
+    public synchronized boolean append(PaymentConfirmation confirmation) {
+        if (totalRecords >= properties.getSpillMaxRecords()) {
+            return false;
+        }
+        try {
+            if (active == null || activeRecords >= properties.getSpillSegmentRecords()) {
+                rotate();
+            }
+            String line = confirmation.orderId() + "," + confirmation.method().name() + ","
+                    + confirmation.amount().toPlainString() + "," + confirmation.receivedAt() + "\n";
+            ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.US_ASCII));
+            while (buffer.hasRemaining()) {
+                active.write(buffer);
+            }
+            active.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spill payment confirmation", e);
+        }
+        activeRecords++;
+        totalRecords++;
+        return true;
+    }
+
+    // Закрывает текущий сегмент и возвращает все готовые к применению, старые первыми
+    public synchronized List<Path> sealSegments() {
+        try {
+            closeActive();
+            return segments();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public List<PaymentConfirmation> read(Path segment) throws IOException {
+        List<PaymentConfirmation> confirmations = new ArrayList<>();
+        for (String line : Files.readAllLines(segment, StandardCharsets.US_ASCII)) {
+            String[] parts = line.split(",");
+            // недописанная строка после аварийной остановки
+            if (parts.length != 4) {
+                log.warn("Skipping malformed payment spill record in {}: {}", segment.getFileName(), line);
+                continue;
+            }
+            confirmations.add(new PaymentConfirmation(
+                    Long.parseLong(parts[0]),
+                    PaymentMethod.valueOf(parts[1]),
+                    new BigDecimal(parts[2]),
+                    OffsetDateTime.parse(parts[3])));
+        }
+        return confirmations;
+    }
+
+    public synchronized void delete(Path segment, int records) throws IOException {
+        Files.deleteIfExists(segment);
+        totalRecords = Math.max(0, totalRecords - records);
+    }
+
+    public synchronized long size() {
+        return totalRecords;
+    }
+
+    @PreDestroy
+    synchronized void close() throws IOException {
+        closeActive();
+    }
+
+    private void rotate() throws IOException {
+        closeActive();
+        Path segment = directory.resolve("payments-%012d%s".formatted(nextSegment++, SUFFIX));
+        active = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        activeRecords = 0;
+    }
+
+    private void closeActive() throws IOException {
+        if (active != null) {
+            active.close();
+            active = null;
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring("payments-".length(), name.length() - SUFFIX.length()));
+    }
+}
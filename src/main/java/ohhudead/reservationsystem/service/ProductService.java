@@ -3,18 +3,49 @@ package ohhudead.reservationsystem.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import ohhudead.reservationsystem.catalog.CatalogReadModel;
+import ohhudead.reservationsystem.config.ProductProperties;
+import ohhudead.reservationsystem.dto.ProductBatchResponse;
+import ohhudead.reservationsystem.dto.ProductField;
 import ohhudead.reservationsystem.dto.ProductRequest;
 import ohhudead.reservationsystem.dto.ProductResponse;
+import ohhudead.reservationsystem.dto.StockAdjustmentError;
+import ohhudead.reservationsystem.dto.StockAdjustmentItem;
+import ohhudead.reservationsystem.dto.StockAdjustmentMode;
+import ohhudead.reservationsystem.dto.StockAdjustmentRequest;
+import ohhudead.reservationsystem.dto.StockAdjustmentResponse;
 import ohhudead.reservationsystem.entity.Product;
 import ohhudead.reservationsystem.entity.Category;
+import ohhudead.reservationsystem.event.CatalogChangedEvent;
+import ohhudead.reservationsystem.exception.ApplicationException;
+import ohhudead.reservationsystem.exception.ProductAlreadyExistsException;
 import ohhudead.reservationsystem.exception.ResourceNotFoundException;
 import ohhudead.reservationsystem.mapper.ProductMapper;
 import ohhudead.reservationsystem.repository.CategoryRepository;
 import ohhudead.reservationsystem.repository.ProductRepository;
+import ohhudead.reservationsystem.repository.StockAdjustmentRow;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.ServerErrorMessage;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -22,14 +53,25 @@ import java.util.List;
 @Transactional
 
 public class ProductService {
+
+    private static final String FOREIGN_KEY_VIOLATION = "23503";
+    private static final Pattern FOREIGN_KEY_DETAIL = Pattern.compile("\\(category_id\\)=\\((\\d+)\\)");
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final ProductMapper productMapper;
+    private final ProductProperties productProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogReadModel catalogReadModel;
 
 
     public List<ProductResponse> getAll(Long categoryId){
         log.info("Get products, categoryId={}", categoryId);
 
+        if (catalogReadModel.isServing()) {
+            return catalogReadModel.findProducts(categoryId);
+        }
+
         List<Product> products = (categoryId == null)
                 ? productRepository.findAll()
                 : productRepository.findByCategoryId(categoryId);
@@ -42,24 +84,90 @@ public class ProductService {
 
     public ProductResponse getById(Long id) {
         log.info("Get product by id={}", id);
+        // промах read model проверяем в БД: товар мог появиться на другом инстансе после дельты
+        if (catalogReadModel.isServing()) {
+            Optional<ProductResponse> cached = catalogReadModel.findProduct(id);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
         Product product = findProductOrThrow(id);
         return productMapper.toResponse(product);
     }
 
+    // sparse fieldsets: в SQL уходят только запрошенные колонки, в ответ - только они же
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllFields(Long categoryId, String fields) {
+        Set<ProductField> selected = ProductField.parse(fields);
+        log.info("Get products, categoryId={}, fields={}", categoryId, selected);
+        return productRepository.findFields(selected, categoryId);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getFieldsById(Long id, String fields) {
+        Set<ProductField> selected = ProductField.parse(fields);
+        log.info("Get product by id={}, fields={}", id, selected);
+        return productRepository.findFieldsById(selected, id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", id));
+    }
+
+    @Transactional(readOnly = true)
+    public ProductBatchResponse getByIds(List<Long> ids) {
+        LinkedHashSet<Long> uniqueIds = new LinkedHashSet<>(ids);
+        log.info("Get products batch, size={}", uniqueIds.size());
+
+        Map<Long, ProductResponse> cached = new LinkedHashMap<>();
+        if (catalogReadModel.isServing()) {
+            for (Long id : uniqueIds) {
+                catalogReadModel.findProduct(id).ifPresent(product -> cached.put(id, product));
+            }
+        }
+        List<Long> lookupIds = uniqueIds.stream().filter(id -> !cached.containsKey(id)).toList();
+        Map<Long, Product> found = lookupIds.isEmpty()
+                ? Map.of()
+                : productRepository.findAllWithCategoryByIdIn(lookupIds)
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<ProductResponse> products = new ArrayList<>(uniqueIds.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : uniqueIds) {
+            ProductResponse response = cached.get(id);
+            Product product = found.get(id);
+            if (response != null) {
+                products.add(response);
+            } else if (product == null) {
+                missingIds.add(id);
+            } else {
+                products.add(productMapper.toResponse(product));
+            }
+        }
+
+        return ProductBatchResponse.builder()
+                .products(products)
+                .missingIds(missingIds)
+                .build();
+    }
+
     @Transactional
     public ProductResponse create(ProductRequest request) {
-        log.info("Create product: {}", request);
+        log.info("Create product, categoryId={}, name={}", request.getCategoryId(), request.getName());
 
         Category category = findCategoryOrThrow(request.getCategoryId());
         Product product = productMapper.toEntity(request);
         product.setCategory(category);
 
-        product = productRepository.save(product);
+        try {
+            product = productRepository.saveAndFlush(product);
+        } catch (DataIntegrityViolationException e) {
+            throw integrityViolation(e, request.getCategoryId(), product.getName());
+        }
+        eventPublisher.publishEvent(CatalogChangedEvent.products(List.of(product.getId())));
         return productMapper.toResponse(product);
     }
     @Transactional
     public ProductResponse update(Long id, ProductRequest request) {
-        log.info("Update product id={}, request={}", id, request);
+        log.info("Update product id={}", id);
 
         Product product = findProductOrThrow(id);
 
@@ -69,14 +177,135 @@ public class ProductService {
         }
 
         productMapper.updateFromRequest(request, product);
-        product = productRepository.save(product);
+        try {
+            product = productRepository.saveAndFlush(product);
+        } catch (DataIntegrityViolationException e) {
+            throw integrityViolation(e, product.getCategory().getId(), product.getName());
+        }
+        eventPublisher.publishEvent(CatalogChangedEvent.products(List.of(id)));
         return productMapper.toResponse(product);
     }
 
+    @Transactional
+    public ProductResponse upsert(ProductRequest request) {
+        log.info("Upsert product, categoryId={}, name={}", request.getCategoryId(), request.getName());
+        return upsertAll(List.of(request)).get(0);
+    }
+
+    @Transactional
+    public List<ProductResponse> upsertAll(List<ProductRequest> requests) {
+        // ключ (categoryId, имя без учёта регистра) должен встречаться в одном запросе один раз
+        Map<String, ProductRequest> byKey = new LinkedHashMap<>();
+        for (ProductRequest request : requests) {
+            String name = productMapper.normalizeName(request.getName());
+            byKey.put(request.getCategoryId() + ":" + name.toLowerCase(Locale.ROOT), request);
+        }
+        log.info("Upsert products, size={}", byKey.size());
+
+        List<ProductRequest> unique = List.copyOf(byKey.values());
+        List<ProductResponse> upserted;
+        try {
+            upserted = productRepository.upsertAll(
+                    unique.stream().mapToLong(ProductRequest::getCategoryId).toArray(),
+                    unique.stream().map(r -> productMapper.normalizeName(r.getName())).toArray(String[]::new),
+                    unique.stream().map(ProductRequest::getPrice).toArray(BigDecimal[]::new),
+                    unique.stream().mapToInt(ProductRequest::getInStock).toArray());
+        } catch (DataIntegrityViolationException e) {
+            // конфликт по имени upsert разбирает сам, остаётся несуществующая категория
+            throw integrityViolation(e, unique.get(0).getCategoryId(),
+                    productMapper.normalizeName(unique.get(0).getName()));
+        }
+
+        eventPublisher.publishEvent(CatalogChangedEvent.products(
+                upserted.stream().map(ProductResponse::getId).toList()));
+        return upserted;
+    }
+
+    // После нарушения ограничения транзакция в PostgreSQL прервана и новые запросы в ней
+    // не выполнятся, поэтому причину берём из ответа сервера: нарушение FK - категории нет
+    // (id - из detail "Key (category_id)=(N) ..."), иначе - дубликат ux_products_category_name_lower
+    private ApplicationException integrityViolation(DataIntegrityViolationException e, Long categoryId, String name) {
+        ServerErrorMessage error = null;
+        for (Throwable cause = e; cause != null && error == null; cause = cause.getCause()) {
+            if (cause instanceof PSQLException psql) {
+                error = psql.getServerErrorMessage();
+            }
+        }
+        if (error != null && FOREIGN_KEY_VIOLATION.equals(error.getSQLState())) {
+            Matcher key = FOREIGN_KEY_DETAIL.matcher(String.valueOf(error.getDetail()));
+            return new ResourceNotFoundException("Category", key.find() ? Long.valueOf(key.group(1)) : categoryId);
+        }
+        return new ProductAlreadyExistsException(categoryId, name);
+    }
+
+    @Transactional
+    public StockAdjustmentResponse adjustStock(StockAdjustmentRequest request) {
+        // один productId может прийти несколько раз: дельты складываем (в long, чтобы сумма
+        // не переполнилась), для SET побеждает последнее значение.
+        // TreeMap - чанки блокируют строки в порядке id, параллельные корректировки не ловят дедлок
+        Map<Long, Long> merged = new TreeMap<>();
+        for (StockAdjustmentItem item : request.items()) {
+            if (request.mode() == StockAdjustmentMode.DELTA) {
+                merged.merge(item.productId(), item.value().longValue(), Long::sum);
+            } else {
+                merged.put(item.productId(), item.value().longValue());
+            }
+        }
+        log.info("Adjust stock, mode={}, items={}, products={}",
+                request.mode(), request.items().size(), merged.size());
+
+        int requested = merged.size();
+        List<StockAdjustmentError> errors = new ArrayList<>();
+        merged.entrySet().removeIf(entry -> {
+            boolean outOfRange = entry.getValue() != entry.getValue().intValue();
+            if (outOfRange) {
+                errors.add(new StockAdjustmentError(entry.getKey(), StockAdjustmentError.Reason.OUT_OF_RANGE));
+            }
+            return outOfRange;
+        });
+
+        long[] productIds = merged.keySet().stream().mapToLong(Long::longValue).toArray();
+        int[] values = merged.values().stream().mapToInt(Long::intValue).toArray();
+        int chunkSize = productProperties.getStockSyncChunkSize();
+
+        List<Long> changedIds = new ArrayList<>(productIds.length);
+        for (int from = 0; from < productIds.length; from += chunkSize) {
+            int to = Math.min(from + chunkSize, productIds.length);
+            List<StockAdjustmentRow> rows = productRepository.adjustStock(
+                    request.mode(),
+                    Arrays.copyOfRange(productIds, from, to),
+                    Arrays.copyOfRange(values, from, to));
+
+            for (StockAdjustmentRow row : rows) {
+                if (row.applied()) {
+                    changedIds.add(row.productId());
+                } else {
+                    errors.add(new StockAdjustmentError(row.productId(), !row.found()
+                            ? StockAdjustmentError.Reason.PRODUCT_NOT_FOUND
+                            : row.targetStock() < 0
+                            ? StockAdjustmentError.Reason.NEGATIVE_STOCK
+                            : StockAdjustmentError.Reason.OUT_OF_RANGE));
+                }
+            }
+        }
+
+        if (!changedIds.isEmpty()) {
+            eventPublisher.publishEvent(CatalogChangedEvent.products(changedIds));
+        }
+        log.info("Stock adjusted, applied={}, rejected={}", changedIds.size(), errors.size());
+
+        return StockAdjustmentResponse.builder()
+                .requested(requested)
+                .applied(changedIds.size())
+                .errors(errors)
+                .build();
+    }
+
     @Transactional
     public void delete(Long id){
         log.info("Delete product id={}", id);
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangedEvent.products(List.of(id)));
     }
 
     private Product findProductOrThrow(Long id){
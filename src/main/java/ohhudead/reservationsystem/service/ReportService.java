@@ -0,0 +1,68 @@
+package ohhudead.reservationsystem.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ohhudead.reservationsystem.config.ReportProperties;
+import ohhudead.reservationsystem.dto.SalesReportDimension;
+import ohhudead.reservationsystem.dto.SalesReportRow;
+import ohhudead.reservationsystem.entity.PaymentMethod;
+import ohhudead.reservationsystem.exception.InvalidReportRangeException;
+import ohhudead.reservationsystem.repository.SalesRollupRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+
+public class ReportService {
+
+    static final String SALES_ROLLUP_WATERMARK = "sales_daily_rollup";
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final ReportProperties reportProperties;
+
+    @Transactional(readOnly = true)
+    public List<SalesReportRow> getSalesReport(LocalDate from, LocalDate to, Set<SalesReportDimension> groupBy,
+                                               Long categoryId, PaymentMethod paymentMethod) {
+        if (to.isBefore(from)) {
+            throw new InvalidReportRangeException("'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= reportProperties.getMaxRangeDays()) {
+            throw new InvalidReportRangeException(
+                    "Report range must not exceed " + reportProperties.getMaxRangeDays() + " days");
+        }
+
+        Set<SalesReportDimension> dimensions = groupBy == null || groupBy.isEmpty()
+                ? EnumSet.allOf(SalesReportDimension.class)
+                : EnumSet.copyOf(groupBy);
+        log.info("Get sales report, from={}, to={}, groupBy={}", from, to, dimensions);
+
+        return salesRollupRepository.findReport(from, to, dimensions, categoryId, paymentMethod);
+    }
+
+    // Пересчитывает только дни, в которых с прошлого запуска появились оплаты
+    // или менялись оплаченные заказы; весь запуск - одна транзакция вместе с watermark
+    public void refreshSalesRollup() {
+        salesRollupRepository.lockRollup();
+        OffsetDateTime until = salesRollupRepository.currentDbTime();
+        OffsetDateTime since = salesRollupRepository.findWatermark(SALES_ROLLUP_WATERMARK)
+                .map(watermark -> watermark.minus(reportProperties.getRollupOverlap()))
+                .orElse(OffsetDateTime.parse("1970-01-01T00:00:00Z"));
+
+        List<LocalDate> days = salesRollupRepository.findAffectedDays(since, until);
+        if (!days.isEmpty()) {
+            int rows = salesRollupRepository.rebuildDays(days);
+            log.info("Sales rollup refreshed, days={}, rows={}", days.size(), rows);
+        }
+        salesRollupRepository.saveWatermark(SALES_ROLLUP_WATERMARK, until);
+    }
+}
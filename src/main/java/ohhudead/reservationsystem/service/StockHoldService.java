@@ -0,0 +1,134 @@
+package ohhudead.reservationsystem.service;
+
+import lombok.extern.slf4j.Slf4j;
+import ohhudead.reservationsystem.config.StockHoldProperties;
+import ohhudead.reservationsystem.dto.CreateOrderItemRequest;
+import ohhudead.reservationsystem.dto.CreateStockHoldRequest;
+import ohhudead.reservationsystem.dto.StockHoldResponse;
+import ohhudead.reservationsystem.event.CatalogChangedEvent;
+import ohhudead.reservationsystem.exception.InsufficientStockException;
+import ohhudead.reservationsystem.exception.ResourceNotFoundException;
+import ohhudead.reservationsystem.repository.ProductRepository;
+import ohhudead.reservationsystem.repository.StockHoldRepository;
+import ohhudead.reservationsystem.util.HierarchicalTimingWheel;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+@Slf4j
+@Transactional
+
+public class StockHoldService {
+
+    private final StockHoldRepository stockHoldRepository;
+    private final ProductRepository productRepository;
+    private final StockHoldProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Резервы этого инстанса (и все резервы на момент старта). Срок хранится только здесь,
+    // поэтому освобождение не требует сканирования stock_holds
+    private final HierarchicalTimingWheel<Long> expiryWheel;
+
+    public StockHoldService(StockHoldRepository stockHoldRepository,
+                            ProductRepository productRepository,
+                            StockHoldProperties properties,
+                            ApplicationEventPublisher eventPublisher) {
+        this.stockHoldRepository = stockHoldRepository;
+        this.productRepository = productRepository;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.expiryWheel = new HierarchicalTimingWheel<>(
+                properties.getTick().toMillis(), properties.getWheelSize(), System.currentTimeMillis());
+    }
+
+    public List<StockHoldResponse> create(CreateStockHoldRequest request) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (CreateOrderItemRequest item : request.items()) {
+            quantities.merge(item.productId(), item.quantity(), Integer::sum);
+        }
+        OffsetDateTime expiresAt = OffsetDateTime.now().plus(properties.getTtl());
+
+        List<StockHoldResponse> holds = new ArrayList<>(quantities.size());
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Long productId = entry.getKey();
+            int quantity = entry.getValue();
+
+            Long holdId = stockHoldRepository.create(productId, quantity, expiresAt)
+                    .orElseThrow(() -> productRepository.existsById(productId)
+                            ? new InsufficientStockException(productId, quantity)
+                            : new ResourceNotFoundException("Product", productId));
+            holds.add(new StockHoldResponse(holdId, productId, quantity, expiresAt));
+        }
+        log.info("Stock holds created, holds={}, expiresAt={}", holds.size(), expiresAt);
+
+        long expirationMs = expiresAt.toInstant().toEpochMilli();
+        List<Long> holdIds = holds.stream().map(StockHoldResponse::holdId).toList();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                holdIds.forEach(holdId -> expiryWheel.schedule(holdId, expirationMs));
+            }
+        });
+        eventPublisher.publishEvent(CatalogChangedEvent.products(quantities.keySet()));
+
+        return holds;
+    }
+
+    public void release(Long holdId) {
+        if (stockHoldRepository.release(new long[]{holdId}) == 0) {
+            throw new ResourceNotFoundException("Stock hold", holdId);
+        }
+        log.info("Stock hold released, holdId={}", holdId);
+        // таймер в колесе не ищем: при срабатывании DELETE просто ничего не найдёт
+    }
+
+    // Вызывается планировщиком каждый тик колеса
+    public int releaseExpired() {
+        List<Long> expired = expiryWheel.advance(System.currentTimeMillis());
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        releaseInBatches(expired.stream().mapToLong(Long::longValue).toArray());
+        log.info("Expired stock holds released, holds={}", expired.size());
+        return expired.size();
+    }
+
+    // Резервы, чей инстанс умер до их истечения: дешёвый range scan по idx_stock_holds_expires_at
+    public int sweepOrphaned() {
+        OffsetDateTime before = OffsetDateTime.now().minus(properties.getSweepGrace());
+        List<Long> orphaned = stockHoldRepository.findExpiredBefore(before, properties.getReleaseBatchSize());
+        if (orphaned.isEmpty()) {
+            return 0;
+        }
+        releaseInBatches(orphaned.stream().mapToLong(Long::longValue).toArray());
+        log.warn("Orphaned stock holds released, holds={}", orphaned.size());
+        return orphaned.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadOutstandingHolds() {
+        List<StockHoldRepository.HoldExpiry> holds = stockHoldRepository.findAll();
+        holds.forEach(hold -> expiryWheel.schedule(hold.holdId(), hold.expiresAt().toInstant().toEpochMilli()));
+        log.info("Outstanding stock holds scheduled, holds={}", holds.size());
+    }
+
+    private void releaseInBatches(long[] holdIds) {
+        int batchSize = properties.getReleaseBatchSize();
+        for (int from = 0; from < holdIds.length; from += batchSize) {
+            stockHoldRepository.release(Arrays.copyOfRange(holdIds, from, Math.min(from + batchSize, holdIds.length)));
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package ohhudead.reservationsystem.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Иерархическое колесо таймеров: schedule/cancel за O(1), advance - O(число прошедших тиков
+ * + число сработавших записей), независимо от того, сколько таймеров ещё ждут.
+ * <p>
+ * Нижний уровень хранит записи с точностью до тика и никогда не срабатывает раньше срока
+ * (срок округляется вверх до тика). Каждый следующий уровень в wheelSize раз грубее;
+ * когда до его корзины доходит время, записи из неё перекладываются вниз.
+ * Уровни создаются по мере надобности. Потокобезопасен за счёт synchronized.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final List<List<List<Timer<T>>>> levels = new ArrayList<>();
+    private final List<Timer<T>> dueNow = new ArrayList<>();
+
+    private long currentTime;
+    private int size;
+
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("tickMs must be > 0 and wheelSize >= 2");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.currentTime = Math.floorDiv(startMs, tickMs) * tickMs;
+        levels.add(newLevel());
+    }
+
+    public synchronized Timer<T> schedule(T payload, long expirationMs) {
+        Timer<T> timer = new Timer<>(payload, expirationMs);
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    public synchronized boolean cancel(Timer<T> timer) {
+        if (timer.cancelled || timer.fired) {
+            return false;
+        }
+        timer.cancelled = true;
+        size--;
+        return true;
+    }
+
+    /**
+     * Сдвигает часы до nowMs и возвращает payload всех записей со сроком <= nowMs
+     * (с точностью до тика) в порядке срабатывания.
+     */
+    public synchronized List<T> advance(long nowMs) {
+        List<T> expired = new ArrayList<>();
+        drainDueNow(expired);
+
+        if (size == expired.size()) {
+            // ждать нечего - перематываем без прохода по пустым тикам
+            currentTime = Math.max(currentTime, Math.floorDiv(nowMs, tickMs) * tickMs);
+        }
+
+        while (currentTime + tickMs <= nowMs) {
+            currentTime += tickMs;
+
+            for (Timer<T> timer : takeBucket(0, currentTime / tickMs)) {
+                fire(timer, expired);
+            }
+
+            // корзины грубых уровней перекладываются вниз уже после текущего тика:
+            // запись со сроком ровно через полный оборот попадёт в только что
+            // освободившуюся корзину и сработает вовремя, а не на этом тике
+            for (int level = levels.size() - 1; level >= 1; level--) {
+                long levelTick = levelTick(level);
+                if (currentTime % levelTick == 0) {
+                    for (Timer<T> timer : takeBucket(level, currentTime / levelTick)) {
+                        if (!timer.cancelled) {
+                            place(timer);
+                        }
+                    }
+                }
+            }
+            drainDueNow(expired);
+        }
+
+        size -= expired.size();
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void place(Timer<T> timer) {
+        long expiration = timer.expirationMs;
+        if (expiration <= currentTime) {
+            dueNow.add(timer);
+            return;
+        }
+
+        long dueTick = Math.floorDiv(expiration + tickMs - 1, tickMs);
+        if (dueTick * tickMs - currentTime <= tickMs * wheelSize) {
+            bucket(0, dueTick).add(timer);
+            return;
+        }
+
+        for (int level = 1; ; level++) {
+            if (level == levels.size()) {
+                levels.add(newLevel());
+            }
+            long levelTick = levelTick(level);
+            long bucketStart = Math.floorDiv(expiration, levelTick);
+            long levelTime = Math.floorDiv(currentTime, levelTick);
+            if (bucketStart - levelTime < wheelSize) {
+                bucket(level, bucketStart).add(timer);
+                return;
+            }
+        }
+    }
+
+    private void fire(Timer<T> timer, List<T> expired) {
+        if (!timer.cancelled) {
+            timer.fired = true;
+            expired.add(timer.payload);
+        }
+    }
+
+    private void drainDueNow(List<T> expired) {
+        for (Timer<T> timer : dueNow) {
+            fire(timer, expired);
+        }
+        dueNow.clear();
+    }
+
+    private long levelTick(int level) {
+        long tick = tickMs;
+        for (int i = 0; i < level; i++) {
+            tick = Math.multiplyExact(tick, wheelSize);
+        }
+        return tick;
+    }
+
+    private List<Timer<T>> bucket(int level, long virtualId) {
+        return levels.get(level).get((int) Math.floorMod(virtualId, (long) wheelSize));
+    }
+
+    private List<Timer<T>> takeBucket(int level, long virtualId) {
+        List<Timer<T>> bucket = bucket(level, virtualId);
+        if (bucket.isEmpty()) {
+            return List.of();
+        }
+        List<Timer<T>> taken = new ArrayList<>(bucket);
+        bucket.clear();
+        return taken;
+    }
+
+    private List<List<Timer<T>>> newLevel() {
+        List<List<Timer<T>>> buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        return buckets;
+    }
+
+    public static final class Timer<T> {
+
+        private final T payload;
+        private final long expirationMs;
+        private boolean cancelled;
+        private boolean fired;
+
+        private Timer(T payload, long expirationMs) {
+            this.payload = payload;
+            this.expirationMs = expirationMs;
+        }
+
+        public T payload() {
+            return payload;
+        }
+
+        public long expirationMs() {
+            return expirationMs;
+        }
+    }
+}
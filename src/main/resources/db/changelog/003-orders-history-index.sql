@@ -0,0 +1,6 @@
+-- keyset-пагинация истории заказов: (customer_id, order_date, order_id) + status в листьях индекса
+drop index if exists idx_orders_customer_date;
+
+create index idx_orders_customer_date
+    on orders (customer_id, order_date, order_id)
+    include (status);
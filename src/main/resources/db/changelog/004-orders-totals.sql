@@ -0,0 +1,22 @@
+-- денормализованные итоги заказа, считаются при создании заказа;
+-- старые строки заполняет OrderTotalsBackfillScheduler
+alter table orders
+    add column total_amount numeric(12, 2)
+        constraint orders_total_amount_check
+            check (total_amount >= (0)::numeric);
+
+alter table orders
+    add column items_count integer
+        constraint orders_items_count_check
+            check (items_count >= 0);
+
+-- частичный индекс: очередь backfill, пустеет по мере заполнения
+create index idx_orders_totals_pending
+    on orders (order_id)
+    where total_amount is null;
+
+drop index if exists idx_orders_customer_date;
+
+create index idx_orders_customer_date
+    on orders (customer_id, order_date, order_id)
+    include (status, total_amount, items_count);
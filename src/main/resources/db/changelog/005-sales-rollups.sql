@@ -0,0 +1,33 @@
+-- момент последнего изменения заказа: по нему инкрементальный rollup находит затронутые дни
+alter table orders
+    add column updated_at timestamp with time zone default now() not null;
+
+create index idx_orders_updated_at
+    on orders (updated_at);
+
+create index idx_payments_paid_at
+    on payments (paid_at);
+
+-- выручка по дню оплаты (UTC) x категория x способ оплаты
+create table sales_daily_rollup
+(
+    sales_date     date                       not null,
+    category_id    bigint                     not null,
+    payment_method training_ec.payment_method not null,
+    items_sold     bigint                     not null,
+    revenue        numeric(14, 2)             not null,
+    primary key (sales_date, category_id, payment_method)
+);
+
+alter table sales_daily_rollup
+    owner to postgres;
+
+create table rollup_watermarks
+(
+    name            varchar(64)              not null
+        primary key,
+    processed_until timestamp with time zone not null
+);
+
+alter table rollup_watermarks
+    owner to postgres;
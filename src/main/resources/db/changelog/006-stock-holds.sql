@@ -0,0 +1,20 @@
+-- краткосрочные резервы остатка на время оформления заказа
+create table stock_holds
+(
+    hold_id    bigserial
+        primary key,
+    product_id bigint                                 not null
+        references products,
+    quantity   integer                                not null
+        constraint stock_holds_quantity_check
+            check (quantity > 0),
+    expires_at timestamp with time zone               not null,
+    created_at timestamp with time zone default now() not null
+);
+
+alter table stock_holds
+    owner to postgres;
+
+-- подстраховочный sweep резервов, которые не отслеживает ни один живой инстанс
+create index idx_stock_holds_expires_at
+    on stock_holds (expires_at);
@@ -0,0 +1,13 @@
+-- контрольная сумма changelog, успешно применённого при последнем старте
+create table liquibase_startup_state
+(
+    id         smallint                               not null
+        primary key
+        constraint liquibase_startup_state_single_row
+            check (id = 1),
+    checksum   varchar(64)                            not null,
+    applied_at timestamp with time zone default now() not null
+);
+
+alter table liquibase_startup_state
+    owner to postgres;
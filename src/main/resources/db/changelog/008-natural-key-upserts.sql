@@ -0,0 +1,14 @@
+-- description уже есть в сущности Category, но не было в таблице
+alter table categories
+    add column if not exists description varchar(255);
+
+-- уникальность имени категории без учёта регистра; заменяет регистрозависимый unique
+alter table categories
+    drop constraint if exists categories_category_name_key;
+
+create unique index ux_categories_name_lower
+    on categories (lower(category_name));
+
+-- естественный ключ товара: имя в пределах категории
+create unique index ux_products_category_name_lower
+    on products (category_id, lower(product_name));
@@ -0,0 +1,7 @@
+-- версии для optimistic locking: JPA проверяет их сама (@Version),
+-- set-based запросы увеличивают их вручную (version = version + 1)
+alter table orders
+    add column version bigint default 0 not null;
+
+alter table products
+    add column version bigint default 0 not null;
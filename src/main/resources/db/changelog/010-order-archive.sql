@@ -0,0 +1,19 @@
+-- вклад заказов, перенесённых в файловый архив (OrderArchiveService), в выручку:
+-- sales_daily_rollup пересчитывается только из живых строк, отчёт складывает обе таблицы
+create table sales_archived_rollup
+(
+    sales_date     date                       not null,
+    category_id    bigint                     not null,
+    payment_method training_ec.payment_method not null,
+    items_sold     bigint                     not null,
+    revenue        numeric(14, 2)             not null,
+    primary key (sales_date, category_id, payment_method)
+);
+
+alter table sales_archived_rollup
+    owner to postgres;
+
+-- кандидаты в архив: закрытые заказы по возрасту
+create index idx_orders_archivable
+    on orders (order_date)
+    where status in ('delivered', 'cancelled');
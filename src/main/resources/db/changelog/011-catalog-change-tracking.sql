@@ -0,0 +1,74 @@
+-- момент последнего изменения строки каталога: по нему read model догоняет снапшот дельтой.
+-- Триггер, а не ручное "updated_at = now()": товары меняют и JPA, и set-based SQL остатков,
+-- и upsert'ы. clock_timestamp(), а не now(): для одной строки он растёт в порядке коммитов
+alter table products
+    add column updated_at timestamp with time zone default now() not null;
+
+alter table categories
+    add column updated_at timestamp with time zone default now() not null;
+
+create index idx_products_updated_at
+    on products (updated_at);
+
+create index idx_categories_updated_at
+    on categories (updated_at);
+
+create function touch_updated_at() returns trigger
+    language plpgsql as
+'
+begin
+    new.updated_at := clock_timestamp();
+    return new;
+end;
+';
+
+create trigger products_touch_updated_at
+    before insert or update
+    on products
+    for each row
+execute function touch_updated_at();
+
+create trigger categories_touch_updated_at
+    before insert or update
+    on categories
+    for each row
+execute function touch_updated_at();
+
+-- удаления дельта по updated_at не видит: их фиксируем отдельно,
+-- старые записи чистит CatalogSnapshotScheduler
+create table catalog_tombstones
+(
+    entity_type varchar(16)              not null,
+    entity_id   bigint                   not null,
+    deleted_at  timestamp with time zone not null,
+    primary key (entity_type, entity_id)
+);
+
+alter table catalog_tombstones
+    owner to postgres;
+
+create index idx_catalog_tombstones_deleted_at
+    on catalog_tombstones (deleted_at);
+
+create function record_catalog_tombstone() returns trigger
+    language plpgsql as
+'
+begin
+    insert into catalog_tombstones (entity_type, entity_id, deleted_at)
+    values (tg_argv[0], (to_jsonb(old) ->> tg_argv[1])::bigint, clock_timestamp())
+    on conflict (entity_type, entity_id) do update set deleted_at = excluded.deleted_at;
+    return old;
+end;
+';
+
+create trigger products_tombstone
+    after delete
+    on products
+    for each row
+execute function record_catalog_tombstone('PRODUCT', 'product_id');
+
+create trigger categories_tombstone
+    after delete
+    on categories
+    for each row
+execute function record_catalog_tombstone('CATEGORY', 'category_id');
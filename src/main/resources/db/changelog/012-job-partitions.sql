@@ -0,0 +1,42 @@
+-- партиционированные фоновые задачи (PartitionedJobScheduler): текущий запуск каждой задачи
+create table job_runs
+(
+    job_name    varchar(64)              not null
+        primary key,
+    run_id      bigint                   not null,
+    started_at  timestamp with time zone,
+    finished_at timestamp with time zone
+);
+
+alter table job_runs
+    owner to postgres;
+
+-- диапазоны id запуска (range_from, range_to]; checkpoint - последний обработанный id.
+-- Партицию держит owner до lease_until: инстанс продлевает аренду на каждой пачке,
+-- просроченную аренду (упавший инстанс) забирает любой другой
+create table job_partitions
+(
+    job_name     varchar(64)              not null,
+    run_id       bigint                   not null,
+    partition_no integer                  not null,
+    range_from   bigint                   not null,
+    range_to     bigint                   not null,
+    checkpoint   bigint                   not null,
+    done         boolean     default false not null,
+    owner        varchar(128),
+    lease_until  timestamp with time zone,
+    attempts     integer     default 0     not null,
+    primary key (job_name, run_id, partition_no)
+);
+
+alter table job_partitions
+    owner to postgres;
+
+create index idx_job_partitions_open
+    on job_partitions (job_name, run_id, partition_no)
+    where not done;
+
+-- очередь expired-orders: границы партиций и пачки идут по этому индексу, а не по всей таблице
+create index idx_orders_pending
+    on orders (order_id)
+    where status = 'pending';
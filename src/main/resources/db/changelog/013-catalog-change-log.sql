@@ -0,0 +1,101 @@
+-- Дельта read model каталога читает журнал изменений, а не products.updated_at:
+-- индекс по updated_at, который триггер меняет при каждом UPDATE, делал каждое списание
+-- остатка не-HOT обновлением с записью во все индексы products.
+-- updated_at остаётся (по нему read model выбирает более позднюю версию строки), но без индекса
+drop index idx_products_updated_at;
+
+drop index idx_categories_updated_at;
+
+-- запас места на странице, чтобы обновление остатка оставалось HOT (действует на новые страницы)
+alter table products
+    set (fillfactor = 90);
+
+-- append-only: одна строка на изменённую строку каталога, change_id растёт монотонно.
+-- Удаления тоже здесь: строки, которой больше нет в таблице, read model удаляет.
+-- Старые записи чистит CatalogSnapshotScheduler (app.catalog.snapshot.change-retention)
+create table catalog_changes
+(
+    change_id   bigint generated always as identity
+        primary key,
+    entity_type varchar(16)                                        not null,
+    entity_id   bigint                                             not null,
+    changed_at  timestamp with time zone default clock_timestamp() not null
+);
+
+alter table catalog_changes
+    owner to postgres;
+
+-- statement-level: set-based списание пачки товаров пишет в журнал одним insert
+create function log_product_changes() returns trigger
+    language plpgsql as
+'
+begin
+    insert into catalog_changes (entity_type, entity_id)
+    select tg_argv[0], product_id
+    from changed;
+    return null;
+end;
+';
+
+create function log_category_changes() returns trigger
+    language plpgsql as
+'
+begin
+    insert into catalog_changes (entity_type, entity_id)
+    select tg_argv[0], category_id
+    from changed;
+    return null;
+end;
+';
+
+-- у триггера с transition table может быть только одно событие
+create trigger products_log_insert
+    after insert
+    on products
+    referencing new table as changed
+    for each statement
+execute function log_product_changes('PRODUCT');
+
+create trigger products_log_update
+    after update
+    on products
+    referencing new table as changed
+    for each statement
+execute function log_product_changes('PRODUCT');
+
+create trigger products_log_delete
+    after delete
+    on products
+    referencing old table as changed
+    for each statement
+execute function log_product_changes('PRODUCT');
+
+create trigger categories_log_insert
+    after insert
+    on categories
+    referencing new table as changed
+    for each statement
+execute function log_category_changes('CATEGORY');
+
+create trigger categories_log_update
+    after update
+    on categories
+    referencing new table as changed
+    for each statement
+execute function log_category_changes('CATEGORY');
+
+create trigger categories_log_delete
+    after delete
+    on categories
+    referencing old table as changed
+    for each statement
+execute function log_category_changes('CATEGORY');
+
+-- удаления теперь в журнале
+drop trigger products_tombstone on products;
+
+drop trigger categories_tombstone on categories;
+
+drop function record_catalog_tombstone();
+
+drop table catalog_tombstones;
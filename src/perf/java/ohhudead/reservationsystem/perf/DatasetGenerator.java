@@ -0,0 +1,358 @@
+package ohhudead.reservationsystem.perf;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Заполняет схему training_ec синтетическими данными через COPY.
+ *
+ * <pre>
+ *   ./gradlew generateDataset --args="--truncate --customers=1000000 --products=20000"
+ * </pre>
+ *
+ * Параметры (все необязательные): url, user, password, seed, customers, categories, products,
+ * orders-per-customer (среднее, геометрическое распределение), items-per-order (среднее),
+ * product-skew (показатель Ципфа для популярности товаров), days (глубина истории),
+ * chunk-orders (заказов на одну транзакцию), truncate (очистить таблицы перед загрузкой),
+ * archive-directory (app.archive.directory приложения, по умолчанию data/order-archive),
+ * catalog-snapshot (app.catalog.snapshot.path, по умолчанию data/catalog/catalog.snapshot).
+ * При truncate удаляются и сегменты файлового архива, и снапшот каталога: identity начинаются
+ * заново, и старые сегменты подмешали бы чужие заказы в историю новых покупателей, а старый
+ * снапшот отдавал бы прежний каталог. Генератор запускается из корня проекта, как и bootRun;
+ * если приложение смотрит в другие пути, их нужно передать параметрами или очистить вручную.
+ * Работающие экземпляры приложения после truncate нужно перезапустить.
+ * Один и тот же seed и параметры дают одни и те же данные, кроме дат: они отсчитываются
+ * от момента запуска.
+ */
+public final class DatasetGenerator {
+
+    private static final String[][] CITIES = {
+            {"Moscow", "Russia"}, {"Saint Petersburg", "Russia"}, {"Kazan", "Russia"},
+            {"Berlin", "Germany"}, {"Munich", "Germany"}, {"Paris", "France"}, {"Lyon", "France"},
+            {"Madrid", "Spain"}, {"Warsaw", "Poland"}, {"Prague", "Czechia"}, {"Vienna", "Austria"},
+            {"Amsterdam", "Netherlands"}, {"London", "United Kingdom"}, {"New York", "USA"},
+            {"Chicago", "USA"}, {"Toronto", "Canada"}
+    };
+
+    private static final String[] FIRST_NAMES = {
+            "Ivan", "Anna", "Igor", "Olga", "Pavel", "Maria", "Alex", "Elena", "John", "Emma",
+            "Lukas", "Sophie", "Marco", "Julia", "Piotr", "Eva"
+    };
+
+    private static final String[] LAST_NAMES = {
+            "Ivanov", "Petrova", "Smirnov", "Kuznetsova", "Muller", "Schmidt", "Martin", "Bernard",
+            "Garcia", "Nowak", "Novak", "Smith", "Brown", "Wilson", "Taylor", "Clark"
+    };
+
+    // доли статусов: большая часть истории уже доставлена, хвост - в работе
+    private static final String[] STATUSES = {"delivered", "shipped", "paid", "pending", "cancelled"};
+    private static final double[] STATUS_WEIGHTS = {0.60, 0.10, 0.10, 0.10, 0.10};
+
+    private static final String[] PAYMENT_METHODS = {"card", "paypal", "bank_transfer", "cash"};
+    private static final double[] PAYMENT_WEIGHTS = {0.65, 0.20, 0.10, 0.05};
+
+    private final Connection connection;
+    private final CopyManager copy;
+    private final SplittableRandom random;
+    private final Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+    private DatasetGenerator(Connection connection, long seed) throws SQLException {
+        this.connection = connection;
+        this.copy = connection.unwrap(PGConnection.class).getCopyAPI();
+        this.random = new SplittableRandom(seed);
+    }
+
+    public static void main(String[] argv) throws Exception {
+        Args args = Args.parse(argv);
+        String url = args.string("url", "jdbc:postgresql://localhost:5432/learning?currentSchema=training_ec");
+        long seed = args.longValue("seed", 42);
+
+        try (Connection connection = DriverManager.getConnection(
+                url, args.string("user", "postgres"), args.string("password", "postgres"))) {
+            connection.setAutoCommit(false);
+            new DatasetGenerator(connection, seed).run(args, seed);
+        }
+    }
+
+    private void run(Args args, long seed) throws SQLException, IOException {
+        int customers = args.intValue("customers", 1_000_000);
+        int categories = args.intValue("categories", 50);
+        int products = args.intValue("products", 20_000);
+        double ordersPerCustomer = args.doubleValue("orders-per-customer", 5.0);
+        double itemsPerOrder = args.doubleValue("items-per-order", 2.5);
+        double productSkew = args.doubleValue("product-skew", 1.1);
+        int days = args.intValue("days", 730);
+        int chunkOrders = args.intValue("chunk-orders", 100_000);
+
+        boolean truncate = args.bool("truncate", false);
+        prepare(truncate);
+        if (truncate) {
+            deleteArchiveSegments(Path.of(args.string("archive-directory", "data/order-archive")));
+            deleteCatalogSnapshot(Path.of(args.string("catalog-snapshot", "data/catalog/catalog.snapshot")));
+        }
+
+        long started = System.nanoTime();
+        loadCustomers(customers, chunkOrders);
+        loadCategories(categories);
+        long[] priceCents = loadProducts(products, categories);
+        long orders = loadOrders(customers, priceCents, new ZipfSampler(products, productSkew, seed),
+                ordersPerCustomer, itemsPerOrder, days, chunkOrders);
+        finish();
+
+        System.out.printf("Dataset loaded: customers=%d, categories=%d, products=%d, orders=%d in %s%n",
+                customers, categories, products, orders, Duration.ofNanos(System.nanoTime() - started));
+    }
+
+    private void prepare(boolean truncate) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            if (truncate) {
+                statement.execute("""
+                        truncate table payments, order_items, stock_holds, orders, products, categories,
+                            customers, sales_daily_rollup, sales_archived_rollup, rollup_watermarks,
+                            catalog_changes
+                            restart identity""");
+                connection.commit();
+                return;
+            }
+            try (ResultSet rs = statement.executeQuery(
+                    "select exists(select 1 from customers) or exists(select 1 from categories)")) {
+                rs.next();
+                if (rs.getBoolean(1)) {
+                    throw new IllegalStateException("Schema is not empty, rerun with --truncate");
+                }
+            }
+        }
+    }
+
+    // сегменты orders-*.oarc и недописанные .tmp рядом с ними
+    private static void deleteArchiveSegments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.filter(p -> {
+                String name = p.getFileName().toString();
+                return name.startsWith("orders-") && (name.endsWith(".oarc") || name.endsWith(".oarc.tmp"));
+            }).toList();
+        }
+        for (Path segment : segments) {
+            Files.delete(segment);
+        }
+        System.out.printf("Deleted %d order archive segments from %s%n", segments.size(), directory.toAbsolutePath());
+    }
+
+    private static void deleteCatalogSnapshot(Path snapshot) throws IOException {
+        boolean deleted = Files.deleteIfExists(snapshot);
+        Files.deleteIfExists(snapshot.resolveSibling(snapshot.getFileName() + ".tmp"));
+        if (deleted) {
+            System.out.printf("Deleted catalog snapshot %s%n", snapshot.toAbsolutePath());
+        }
+    }
+
+    private void loadCustomers(int customers, int chunk) throws SQLException, IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int id = 1; id <= customers; id++) {
+            String[] city = CITIES[random.nextInt(CITIES.length)];
+            csv.append(id).append(',')
+                    .append(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]).append(',')
+                    .append(LAST_NAMES[random.nextInt(LAST_NAMES.length)]).append(',')
+                    .append("customer").append(id).append("@example.com").append(',')
+                    .append(city[0]).append(',').append(city[1]).append(',')
+                    .append(now.minusSeconds(random.nextLong(3L * 365 * 86_400))).append('\n');
+            if (id % chunk == 0) {
+                copyCustomers(csv);
+            }
+        }
+        copyCustomers(csv);
+    }
+
+    private void copyCustomers(StringBuilder csv) throws SQLException, IOException {
+        copy("customers (customer_id, first_name, last_name, email, city, country, created_at)", csv);
+        connection.commit();
+        csv.setLength(0);
+    }
+
+    private void loadCategories(int categories) throws SQLException, IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int id = 1; id <= categories; id++) {
+            csv.append(id).append(",Category ").append(id).append(",Synthetic category ").append(id).append('\n');
+        }
+        copy("categories (category_id, category_name, description)", csv);
+        connection.commit();
+    }
+
+    // цены нужны дальше для позиций заказов, поэтому возвращаются в копейках по индексу product_id - 1
+    private long[] loadProducts(int products, int categories) throws SQLException, IOException {
+        long[] priceCents = new long[products];
+        StringBuilder csv = new StringBuilder(products * 64);
+        for (int id = 1; id <= products; id++) {
+            // логнормальная цена: медиана около 30, хвост до нескольких тысяч
+            long cents = Math.max(99, Math.round(Math.exp(3.4 + random.nextGaussian() * 1.0) * 100));
+            priceCents[id - 1] = cents;
+            csv.append(id).append(',')
+                    .append(1 + random.nextInt(categories)).append(',')
+                    .append("Product ").append(id).append(',');
+            appendMoney(csv, cents).append(',')
+                    .append(random.nextInt(1_000)).append(',')
+                    .append(now.minusSeconds(random.nextLong(3L * 365 * 86_400))).append('\n');
+        }
+        copy("products (product_id, category_id, product_name, price, in_stock, created_at)", csv);
+        connection.commit();
+        return priceCents;
+    }
+
+    private long loadOrders(int customers, long[] priceCents, ZipfSampler productSampler,
+                            double ordersPerCustomer, double itemsPerOrder, int days, int chunkOrders)
+            throws SQLException, IOException {
+        StringBuilder orders = new StringBuilder();
+        StringBuilder items = new StringBuilder();
+        StringBuilder payments = new StringBuilder();
+
+        long orderId = 0;
+        long itemId = 0;
+        long paymentId = 0;
+        int inChunk = 0;
+        // в заказе не больше разных товаров, чем есть в каталоге, иначе distinctProduct не завершится
+        long[] orderProducts = new long[Math.min(32, priceCents.length)];
+
+        for (int customerId = 1; customerId <= customers; customerId++) {
+            int orderCount = geometric(ordersPerCustomer);
+            for (int n = 0; n < orderCount; n++) {
+                orderId++;
+                Instant orderDate = now.minusSeconds(random.nextLong((long) days * 86_400));
+                String status = STATUSES[weighted(STATUS_WEIGHTS)];
+                String[] city = CITIES[random.nextInt(CITIES.length)];
+
+                int lines = Math.min(orderProducts.length, 1 + geometric(itemsPerOrder - 1));
+                long totalCents = 0;
+                for (int line = 0; line < lines; line++) {
+                    long productId = distinctProduct(productSampler, orderProducts, line);
+                    orderProducts[line] = productId;
+                    int quantity = 1 + random.nextInt(3);
+                    long unitCents = priceCents[(int) productId - 1];
+                    totalCents += unitCents * quantity;
+
+                    items.append(++itemId).append(',').append(orderId).append(',')
+                            .append(productId).append(',').append(quantity).append(',');
+                    appendMoney(items, unitCents).append('\n');
+                }
+
+                Instant updatedAt = orderDate;
+                if (!"pending".equals(status) && !"cancelled".equals(status)) {
+                    Instant paidAt = orderDate.plusSeconds(60 + random.nextLong(3_600));
+                    updatedAt = paidAt;
+                    payments.append(++paymentId).append(',').append(orderId).append(',')
+                            .append(PAYMENT_METHODS[weighted(PAYMENT_WEIGHTS)]).append(',');
+                    appendMoney(payments, totalCents).append(',').append(paidAt).append('\n');
+                }
+
+                orders.append(orderId).append(',').append(customerId).append(',')
+                        .append(orderDate).append(',').append(status).append(',')
+                        .append(city[0]).append(',').append(city[1]).append(',');
+                appendMoney(orders, totalCents).append(',')
+                        .append(lines).append(',').append(updatedAt).append('\n');
+
+                if (++inChunk >= chunkOrders) {
+                    flushOrders(orders, items, payments);
+                    inChunk = 0;
+                    System.out.printf("  orders loaded: %d%n", orderId);
+                }
+            }
+        }
+        flushOrders(orders, items, payments);
+        return orderId;
+    }
+
+    private void flushOrders(StringBuilder orders, StringBuilder items, StringBuilder payments)
+            throws SQLException, IOException {
+        copy("orders (order_id, customer_id, order_date, status, shipping_city, shipping_country, "
+                + "total_amount, items_count, updated_at)", orders);
+        copy("order_items (order_item_id, order_id, product_id, quantity, unit_price)", items);
+        copy("payments (payment_id, order_id, method, amount, paid_at)", payments);
+        connection.commit();
+        orders.setLength(0);
+        items.setLength(0);
+        payments.setLength(0);
+    }
+
+    // id заданы явно, поэтому последовательности выставляются по факту, затем свежая статистика
+    private void finish() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String[] serial : new String[][]{
+                    {"customers", "customer_id"}, {"categories", "category_id"}, {"products", "product_id"},
+                    {"orders", "order_id"}, {"order_items", "order_item_id"}, {"payments", "payment_id"}}) {
+                statement.execute("select setval(pg_get_serial_sequence('" + serial[0] + "', '" + serial[1]
+                        + "'), coalesce((select max(" + serial[1] + ") from " + serial[0] + "), 0) + 1, false)");
+            }
+            connection.commit();
+            connection.setAutoCommit(true);
+            statement.execute("analyze customers, categories, products, orders, order_items, payments");
+        }
+    }
+
+    private void copy(String target, StringBuilder csv) throws SQLException, IOException {
+        if (csv.isEmpty()) {
+            return;
+        }
+        copy.copyIn("copy " + target + " from stdin (format csv)", new StringReader(csv.toString()));
+    }
+
+    private long distinctProduct(ZipfSampler sampler, long[] chosen, int count) {
+        while (true) {
+            long productId = sampler.next(random);
+            boolean duplicate = false;
+            for (int i = 0; i < count && !duplicate; i++) {
+                duplicate = chosen[i] == productId;
+            }
+            if (!duplicate) {
+                return productId;
+            }
+        }
+    }
+
+    // число неудач до первого успеха с заданным средним
+    private int geometric(double mean) {
+        if (mean <= 0) {
+            return 0;
+        }
+        double p = 1.0 / (mean + 1.0);
+        return (int) Math.floor(Math.log(1.0 - random.nextDouble()) / Math.log(1.0 - p));
+    }
+
+    private int weighted(double[] weights) {
+        double r = random.nextDouble();
+        for (int i = 0; i < weights.length - 1; i++) {
+            r -= weights[i];
+            if (r < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private static StringBuilder appendMoney(StringBuilder sb, long cents) {
+        sb.append(cents / 100).append('.');
+        long fraction = cents % 100;
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        return sb.append(fraction);
+    }
+}
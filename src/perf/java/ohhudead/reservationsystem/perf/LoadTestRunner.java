@@ -0,0 +1,347 @@
+package ohhudead.reservationsystem.perf;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Нагрузочный прогон по существующим контроллерам: закрытая модель, concurrency
+ * виртуальных пользователей шлют запросы без пауз, сценарий выбирается по весам.
+ *
+ * <pre>
+ *   ./gradlew loadTest --args="--duration=PT60S --concurrency=64 --label=before"
+ *   ./gradlew loadTest --args="--label=after --baseline=build/perf/load-before.csv"
+ * </pre>
+ *
+ * Параметры: base-url, duration, warmup, concurrency, seed, customers, categories, products,
+ * product-skew (должны совпадать с параметрами generateDataset), mix (веса сценариев,
+ * например product-by-id=50,create-order=5; reactive-* - те же чтения через /api/reactive),
+ * label, out, baseline.
+ * Последовательность запросов каждого пользователя определяется seed, поэтому два прогона
+ * с одинаковыми параметрами на одних и тех же данных сравнимы. Задержка считается от
+ * отправки до получения тела ответа; ответы не 2xx идут в errors и в перцентили не попадают.
+ */
+public final class LoadTestRunner {
+
+    private static final String DEFAULT_MIX = "product-by-id=40,products-by-category=10,products-batch=10,"
+            + "categories=10,customer-orders=25,sales-report=5,create-order=0,"
+            + "reactive-product-by-id=0,reactive-products-by-category=0,reactive-categories=0,"
+            + "products-by-category-sparse=0";
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    public static void main(String[] argv) throws Exception {
+        Args args = Args.parse(argv);
+        new LoadTestRunner().run(args);
+    }
+
+    private void run(Args args) throws Exception {
+        String baseUrl = args.string("base-url", "http://localhost:8080");
+        Duration duration = Duration.parse(args.string("duration", "PT60S"));
+        Duration warmup = Duration.parse(args.string("warmup", "PT10S"));
+        int concurrency = args.intValue("concurrency", 32);
+        long seed = args.longValue("seed", 42);
+
+        List<Scenario> scenarios = scenarios(args, baseUrl);
+        int totalWeight = scenarios.stream().mapToInt(Scenario::weight).sum();
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("All scenario weights are zero");
+        }
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long deadline = measureFrom + duration.toNanos();
+
+        List<Map<String, Samples>> perWorker = new ArrayList<>();
+        SplittableRandom seeds = new SplittableRandom(seed);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Map<String, Samples>>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                SplittableRandom random = seeds.split();
+                futures.add(executor.submit(() -> worker(scenarios, totalWeight, random, measureFrom, deadline)));
+            }
+            for (Future<Map<String, Samples>> future : futures) {
+                perWorker.add(future.get());
+            }
+        }
+
+        Map<String, Samples> merged = new LinkedHashMap<>();
+        for (Scenario scenario : scenarios) {
+            if (scenario.weight() > 0) {
+                merged.put(scenario.name(), new Samples());
+            }
+        }
+        for (Map<String, Samples> worker : perWorker) {
+            worker.forEach((name, samples) -> merged.get(name).addAll(samples));
+        }
+
+        List<Result> results = new ArrayList<>();
+        double seconds = duration.toNanos() / 1e9;
+        merged.forEach((name, samples) -> results.add(samples.summarize(name, seconds)));
+        results.add(Samples.total(merged.values()).summarize("TOTAL", seconds));
+
+        print(results, args, concurrency, duration);
+        Path out = write(results, args);
+        System.out.println("Results written to " + out);
+
+        String baseline = args.string("baseline", null);
+        if (baseline != null) {
+            compare(results, Path.of(baseline));
+        }
+    }
+
+    private Map<String, Samples> worker(List<Scenario> scenarios, int totalWeight, SplittableRandom random,
+                                        long measureFrom, long deadline) {
+        Map<String, Samples> samples = new HashMap<>();
+        while (true) {
+            Scenario scenario = pick(scenarios, totalWeight, random);
+            HttpRequest request = scenario.request().apply(random);
+
+            long sent = System.nanoTime();
+            if (sent >= deadline) {
+                return samples;
+            }
+            boolean ok;
+            try {
+                HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                ok = response.statusCode() / 100 == 2;
+            } catch (IOException e) {
+                ok = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return samples;
+            }
+            long received = System.nanoTime();
+
+            if (sent >= measureFrom && received <= deadline) {
+                Samples s = samples.computeIfAbsent(scenario.name(), n -> new Samples());
+                if (ok) {
+                    s.add(received - sent);
+                } else {
+                    s.errors++;
+                }
+            }
+        }
+    }
+
+    private static Scenario pick(List<Scenario> scenarios, int totalWeight, SplittableRandom random) {
+        int r = random.nextInt(totalWeight);
+        for (Scenario scenario : scenarios) {
+            r -= scenario.weight();
+            if (r < 0) {
+                return scenario;
+            }
+        }
+        throw new IllegalStateException("unreachable");
+    }
+
+    private static List<Scenario> scenarios(Args args, String baseUrl) {
+        int customers = args.intValue("customers", 1_000_000);
+        int categories = args.intValue("categories", 50);
+        int products = args.intValue("products", 20_000);
+        ZipfSampler productSampler = new ZipfSampler(products, args.doubleValue("product-skew", 1.1),
+                args.longValue("seed", 42));
+
+        Map<String, Function<SplittableRandom, HttpRequest>> factories = new LinkedHashMap<>();
+        factories.put("product-by-id", r -> get(baseUrl + "/api/products/" + productSampler.next(r)));
+        factories.put("products-by-category", r -> get(baseUrl + "/api/products?categoryId=" + (1 + r.nextInt(categories))));
+        factories.put("products-by-category-sparse", r -> get(baseUrl + "/api/products?categoryId="
+                + (1 + r.nextInt(categories)) + "&fields=id,name,price"));
+        factories.put("products-batch", r -> {
+            StringBuilder body = new StringBuilder("{\"ids\":[");
+            for (int i = 0; i < 20; i++) {
+                body.append(i == 0 ? "" : ",").append(productSampler.next(r));
+            }
+            return post(baseUrl + "/api/products/batch-get", body.append("]}").toString());
+        });
+        factories.put("categories", r -> get(baseUrl + "/api/categories"));
+        factories.put("customer-orders", r -> get(baseUrl + "/api/customers/" + (1 + r.nextInt(customers)) + "/orders?size=20"));
+        factories.put("sales-report", r -> {
+            LocalDate to = LocalDate.now().minusDays(r.nextInt(365));
+            return get(baseUrl + "/api/reports/sales?from=" + to.minusDays(30) + "&to=" + to + "&groupBy=CATEGORY");
+        });
+        factories.put("reactive-product-by-id", r -> get(baseUrl + "/api/reactive/products/" + productSampler.next(r)));
+        factories.put("reactive-products-by-category",
+                r -> get(baseUrl + "/api/reactive/products?categoryId=" + (1 + r.nextInt(categories))));
+        factories.put("reactive-categories", r -> get(baseUrl + "/api/reactive/categories"));
+        factories.put("create-order", r -> post(baseUrl + "/api/orders",
+                "{\"customerId\":" + (1 + r.nextInt(customers))
+                        + ",\"items\":[{\"productId\":" + productSampler.next(r) + ",\"quantity\":1}]"
+                        + ",\"shippingCity\":\"Berlin\",\"shippingCountry\":\"Germany\"}"));
+
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : (DEFAULT_MIX + "," + args.string("mix", "")).split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] kv = entry.split("=");
+            if (!factories.containsKey(kv[0])) {
+                throw new IllegalArgumentException("Unknown scenario: " + kv[0] + ", known: " + factories.keySet());
+            }
+            weights.put(kv[0], Integer.parseInt(kv[1]));
+        }
+
+        List<Scenario> scenarios = new ArrayList<>();
+        factories.forEach((name, factory) -> scenarios.add(new Scenario(name, weights.get(name), factory)));
+        return scenarios;
+    }
+
+    private static HttpRequest get(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+    }
+
+    private static HttpRequest post(String uri, String json) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept", "application/json")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static void print(List<Result> results, Args args, int concurrency, Duration duration) {
+        System.out.printf("%nLoad test: concurrency=%d, duration=%s, seed=%s%n",
+                concurrency, duration, args.string("seed", "42"));
+        System.out.printf("%-22s %9s %7s %10s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "rps", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Result r : results) {
+            System.out.printf("%-22s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    r.endpoint(), r.requests(), r.errors(), r.rps(), r.p50(), r.p99(), r.p999(), r.max());
+        }
+    }
+
+    private static Path write(List<Result> results, Args args) throws IOException {
+        String label = args.string("label", LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+        Path dir = Path.of(args.string("out", "build/perf"));
+        Files.createDirectories(dir);
+        Path file = dir.resolve("load-" + label + ".csv");
+
+        StringBuilder csv = new StringBuilder(Result.CSV_HEADER).append('\n');
+        for (Result r : results) {
+            csv.append(r.toCsv()).append('\n');
+        }
+        Files.writeString(file, csv);
+        return file;
+    }
+
+    private static void compare(List<Result> results, Path baselineFile) throws IOException {
+        Map<String, Result> baseline = new HashMap<>();
+        for (String line : Files.readAllLines(baselineFile)) {
+            if (!line.isBlank() && !line.startsWith("endpoint,")) {
+                Result r = Result.fromCsv(line);
+                baseline.put(r.endpoint(), r);
+            }
+        }
+        System.out.printf("%nAgainst %s:%n", baselineFile);
+        System.out.printf("%-22s %10s %10s %10s%n", "endpoint", "rps", "p99", "p999");
+        for (Result r : results) {
+            Result b = baseline.get(r.endpoint());
+            if (b != null) {
+                System.out.printf("%-22s %10s %10s %10s%n", r.endpoint(),
+                        delta(r.rps(), b.rps()), delta(r.p99(), b.p99()), delta(r.p999(), b.p999()));
+            }
+        }
+    }
+
+    private static String delta(double current, double baseline) {
+        if (baseline == 0) {
+            return "n/a";
+        }
+        return String.format("%+.1f%%", (current - baseline) / baseline * 100);
+    }
+
+    private record Scenario(String name, int weight, Function<SplittableRandom, HttpRequest> request) {
+    }
+
+    private record Result(String endpoint, long requests, long errors, double rps,
+                          double p50, double p99, double p999, double max) {
+
+        static final String CSV_HEADER = "endpoint,requests,errors,rps,p50_ms,p99_ms,p999_ms,max_ms";
+
+        String toCsv() {
+            return String.format(Locale.ROOT, "%s,%d,%d,%.2f,%.3f,%.3f,%.3f,%.3f",
+                    endpoint, requests, errors, rps, p50, p99, p999, max);
+        }
+
+        static Result fromCsv(String line) {
+            String[] f = line.split(",");
+            return new Result(f[0], Long.parseLong(f[1]), Long.parseLong(f[2]), Double.parseDouble(f[3]),
+                    Double.parseDouble(f[4]), Double.parseDouble(f[5]), Double.parseDouble(f[6]),
+                    Double.parseDouble(f[7]));
+        }
+    }
+
+    // задержки в наносекундах; у каждого пользователя свои, сливаются после прогона
+    private static final class Samples {
+
+        private long[] values = new long[1024];
+        private int size;
+        private long errors;
+
+        void add(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+
+        void addAll(Samples other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.size));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+            errors += other.errors;
+        }
+
+        static Samples total(Iterable<Samples> all) {
+            Samples total = new Samples();
+            all.forEach(total::addAll);
+            return total;
+        }
+
+        Result summarize(String endpoint, double seconds) {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return new Result(endpoint, size, errors, size / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                    size == 0 ? 0 : sorted[size - 1] / 1e6);
+        }
+
+        // nearest-rank
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
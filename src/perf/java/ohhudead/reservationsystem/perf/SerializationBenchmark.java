@@ -0,0 +1,142 @@
+package ohhudead.reservationsystem.perf;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import ohhudead.reservationsystem.config.BinaryFormatsConfig;
+import ohhudead.reservationsystem.dto.OrderItemResponse;
+import ohhudead.reservationsystem.dto.OrderResponse;
+import ohhudead.reservationsystem.dto.ProductResponse;
+import ohhudead.reservationsystem.entity.OrderStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Размер и стоимость кодирования/декодирования одних и тех же DTO в JSON, CBOR и Smile
+ * теми же мапперами, что отдают HTTP-конвертеры.
+ *
+ * <pre>
+ *   ./gradlew serializationBenchmark --args="--warmup=PT3S --measure=PT5S"
+ * </pre>
+ *
+ * Это не JMH: цифры годятся для сравнения форматов между собой на одной машине,
+ * а не как абсолютные значения.
+ */
+public final class SerializationBenchmark {
+
+    private static long sink;
+
+    public static void main(String[] argv) throws IOException {
+        Args args = Args.parse(argv);
+        Duration warmup = Duration.parse(args.string("warmup", "PT3S"));
+        Duration measure = Duration.parse(args.string("measure", "PT5S"));
+
+        Map<String, ObjectMapper> formats = new LinkedHashMap<>();
+        formats.put("json", builder().build());
+        formats.put("cbor", BinaryFormatsConfig.cborMapper(builder()));
+        formats.put("smile", BinaryFormatsConfig.smileMapper(builder()));
+
+        Map<String, Object> payloads = new LinkedHashMap<>();
+        payloads.put("product", product(1));
+        payloads.put("products x1000", IntStream.rangeClosed(1, 1000).mapToObj(SerializationBenchmark::product).toList());
+        payloads.put("order x5 items", order());
+
+        System.out.printf("%-16s %-6s %10s %8s %14s %14s%n", "payload", "format", "bytes", "vs json",
+                "encode ns/op", "decode ns/op");
+        for (Map.Entry<String, Object> payload : payloads.entrySet()) {
+            int jsonSize = 0;
+            for (Map.Entry<String, ObjectMapper> format : formats.entrySet()) {
+                ObjectMapper mapper = format.getValue();
+                Object value = payload.getValue();
+                JavaType type = value instanceof List<?>
+                        ? mapper.getTypeFactory().constructCollectionType(List.class, ProductResponse.class)
+                        : mapper.constructType(value.getClass());
+
+                byte[] bytes = mapper.writeValueAsBytes(value);
+                if (jsonSize == 0) {
+                    jsonSize = bytes.length;
+                }
+
+                measureNanos(warmup, () -> sink += mapper.writeValueAsBytes(value).length);
+                double encode = measureNanos(measure, () -> sink += mapper.writeValueAsBytes(value).length);
+                measureNanos(warmup, () -> sink += mapper.readValue(bytes, type).hashCode());
+                double decode = measureNanos(measure, () -> sink += mapper.readValue(bytes, type).hashCode());
+
+                System.out.printf("%-16s %-6s %10d %7.0f%% %14.0f %14.0f%n", payload.getKey(), format.getKey(),
+                        bytes.length, 100.0 * bytes.length / jsonSize, encode, decode);
+            }
+        }
+        System.out.println("(sink " + (sink & 1) + ")");
+    }
+
+    private static double measureNanos(Duration duration, Op op) throws IOException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        long ops = 0;
+        long start = System.nanoTime();
+        long now;
+        do {
+            for (int i = 0; i < 100; i++) {
+                op.run();
+            }
+            ops += 100;
+            now = System.nanoTime();
+        } while (now < deadline);
+        return (double) (now - start) / ops;
+    }
+
+    // как настраивает builder Spring Boot по умолчанию
+    private static Jackson2ObjectMapperBuilder builder() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static ProductResponse product(int id) {
+        return ProductResponse.builder()
+                .id((long) id)
+                .name("Product " + id)
+                .price(BigDecimal.valueOf(1999 + id, 2))
+                .inStock(id % 1000)
+                .categoryId(1L + id % 50)
+                .categoryName("Category " + (1 + id % 50))
+                .createdAt(OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).plusMinutes(id))
+                .build();
+    }
+
+    private static OrderResponse order() {
+        List<OrderItemResponse> items = IntStream.rangeClosed(1, 5)
+                .mapToObj(i -> OrderItemResponse.builder()
+                        .id((long) i)
+                        .productId((long) i * 17)
+                        .productName("Product " + i * 17)
+                        .quantity(i)
+                        .unitPrice(BigDecimal.valueOf(999 + i, 2))
+                        .subtotal(BigDecimal.valueOf((999L + i) * i, 2))
+                        .build())
+                .toList();
+        return OrderResponse.builder()
+                .id(1L)
+                .customerId(42L)
+                .orderDate(OffsetDateTime.of(2024, 5, 1, 12, 30, 0, 0, ZoneOffset.UTC))
+                .status(OrderStatus.paid)
+                .totalAmount(items.stream().map(OrderItemResponse::getSubtotal).reduce(BigDecimal.ZERO, BigDecimal::add))
+                .itemsCount(items.size())
+                .shippingCity("Berlin")
+                .shippingCountry("Germany")
+                .items(items)
+                .build();
+    }
+
+    @FunctionalInterface
+    private interface Op {
+        void run() throws IOException;
+    }
+}
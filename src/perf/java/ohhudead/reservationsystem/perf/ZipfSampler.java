@@ -0,0 +1,47 @@
+package ohhudead.reservationsystem.perf;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Выбор id 1..n с распределением Ципфа: вероятность ранга k пропорциональна 1/k^s.
+ * Ранги перемешаны по seed, чтобы популярные товары не были просто первыми по id
+ * и не лежали рядом на диске.
+ */
+final class ZipfSampler {
+
+    private final double[] cumulative;
+    private final long[] idByRank;
+
+    ZipfSampler(int n, double exponent, long seed) {
+        cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= sum;
+        }
+
+        idByRank = new long[n];
+        for (int i = 0; i < n; i++) {
+            idByRank[i] = i + 1;
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long tmp = idByRank[i];
+            idByRank[i] = idByRank[j];
+            idByRank[j] = tmp;
+        }
+    }
+
+    long next(SplittableRandom random) {
+        int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+        if (rank < 0) {
+            rank = Math.min(-rank - 1, cumulative.length - 1);
+        }
+        return idByRank[rank];
+    }
+}
@@ -0,0 +1,147 @@
+package ohhudead.reservationsystem.archive;
+
+import ohhudead.reservationsystem.dto.OrderSummaryResponse;
+import ohhudead.reservationsystem.entity.OrderStatus;
+import ohhudead.reservationsystem.entity.PaymentMethod;
+import ohhudead.reservationsystem.repository.OrderHistoryCursor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderArchiveSegmentRoundTripTest {
+
+    // 4 строки в блоке: 15 заказов дают 4 блока, диапазоны покупателей их пересекают
+    private static final int BLOCK_ROWS = 4;
+    private static final OffsetDateTime BASE = OffsetDateTime.of(2023, 3, 1, 10, 0, 0, 123_456_000, ZoneOffset.UTC);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void fullHistoryOfEveryCustomerRoundTripsAcrossBlocks() throws IOException {
+        List<ArchivedOrder> orders = orders();
+        OrderArchiveSegment segment = write(orders);
+
+        assertThat(segment.rows()).isEqualTo(orders.size());
+        for (long customerId : new long[]{1, 2, 5}) {
+            assertThat(segment.findOrderSummaries(customerId, null, 100))
+                    .containsExactlyElementsOf(expected(orders, customerId, null, 100));
+        }
+    }
+
+    @Test
+    void pagingByCursorReturnsEveryRowOnce() throws IOException {
+        List<ArchivedOrder> orders = orders();
+        OrderArchiveSegment segment = write(orders);
+
+        for (long customerId : new long[]{1, 2, 5}) {
+            List<OrderSummaryResponse> pages = new ArrayList<>();
+            OrderHistoryCursor cursor = null;
+            List<OrderSummaryResponse> page;
+            do {
+                page = segment.findOrderSummaries(customerId, cursor, 2);
+                pages.addAll(page);
+                if (!page.isEmpty()) {
+                    OrderSummaryResponse last = page.get(page.size() - 1);
+                    cursor = new OrderHistoryCursor(last.orderDate(), last.id());
+                }
+            } while (page.size() == 2);
+
+            assertThat(pages).containsExactlyElementsOf(expected(orders, customerId, null, 100));
+        }
+    }
+
+    @Test
+    void cursorOnLastRowOfBlockContinuesInNextBlock() throws IOException {
+        List<ArchivedOrder> orders = orders();
+        OrderArchiveSegment segment = write(orders);
+
+        // покупатель 1 занимает строки 0-4: строка 3 - последняя в блоке 0, строка 4 - первая в блоке 1
+        List<OrderSummaryResponse> history = expected(orders, 1, null, 100);
+        OrderSummaryResponse lastOfBlock = history.get(BLOCK_ROWS - 1);
+        OrderHistoryCursor cursor = new OrderHistoryCursor(lastOfBlock.orderDate(), lastOfBlock.id());
+
+        assertThat(segment.findOrderSummaries(1, cursor, 100)).containsExactlyElementsOf(history.subList(BLOCK_ROWS, 5));
+    }
+
+    @Test
+    void cursorBeforeFirstAndPastLastEntry() throws IOException {
+        List<ArchivedOrder> orders = orders();
+        OrderArchiveSegment segment = write(orders);
+        List<OrderSummaryResponse> history = expected(orders, 2, null, 100);
+
+        OrderHistoryCursor beforeFirst = new OrderHistoryCursor(BASE.plusYears(1), Long.MAX_VALUE);
+        assertThat(segment.findOrderSummaries(2, beforeFirst, 100)).containsExactlyElementsOf(history);
+
+        OrderSummaryResponse last = history.get(history.size() - 1);
+        assertThat(segment.findOrderSummaries(2, new OrderHistoryCursor(last.orderDate(), last.id()), 100))
+                .isEmpty();
+        assertThat(segment.findOrderSummaries(2, new OrderHistoryCursor(BASE.minusYears(1), 0), 100))
+                .isEmpty();
+    }
+
+    @Test
+    void customersOutsideSegmentOrInGapHaveNoRows() throws IOException {
+        OrderArchiveSegment segment = write(orders());
+
+        assertThat(segment.findOrderSummaries(0, null, 100)).isEmpty();
+        assertThat(segment.findOrderSummaries(3, null, 100)).isEmpty();
+        assertThat(segment.findOrderSummaries(6, null, 100)).isEmpty();
+    }
+
+    private OrderArchiveSegment write(List<ArchivedOrder> orders) throws IOException {
+        Path path = directory.resolve("orders-1" + SegmentFormat.SUFFIX);
+        new OrderArchiveWriter(BLOCK_ROWS).write(path, orders);
+        return OrderArchiveSegment.open(path);
+    }
+
+    // покупатели 1 (5 заказов), 2 (7), 5 (3); у покупателя 1 два заказа с одной датой
+    private static List<ArchivedOrder> orders() {
+        List<ArchivedOrder> orders = new ArrayList<>();
+        long orderId = 100;
+        int[][] customers = {{1, 5}, {2, 7}, {5, 3}};
+        for (int[] customer : customers) {
+            for (int i = 0; i < customer[1]; i++) {
+                OffsetDateTime date = customer[0] == 1 && i == 2 ? BASE.plusHours(1) : BASE.plusHours(i);
+                orders.add(order(orderId++, customer[0], date, i));
+            }
+        }
+        return orders;
+    }
+
+    private static ArchivedOrder order(long orderId, long customerId, OffsetDateTime date, int seed) {
+        OrderStatus status = seed % 2 == 0 ? OrderStatus.delivered : OrderStatus.cancelled;
+        ArchivedOrder.Payment payment = status == OrderStatus.delivered
+                ? new ArchivedOrder.Payment(orderId, PaymentMethod.card, new BigDecimal("10.50"), date)
+                : null;
+        return new ArchivedOrder(orderId, customerId, date, status, "Москва", "Россия",
+                BigDecimal.valueOf(1_050L * (seed + 1), 2), seed + 1, date, 0,
+                List.of(new ArchivedOrder.Item(orderId * 10, 7, seed + 1, new BigDecimal("10.50"))),
+                payment);
+    }
+
+    // ожидаемая выдача: строки покупателя в порядке (order_date desc, order_id desc) строго после курсора
+    private static List<OrderSummaryResponse> expected(List<ArchivedOrder> orders, long customerId,
+                                                       OrderHistoryCursor after, int limit) {
+        return orders.stream()
+                .filter(o -> o.customerId() == customerId)
+                .sorted(Comparator.comparing(ArchivedOrder::orderDate).thenComparingLong(ArchivedOrder::orderId)
+                        .reversed())
+                .filter(o -> after == null || o.orderDate().isBefore(after.orderDate())
+                        || (o.orderDate().isEqual(after.orderDate()) && o.orderId() < after.orderId()))
+                .limit(limit)
+                .map(o -> new OrderSummaryResponse(o.orderId(), o.orderDate(), o.status(), o.totalAmount(),
+                        o.itemsCount()))
+                .toList();
+    }
+}
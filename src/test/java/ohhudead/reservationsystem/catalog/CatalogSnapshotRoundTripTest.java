@@ -0,0 +1,83 @@
+package ohhudead.reservationsystem.catalog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogSnapshotRoundTripTest {
+
+    private static final OffsetDateTime AS_OF = OffsetDateTime.of(2024, 5, 20, 12, 0, 0, 654_321_000, ZoneOffset.UTC);
+    private static final OffsetDateTime CREATED = AS_OF.minusDays(3);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void findProductHitsAndMisses() throws IOException {
+        CatalogSnapshot snapshot = write();
+
+        assertThat(snapshot.productCount()).isEqualTo(5);
+        assertThat(snapshot.asOf()).isEqualTo(AS_OF);
+        assertThat(snapshot.changePosition()).isEqualTo(4242L);
+        assertThat(snapshot.findProduct(11)).contains(read(product(11, 2, "Чайник", "1299.90", 7)));
+        assertThat(snapshot.findProduct(40)).contains(read(product(40, 1, "Кружка", "0.99", 0)));
+        assertThat(snapshot.findProduct(0)).isEmpty();
+        assertThat(snapshot.findProduct(12)).isEmpty();
+        assertThat(snapshot.findProduct(41)).isEmpty();
+        assertThat(snapshot.products()).extracting(ProductRow::id).containsExactly(3L, 5L, 11L, 20L, 40L);
+    }
+
+    @Test
+    void productsInCategoryAreGroupedInIdOrder() throws IOException {
+        CatalogSnapshot snapshot = write();
+
+        assertThat(snapshot.productsInCategory(1)).extracting(ProductRow::id).containsExactly(5L, 20L, 40L);
+        assertThat(snapshot.productsInCategory(2)).extracting(ProductRow::id).containsExactly(3L, 11L);
+        // категория без товаров и неизвестная категория
+        assertThat(snapshot.productsInCategory(7)).isEmpty();
+        assertThat(snapshot.productsInCategory(99)).isEmpty();
+    }
+
+    @Test
+    void categoriesKeepNullDescriptions() throws IOException {
+        CatalogSnapshot snapshot = write();
+
+        assertThat(snapshot.categoryCount()).isEqualTo(3);
+        assertThat(snapshot.findCategory(1)).contains(new CategoryRow(1, "Посуда", "Для кухни", null));
+        assertThat(snapshot.findCategory(2)).contains(new CategoryRow(2, "Техника", null, null));
+        assertThat(snapshot.findCategory(7)).contains(new CategoryRow(7, "Пустая", "", null));
+        assertThat(snapshot.findCategory(3)).isEmpty();
+    }
+
+    private CatalogSnapshot write() throws IOException {
+        Path path = directory.resolve("catalog.snap");
+        // порядок на входе не отсортирован: сортирует writer
+        CatalogSnapshotWriter.write(path, new CatalogContents(AS_OF, 4242L,
+                List.of(category(7, "Пустая", ""), category(2, "Техника", null), category(1, "Посуда", "Для кухни")),
+                List.of(product(40, 1, "Кружка", "0.99", 0), product(11, 2, "Чайник", "1299.90", 7),
+                        product(5, 1, "Тарелка", "250.00", 12), product(3, 2, "Тостер", "3490.50", 1),
+                        product(20, 1, "Вилка", "45.10", 300))));
+        return CatalogSnapshot.open(path);
+    }
+
+    private static CategoryRow category(long id, String name, String description) {
+        return new CategoryRow(id, name, description, AS_OF);
+    }
+
+    private static ProductRow product(long id, long categoryId, String name, String price, int inStock) {
+        return new ProductRow(id, categoryId, name, new BigDecimal(price), inStock, CREATED.plusMinutes(id), AS_OF);
+    }
+
+    // снапшот не хранит updatedAt
+    private static ProductRow read(ProductRow row) {
+        return new ProductRow(row.id(), row.categoryId(), row.name(), row.price(), row.inStock(), row.createdAt(), null);
+    }
+}
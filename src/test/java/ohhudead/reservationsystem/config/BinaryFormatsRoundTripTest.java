@@ -0,0 +1,129 @@
+package ohhudead.reservationsystem.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import ohhudead.reservationsystem.dto.CategoryResponse;
+import ohhudead.reservationsystem.dto.OrderItemResponse;
+import ohhudead.reservationsystem.dto.OrderResponse;
+import ohhudead.reservationsystem.dto.ProductResponse;
+import ohhudead.reservationsystem.entity.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BinaryFormatsRoundTripTest {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private final BinaryFormatsConfig config = new BinaryFormatsConfig();
+
+    @Test
+    void productRoundTripsThroughCborAndSmile() throws IOException {
+        ProductResponse product = product(1);
+
+        assertThat(roundTrip(config.cborHttpMessageConverter(builder()), MediaType.APPLICATION_CBOR, product))
+                .isEqualTo(product);
+        assertThat(roundTrip(config.smileHttpMessageConverter(builder()), SMILE, product))
+                .isEqualTo(product);
+    }
+
+    @Test
+    void categoryRoundTripsThroughCborAndSmile() throws IOException {
+        CategoryResponse category = new CategoryResponse(7L, "Книги", null);
+
+        assertThat(roundTrip(config.cborHttpMessageConverter(builder()), MediaType.APPLICATION_CBOR, category))
+                .isEqualTo(category);
+        assertThat(roundTrip(config.smileHttpMessageConverter(builder()), SMILE, category))
+                .isEqualTo(category);
+    }
+
+    @Test
+    void orderWithItemsAndEnumRoundTrips() throws IOException {
+        OrderResponse order = OrderResponse.builder()
+                .id(10L)
+                .customerId(3L)
+                .orderDate(OffsetDateTime.of(2024, 5, 1, 12, 30, 0, 0, ZoneOffset.UTC))
+                .status(OrderStatus.paid)
+                .totalAmount(new BigDecimal("59.97"))
+                .itemsCount(1)
+                .shippingCity("Berlin")
+                .shippingCountry("Germany")
+                .items(List.of(OrderItemResponse.builder()
+                        .id(100L)
+                        .productId(1L)
+                        .productName("Product 1")
+                        .quantity(3)
+                        .unitPrice(new BigDecimal("19.99"))
+                        .subtotal(new BigDecimal("59.97"))
+                        .build()))
+                .build();
+
+        assertThat(roundTrip(config.cborHttpMessageConverter(builder()), MediaType.APPLICATION_CBOR, order))
+                .isEqualTo(order);
+        assertThat(roundTrip(config.smileHttpMessageConverter(builder()), SMILE, order))
+                .isEqualTo(order);
+    }
+
+    @Test
+    void binaryListsAreSmallerThanJson() throws IOException {
+        List<ProductResponse> products = IntStream.rangeClosed(1, 100).mapToObj(this::product).toList();
+        TypeReference<List<ProductResponse>> type = new TypeReference<>() {
+        };
+
+        ObjectMapper json = builder().build();
+        ObjectMapper cbor = BinaryFormatsConfig.cborMapper(builder());
+        ObjectMapper smile = BinaryFormatsConfig.smileMapper(builder());
+
+        byte[] jsonBytes = json.writeValueAsBytes(products);
+        byte[] cborBytes = cbor.writeValueAsBytes(products);
+        byte[] smileBytes = smile.writeValueAsBytes(products);
+
+        assertThat(cbor.readValue(cborBytes, type)).isEqualTo(products);
+        assertThat(smile.readValue(smileBytes, type)).isEqualTo(products);
+        assertThat(cborBytes.length).isLessThan(jsonBytes.length);
+        assertThat(smileBytes.length).isLessThan(jsonBytes.length);
+    }
+
+    // так же, как настраивает builder Spring Boot по умолчанию
+    private static Jackson2ObjectMapperBuilder builder() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T roundTrip(AbstractJackson2HttpMessageConverter converter, MediaType mediaType, T value)
+            throws IOException {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(value, mediaType, output);
+        assertThat(output.getHeaders().getContentType()).isEqualTo(mediaType);
+
+        MockHttpInputMessage input = new MockHttpInputMessage(output.getBodyAsBytes());
+        input.getHeaders().setContentType(mediaType);
+        return (T) converter.read(value.getClass(), input);
+    }
+
+    private ProductResponse product(int id) {
+        return ProductResponse.builder()
+                .id((long) id)
+                .name("Product " + id)
+                .price(new BigDecimal("19.99"))
+                .inStock(100 + id)
+                .categoryId(1L + id % 5)
+                .categoryName("Category " + (1 + id % 5))
+                .createdAt(OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC))
+                .build();
+    }
+}
@@ -0,0 +1,45 @@
+package ohhudead.reservationsystem.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import static ohhudead.reservationsystem.entity.OrderStatus.cancelled;
+import static ohhudead.reservationsystem.entity.OrderStatus.delivered;
+import static ohhudead.reservationsystem.entity.OrderStatus.paid;
+import static ohhudead.reservationsystem.entity.OrderStatus.pending;
+import static ohhudead.reservationsystem.entity.OrderStatus.shipped;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderStatusTest {
+
+    @Test
+    void transitionsMatchSpecificationForEveryPair() {
+        // API_SPECIFICATION.md 4.4
+        Map<OrderStatus, Set<OrderStatus>> allowed = new EnumMap<>(OrderStatus.class);
+        allowed.put(pending, EnumSet.of(paid, cancelled));
+        allowed.put(paid, EnumSet.of(shipped, cancelled));
+        allowed.put(shipped, EnumSet.of(delivered));
+        allowed.put(delivered, EnumSet.noneOf(OrderStatus.class));
+        allowed.put(cancelled, EnumSet.noneOf(OrderStatus.class));
+
+        for (OrderStatus from : OrderStatus.values()) {
+            for (OrderStatus to : OrderStatus.values()) {
+                assertThat(from.canTransitionTo(to))
+                        .as("%s -> %s", from, to)
+                        .isEqualTo(allowed.get(from).contains(to));
+            }
+            assertThat(from.allowedTransitions()).isEqualTo(allowed.get(from));
+        }
+    }
+
+    @Test
+    void noStatusTransitionsToItself() {
+        for (OrderStatus status : OrderStatus.values()) {
+            assertThat(status.canTransitionTo(status)).as("%s -> %s", status, status).isFalse();
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package ohhudead.reservationsystem.scheduler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ohhudead.reservationsystem.config.JobProperties;
+import ohhudead.reservationsystem.job.IdRange;
+import ohhudead.reservationsystem.job.JobPartition;
+import ohhudead.reservationsystem.job.PartitionedJob;
+import ohhudead.reservationsystem.repository.JobPartitionRepository;
+import ohhudead.reservationsystem.service.PartitionedJobService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PartitionedJobSchedulerTest {
+
+    private static final String OWNER = "node-a";
+    private static final Duration LEASE = Duration.ofMinutes(2);
+
+    private final FakeJobPartitionRepository repository = new FakeJobPartitionRepository();
+    private final PartitionedJobService service = new PartitionedJobService(repository);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TestJob job = new TestJob();
+
+    private PartitionedJobScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        JobProperties properties = new JobProperties();
+        properties.setInstanceId(OWNER);
+        properties.setLease(LEASE);
+        properties.setWorkers(1);
+        scheduler = new PartitionedJobScheduler(List.of(job), service, properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void lostLeaseStopsPartitionAfterLastCommittedChunk() {
+        job.partitions = 1;
+        // после второй пачки партицию забирает другой инстанс
+        job.onChunk = call -> {
+            if (call == 2) {
+                repository.takeOver(0, "node-b");
+            }
+        };
+
+        scheduler.pollJobs();
+        awaitUntil(() -> counter("jobs.partitions.lost") == 1);
+
+        assertThat(job.calls).containsExactly(0L, 10L);
+        FakeJobPartitionRepository.Partition partition = repository.partition(0);
+        assertThat(partition.owner).isEqualTo("node-b");
+        assertThat(partition.checkpoint).isEqualTo(20);
+        assertThat(partition.done).isFalse();
+        assertThat(repository.run.finishedAt).isNull();
+    }
+
+    @Test
+    void shutdownReleasesPartitionAtCheckpoint() throws InterruptedException {
+        job.partitions = 1;
+        CountDownLatch inChunk = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        job.onChunk = call -> {
+            if (call == 1) {
+                inChunk.countDown();
+                await(resume);
+            }
+        };
+
+        scheduler.pollJobs();
+        await(inChunk);
+        Thread stopper = new Thread(() -> {
+            try {
+                scheduler.shutdown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        stopper.start();
+        // stopping уже выставлен, shutdown ждёт воркеров
+        awaitUntil(() -> stopper.getState() == Thread.State.TIMED_WAITING);
+        resume.countDown();
+        stopper.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertThat(job.calls).containsExactly(0L);
+        FakeJobPartitionRepository.Partition partition = repository.partition(0);
+        assertThat(partition.owner).isNull();
+        assertThat(partition.leaseUntil).isNull();
+        assertThat(partition.checkpoint).isEqualTo(10);
+        assertThat(partition.done).isFalse();
+        assertThat(counter("jobs.partitions.completed")).isZero();
+
+        // другой инстанс забирает отданную партицию сразу, не дожидаясь аренды
+        Optional<JobPartition> next = service.claim(job, "node-b", LEASE);
+        assertThat(next).isPresent();
+        assertThat(next.get().checkpoint()).isEqualTo(10);
+        assertThat(next.get().previousOwner()).isNull();
+    }
+
+    @Test
+    void expiredPartitionOfAnotherOwnerIsTakenOverFromCheckpoint() {
+        job.partitions = 1;
+        service.planRun(job);
+        JobPartition abandoned = service.claim(job, "node-dead", LEASE).orElseThrow();
+        repository.saveCheckpoint(abandoned, 30, false);
+        repository.now = repository.now.plus(LEASE).plusSeconds(1);
+
+        scheduler.pollJobs();
+        awaitUntil(() -> counter("jobs.partitions.completed") == 1);
+
+        assertThat(counter("jobs.partitions.stolen")).isEqualTo(1);
+        assertThat(job.calls).containsExactly(30L, 40L, 50L, 60L, 70L, 80L, 90L);
+        assertThat(repository.partition(0).done).isTrue();
+        assertThat(repository.partition(0).owner).isEqualTo(OWNER);
+        assertThat(repository.run.finishedAt).isNotNull();
+    }
+
+    @Test
+    void runFinishesWithItsLastPartitionOnly() {
+        job.partitions = 2;
+        assertThat(service.planRun(job)).isEqualTo(2);
+
+        JobPartition first = service.claim(job, OWNER, LEASE).orElseThrow();
+        JobPartition second = service.claim(job, "node-b", LEASE).orElseThrow();
+        drain(first, OWNER);
+        assertThat(repository.run.finishedAt).isNull();
+
+        drain(second, "node-b");
+        assertThat(repository.run.finishedAt).isNotNull();
+    }
+
+    @Test
+    void planRunClosesOrphanedRunBeforePlanningNext() {
+        job.partitions = 2;
+        service.planRun(job);
+        // все партиции готовы, но запуск не закрылся
+        repository.saveCheckpoint(repository.partition(0).toJobPartition(null), 50, true);
+        assertThat(service.planRun(job)).isZero();
+        assertThat(repository.run.runId).isEqualTo(1);
+
+        repository.saveCheckpoint(repository.partition(1).toJobPartition(null), 100, true);
+        repository.now = repository.now.plusMinutes(1);
+        // закрыт, но interval ещё не прошёл
+        assertThat(service.planRun(job)).isZero();
+        assertThat(repository.run.finishedAt).isNotNull();
+        assertThat(repository.run.runId).isEqualTo(1);
+
+        repository.now = repository.now.plus(job.interval());
+        assertThat(service.planRun(job)).isEqualTo(2);
+        assertThat(repository.run.runId).isEqualTo(2);
+        assertThat(repository.run.finishedAt).isNull();
+    }
+
+    private void drain(JobPartition partition, String owner) {
+        long checkpoint = partition.checkpoint();
+        while (checkpoint < partition.rangeTo()) {
+            OptionalLong next = service.processChunk(job, partition, checkpoint, owner, LEASE);
+            assertThat(next).isPresent();
+            checkpoint = next.getAsLong();
+        }
+    }
+
+    private double counter(String name) {
+        return meterRegistry.counter(name, "job", job.name()).count();
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met in 5s");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new AssertionError("Latch not released in 5s");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError(e);
+        }
+    }
+
+    // диапазон id 1..100, пачки по 10
+    private static class TestJob implements PartitionedJob {
+
+        final List<Long> calls = new CopyOnWriteArrayList<>();
+        volatile int partitions = 1;
+        volatile IntConsumer onChunk = call -> {
+        };
+
+        @Override
+        public String name() {
+            return "testJob";
+        }
+
+        @Override
+        public Duration interval() {
+            return Duration.ofHours(1);
+        }
+
+        @Override
+        public int partitions() {
+            return partitions;
+        }
+
+        @Override
+        public int chunkSize() {
+            return 10;
+        }
+
+        @Override
+        public Optional<IdRange> idRange() {
+            return Optional.of(new IdRange(1, 100));
+        }
+
+        @Override
+        public long processChunk(long afterId, long toId, int limit) {
+            calls.add(afterId);
+            onChunk.accept(calls.size());
+            return Math.min(afterId + limit, toId);
+        }
+    }
+
+    // job_runs и job_partitions одной задачи в памяти; now - время "базы"
+    static class FakeJobPartitionRepository extends JobPartitionRepository {
+
+        static class Run {
+            volatile long runId;
+            volatile OffsetDateTime startedAt;
+            volatile OffsetDateTime finishedAt;
+        }
+
+        static class Partition {
+            long runId;
+            int partitionNo;
+            long rangeTo;
+            long checkpoint;
+            boolean done;
+            String owner;
+            OffsetDateTime leaseUntil;
+
+            JobPartition toJobPartition(String previousOwner) {
+                return new JobPartition("testJob", runId, partitionNo, rangeTo, checkpoint, previousOwner);
+            }
+        }
+
+        final Run run = new Run();
+        final List<Partition> partitions = new ArrayList<>();
+        volatile OffsetDateTime now = OffsetDateTime.of(2024, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+        FakeJobPartitionRepository() {
+            super(null);
+        }
+
+        synchronized Partition partition(int partitionNo) {
+            return partitions.stream().filter(p -> p.partitionNo == partitionNo).findFirst().orElseThrow();
+        }
+
+        synchronized void takeOver(int partitionNo, String owner) {
+            Partition partition = partition(partitionNo);
+            partition.owner = owner;
+            partition.leaseUntil = now.plusMinutes(2);
+        }
+
+        @Override
+        public OffsetDateTime currentDbTime() {
+            return now;
+        }
+
+        @Override
+        public synchronized RunState lockRun(String jobName) {
+            return new RunState(run.runId, run.startedAt, run.finishedAt);
+        }
+
+        @Override
+        public synchronized int startRun(String jobName, long runId, long min, long max, int count, boolean empty) {
+            partitions.removeIf(p -> p.runId < runId);
+            run.runId = runId;
+            run.startedAt = now;
+            run.finishedAt = empty ? now : null;
+            if (empty) {
+                return 0;
+            }
+            long from = min - 1;
+            long span = max - from;
+            int created = (int) Math.max(1, Math.min(count, span));
+            for (int i = 0; i < created; i++) {
+                Partition partition = new Partition();
+                partition.runId = runId;
+                partition.partitionNo = i;
+                partition.checkpoint = from + span * i / created;
+                partition.rangeTo = from + span * (i + 1) / created;
+                partitions.add(partition);
+            }
+            return created;
+        }
+
+        @Override
+        public synchronized Optional<JobPartition> claim(String jobName, String owner, Duration lease) {
+            for (Partition partition : partitions) {
+                if (!partition.done && (partition.owner == null || partition.leaseUntil.isBefore(now))) {
+                    String previousOwner = partition.owner;
+                    partition.owner = owner;
+                    partition.leaseUntil = now.plus(lease);
+                    return Optional.of(partition.toJobPartition(previousOwner));
+                }
+            }
+            return Optional.empty();
+        }
+
+        @Override
+        public synchronized boolean renewLease(JobPartition claimed, String owner, Duration lease) {
+            Partition partition = partition(claimed.partitionNo());
+            if (partition.done || !owner.equals(partition.owner)) {
+                return false;
+            }
+            partition.leaseUntil = now.plus(lease);
+            return true;
+        }
+
+        @Override
+        public synchronized void saveCheckpoint(JobPartition claimed, long checkpoint, boolean done) {
+            Partition partition = partition(claimed.partitionNo());
+            partition.checkpoint = checkpoint;
+            partition.done = done;
+        }
+
+        @Override
+        public synchronized void release(JobPartition claimed, String owner) {
+            Partition partition = partition(claimed.partitionNo());
+            if (owner.equals(partition.owner)) {
+                partition.owner = null;
+                partition.leaseUntil = null;
+            }
+        }
+
+        @Override
+        public synchronized boolean finishRunIfComplete(String jobName, long runId) {
+            if (run.runId != runId || run.finishedAt != null
+                    || partitions.stream().anyMatch(p -> p.runId == runId && !p.done)) {
+                return false;
+            }
+            run.finishedAt = now;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package ohhudead.reservationsystem.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ohhudead.reservationsystem.config.OrderProperties;
+import ohhudead.reservationsystem.dto.CreateOrderItemRequest;
+import ohhudead.reservationsystem.dto.CreateOrderRequest;
+import ohhudead.reservationsystem.dto.OrderResponse;
+import ohhudead.reservationsystem.entity.OrderStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderIntakeServiceTest {
+
+    private final OrderService orderService = mock(OrderService.class);
+    private final OrderProperties properties = new OrderProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService clients = Executors.newFixedThreadPool(2);
+
+    private OrderIntakeService intake;
+
+    @BeforeEach
+    void setUp() {
+        OrderProperties.GroupCommit groupCommit = properties.getGroupCommit();
+        groupCommit.setEnabled(true);
+        // пачка из двух заказов закрывается сразу, одиночный ждёт попутчика до секунды
+        groupCommit.setMaxBatchSize(2);
+        groupCommit.setMaxWait(Duration.ofSeconds(1));
+        groupCommit.setResultTimeout(Duration.ofSeconds(5));
+        intake = new OrderIntakeService(orderService, properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        intake.stop();
+        clients.shutdownNow();
+    }
+
+    @Test
+    void timedOutRequestClaimsItsOrderAndBatchSkipsIt() throws InterruptedException {
+        properties.getGroupCommit().setResultTimeout(Duration.ofMillis(50));
+        CreateOrderRequest request = request(1);
+        OrderResponse created = response(1);
+        when(orderService.create(request)).thenReturn(created);
+
+        // поток пачки не запущен: заказ остаётся в очереди, пока запрос не заберёт его сам
+        assertThat(intake.create(request)).isSameAs(created);
+        assertThat(bypassed("timeout")).isEqualTo(1);
+
+        // запущенный поток находит в очереди уже забранный заказ и пропускает его
+        intake.start();
+        intake.stop();
+        verify(orderService, never()).createBatch(any());
+        verify(orderService, times(1)).create(request);
+    }
+
+    @Test
+    void orderClaimedByBatchWaitsForBatchPastTimeout() {
+        properties.getGroupCommit().setResultTimeout(Duration.ofMillis(50));
+        properties.getGroupCommit().setMaxWait(Duration.ofMillis(1));
+        when(orderService.createBatch(any())).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return outcomes(invocation);
+        });
+        intake.start();
+
+        assertThat(intake.create(request(1))).isEqualTo(response(1));
+        verify(orderService, never()).create(any());
+        assertThat(bypassed("timeout")).isZero();
+    }
+
+    @Test
+    void failedBatchCompletesEveryRequestWithFallback() throws Exception {
+        when(orderService.createBatch(any())).thenThrow(new IllegalStateException("deadlock detected"));
+        when(orderService.create(any())).thenAnswer(invocation ->
+                response(invocation.<CreateOrderRequest>getArgument(0).customerId()));
+        intake.start();
+
+        Future<OrderResponse> first = clients.submit(() -> intake.create(request(1)));
+        Future<OrderResponse> second = clients.submit(() -> intake.create(request(2)));
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(response(1));
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(response(2));
+        verify(orderService, times(2)).create(any());
+        assertThat(bypassed("batch-failed")).isEqualTo(2);
+    }
+
+    @Test
+    void errorFromBatchCompletesEveryRequestAndIntakeKeepsRunning() throws Exception {
+        when(orderService.createBatch(any()))
+                .thenThrow(new OutOfMemoryError("simulated"))
+                .thenAnswer(OrderIntakeServiceTest::outcomes);
+        when(orderService.create(any())).thenAnswer(invocation ->
+                response(invocation.<CreateOrderRequest>getArgument(0).customerId()));
+        intake.start();
+
+        Future<OrderResponse> first = clients.submit(() -> intake.create(request(1)));
+        Future<OrderResponse> second = clients.submit(() -> intake.create(request(2)));
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(response(1));
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(response(2));
+        assertThat(bypassed("batch-failed")).isEqualTo(2);
+
+        // поток order-intake пережил Error: следующий заказ снова идёт пачкой
+        assertThat(intake.create(request(3))).isEqualTo(response(3));
+        verify(orderService, times(2)).createBatch(any());
+        verify(orderService, times(2)).create(any());
+    }
+
+    private double bypassed(String reason) {
+        return meterRegistry.counter("orders.group-commit.bypassed", "reason", reason).count();
+    }
+
+    private static List<OrderService.BatchOutcome> outcomes(InvocationOnMock invocation) {
+        List<CreateOrderRequest> batch = invocation.getArgument(0);
+        return batch.stream()
+                .map(request -> new OrderService.BatchOutcome(response(request.customerId()), null))
+                .toList();
+    }
+
+    private static CreateOrderRequest request(long customerId) {
+        return new CreateOrderRequest(customerId, List.of(new CreateOrderItemRequest(10L, 1)),
+                "Москва", "Россия", null);
+    }
+
+    private static OrderResponse response(long customerId) {
+        return OrderResponse.builder()
+                .id(customerId * 100)
+                .customerId(customerId)
+                .status(OrderStatus.pending)
+                .build();
+    }
+}
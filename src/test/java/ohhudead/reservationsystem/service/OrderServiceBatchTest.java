@@ -0,0 +1,113 @@
+package ohhudead.reservationsystem.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ohhudead.reservationsystem.config.OrderProperties;
+import ohhudead.reservationsystem.dto.CreateOrderItemRequest;
+import ohhudead.reservationsystem.dto.CreateOrderRequest;
+import ohhudead.reservationsystem.exception.InsufficientStockException;
+import ohhudead.reservationsystem.exception.ResourceNotFoundException;
+import ohhudead.reservationsystem.mapper.OrderMapper;
+import ohhudead.reservationsystem.repository.CustomerRepository;
+import ohhudead.reservationsystem.repository.OrderBatchRepository;
+import ohhudead.reservationsystem.repository.OrderRepository;
+import ohhudead.reservationsystem.repository.ProductRepository;
+import ohhudead.reservationsystem.repository.StockHoldRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.aryEq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderServiceBatchTest {
+
+    private final OrderBatchRepository orderBatchRepository = mock(OrderBatchRepository.class);
+
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        orderService = new OrderService(mock(OrderRepository.class), mock(CustomerRepository.class),
+                mock(ProductRepository.class), orderBatchRepository, mock(StockHoldRepository.class),
+                mock(OrderMapper.class), new OrderProperties(), new SimpleMeterRegistry());
+
+        when(orderBatchRepository.findExistingCustomerIds(any())).thenReturn(Set.of(1L, 2L, 3L));
+        Map<Long, OrderBatchRepository.LockedProduct> products = new LinkedHashMap<>();
+        products.put(10L, new OrderBatchRepository.LockedProduct(10L, "Чайник", new BigDecimal("2.50"), 5));
+        products.put(20L, new OrderBatchRepository.LockedProduct(20L, "Кружка", new BigDecimal("1.00"), 3));
+        when(orderBatchRepository.lockProducts(any())).thenReturn(products);
+    }
+
+    @Test
+    void rejectedOrdersDoNotAffectOthersAndStockIsTakenInArrivalOrder() {
+        when(orderBatchRepository.nextOrderIds(2)).thenReturn(new long[]{100, 101});
+        when(orderBatchRepository.nextOrderItemIds(3)).thenReturn(new long[]{1000, 1001, 1002});
+
+        List<OrderService.BatchOutcome> outcomes = orderService.createBatch(List.of(
+                request(1, item(10, 3)),
+                // остатка 10 после первого заказа хватает только на 2
+                request(2, item(10, 3)),
+                request(3, item(10, 2), item(20, 1)),
+                request(99, item(20, 1)),
+                request(1, item(30, 1))));
+
+        assertThat(outcomes).hasSize(5);
+        assertThat(outcomes.get(0).error()).isNull();
+        assertThat(outcomes.get(0).order().getId()).isEqualTo(100L);
+        assertThat(outcomes.get(0).order().getTotalAmount()).isEqualByComparingTo("7.50");
+        assertThat(outcomes.get(1).order()).isNull();
+        assertThat(outcomes.get(1).error()).isInstanceOf(InsufficientStockException.class);
+        assertThat(outcomes.get(2).error()).isNull();
+        assertThat(outcomes.get(2).order().getId()).isEqualTo(101L);
+        assertThat(outcomes.get(2).order().getItemsCount()).isEqualTo(2);
+        assertThat(outcomes.get(3).error()).isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("Customer");
+        assertThat(outcomes.get(4).error()).isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("Product");
+
+        // одно суммарное списание по принятым заказам
+        verify(orderBatchRepository).decrementStock(aryEq(new long[]{10, 20}), aryEq(new int[]{5, 1}));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<OrderBatchRepository.NewOrder>> orders = ArgumentCaptor.forClass(List.class);
+        verify(orderBatchRepository).insertOrders(orders.capture());
+        assertThat(orders.getValue()).extracting(OrderBatchRepository.NewOrder::customerId).containsExactly(1L, 3L);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<OrderBatchRepository.NewOrderItem>> items = ArgumentCaptor.forClass(List.class);
+        verify(orderBatchRepository).insertOrderItems(items.capture());
+        assertThat(items.getValue()).extracting(OrderBatchRepository.NewOrderItem::orderId)
+                .containsExactly(100L, 101L, 101L);
+    }
+
+    @Test
+    void batchWithoutAcceptedOrdersWritesNothing() {
+        List<OrderService.BatchOutcome> outcomes = orderService.createBatch(List.of(
+                request(1, item(10, 6)),
+                request(99, item(20, 1))));
+
+        assertThat(outcomes).extracting(OrderService.BatchOutcome::order).containsOnlyNulls();
+        verify(orderBatchRepository, never()).decrementStock(any(), any());
+        verify(orderBatchRepository, never()).insertOrders(any());
+        verify(orderBatchRepository, never()).insertOrderItems(any());
+    }
+
+    private static CreateOrderRequest request(long customerId, CreateOrderItemRequest... items) {
+        return new CreateOrderRequest(customerId, List.of(items), "Москва", "Россия", null);
+    }
+
+    private static CreateOrderItemRequest item(long productId, int quantity) {
+        return new CreateOrderItemRequest(productId, quantity);
+    }
+}
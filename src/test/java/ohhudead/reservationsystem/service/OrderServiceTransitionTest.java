@@ -0,0 +1,95 @@
+package ohhudead.reservationsystem.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ohhudead.reservationsystem.config.OrderProperties;
+import ohhudead.reservationsystem.entity.OrderStatus;
+import ohhudead.reservationsystem.exception.ConcurrentModificationConflictException;
+import ohhudead.reservationsystem.exception.InvalidOrderStatusTransitionException;
+import ohhudead.reservationsystem.mapper.OrderMapper;
+import ohhudead.reservationsystem.repository.CustomerRepository;
+import ohhudead.reservationsystem.repository.OrderBatchRepository;
+import ohhudead.reservationsystem.repository.OrderRepository;
+import ohhudead.reservationsystem.repository.OrderStatusVersion;
+import ohhudead.reservationsystem.repository.ProductRepository;
+import ohhudead.reservationsystem.repository.StockHoldRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderServiceTransitionTest {
+
+    private static final long ORDER_ID = 42L;
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final OrderProperties properties = new OrderProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        properties.getStatusUpdate().setMaxAttempts(3);
+        orderService = new OrderService(orderRepository, mock(CustomerRepository.class), productRepository,
+                mock(OrderBatchRepository.class), mock(StockHoldRepository.class), mock(OrderMapper.class),
+                properties, meterRegistry);
+    }
+
+    @Test
+    void casConflictIsRetriedUntilMaxAttemptsThenReported() {
+        when(orderRepository.findStatusById(ORDER_ID))
+                .thenReturn(Optional.of(new OrderStatusVersion(OrderStatus.pending, 1L)));
+        when(orderRepository.compareAndSetStatus(eq(ORDER_ID), eq(OrderStatus.pending), eq(1L),
+                eq(OrderStatus.cancelled), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> orderService.cancel(ORDER_ID))
+                .isInstanceOf(ConcurrentModificationConflictException.class);
+
+        verify(orderRepository, times(3)).findStatusById(ORDER_ID);
+        verify(orderRepository, times(3)).compareAndSetStatus(any(), any(), any(), any(), any());
+        verify(productRepository, never()).restoreStockForOrder(any());
+        assertThat(meterRegistry.counter("orders.status.updates",
+                "target", "cancelled", "outcome", "exhausted").count()).isEqualTo(1);
+    }
+
+    @Test
+    void casConflictRereadsVersionAndSucceeds() {
+        when(orderRepository.findStatusById(ORDER_ID))
+                .thenReturn(Optional.of(new OrderStatusVersion(OrderStatus.pending, 1L)))
+                .thenReturn(Optional.of(new OrderStatusVersion(OrderStatus.pending, 2L)));
+        when(orderRepository.compareAndSetStatus(eq(ORDER_ID), eq(OrderStatus.pending), eq(1L),
+                eq(OrderStatus.cancelled), any())).thenReturn(0);
+        when(orderRepository.compareAndSetStatus(eq(ORDER_ID), eq(OrderStatus.pending), eq(2L),
+                eq(OrderStatus.cancelled), any())).thenReturn(1);
+
+        orderService.cancel(ORDER_ID);
+
+        verify(orderRepository, times(2)).compareAndSetStatus(any(), any(), any(), any(), any());
+        verify(productRepository).restoreStockForOrder(ORDER_ID);
+        assertThat(meterRegistry.summary("orders.status.cas.attempts").totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidTransitionIsRejectedWithoutRetry() {
+        when(orderRepository.findStatusById(ORDER_ID))
+                .thenReturn(Optional.of(new OrderStatusVersion(OrderStatus.delivered, 7L)));
+
+        assertThatThrownBy(() -> orderService.cancel(ORDER_ID))
+                .isInstanceOf(InvalidOrderStatusTransitionException.class);
+
+        verify(orderRepository, times(1)).findStatusById(ORDER_ID);
+        verify(orderRepository, never()).compareAndSetStatus(any(), any(), any(), any(), any());
+        verify(productRepository, never()).restoreStockForOrder(any());
+    }
+}
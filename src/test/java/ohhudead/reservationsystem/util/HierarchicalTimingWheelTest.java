@@ -0,0 +1,82 @@
+package ohhudead.reservationsystem.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HierarchicalTimingWheelTest {
+
+    @Test
+    void firesOnlyAfterExpiration() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(100, 8, 0);
+        wheel.schedule("a", 250);
+
+        assertThat(wheel.advance(200)).isEmpty();
+        assertThat(wheel.advance(299)).isEmpty();
+        assertThat(wheel.advance(300)).containsExactly("a");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cascadesFromOverflowLevels() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(10, 4, 0);
+        // 10ms * 4 = 40ms на нижнем уровне, 160ms на втором, дальше - третий
+        wheel.schedule(35L, 35);
+        wheel.schedule(150L, 150);
+        wheel.schedule(600L, 600);
+
+        assertThat(wheel.advance(100)).containsExactly(35L);
+        assertThat(wheel.advance(149)).isEmpty();
+        assertThat(wheel.advance(150)).containsExactly(150L);
+        assertThat(wheel.advance(599)).isEmpty();
+        assertThat(wheel.advance(600)).containsExactly(600L);
+    }
+
+    @Test
+    void cancelledTimersDoNotFire() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(100, 8, 0);
+        HierarchicalTimingWheel.Timer<String> timer = wheel.schedule("a", 500);
+        wheel.schedule("b", 500);
+
+        assertThat(wheel.cancel(timer)).isTrue();
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advance(1_000)).containsExactly("b");
+    }
+
+    @Test
+    void alreadyExpiredTimersFireOnNextAdvance() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(100, 8, 1_000);
+        wheel.schedule("late", 500);
+
+        assertThat(wheel.advance(1_000)).containsExactly("late");
+    }
+
+    @Test
+    void randomScheduleMatchesNaiveOrdering() {
+        Random random = new Random(42);
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(10, 16, 0);
+        List<Long> expirations = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            long expiration = 1 + random.nextInt(200_000);
+            expirations.add(expiration);
+            wheel.schedule(expiration, expiration);
+        }
+
+        List<Long> fired = new ArrayList<>();
+        for (long now = 0; now <= 200_000; now += 1 + random.nextInt(500)) {
+            for (Long expiration : wheel.advance(now)) {
+                assertThat(expiration).isLessThanOrEqualTo(now);
+                assertThat(expiration).isGreaterThan(now - 500 - 10);
+                fired.add(expiration);
+            }
+        }
+        fired.addAll(wheel.advance(200_010));
+
+        assertThat(fired).containsExactlyInAnyOrderElementsOf(expirations);
+        assertThat(wheel.size()).isZero();
+    }
+}